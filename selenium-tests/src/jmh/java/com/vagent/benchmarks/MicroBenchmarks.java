@@ -0,0 +1,176 @@
+package com.vagent.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vagent.config.ConfigManager;
+import com.vagent.history.DurationStore;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH microbenchmarks for the framework's own hot paths (test data, configuration, page objects,
+ * screenshots, report serialisation) and keeps every run's results under history.dir/jmh, so each run is
+ * compared with the one before it. A benchmark whose score worsens by more than jmh.regression.threshold
+ * percent, beyond both runs' error margins, is flagged; jmh.fail.on.regression=true fails the build on it.
+ *
+ * Usage: mvn -Pjmh verify [-Djmh.include=PageObject] [-Djmh.forks=1] [-Djmh.iterations=5]
+ *        MicroBenchmarks diff .test-history/jmh/ci-101.json .test-history/jmh/ci-102.json
+ */
+public class MicroBenchmarks {
+
+    private static final String RESULTS_FILE = "target/jmh/results.json";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Map<String, Object>>> JSON_ARRAY =
+        new TypeReference<List<Map<String, Object>>>() {
+        };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && "diff".equals(args[0])) {
+            System.out.println(diff(args[1], read(new File(args[1])), args[2], read(new File(args[2]))));
+            return;
+        }
+
+        File results = new File(RESULTS_FILE);
+        results.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+            .include(ConfigManager.getProperty("jmh.include", "com\\.vagent\\."))
+            .forks(ConfigManager.getIntProperty("jmh.forks", 1))
+            .warmupIterations(ConfigManager.getIntProperty("jmh.warmup.iterations", 3))
+            .warmupTime(TimeValue.seconds(ConfigManager.getIntProperty("jmh.iteration.seconds", 1)))
+            .measurementIterations(ConfigManager.getIntProperty("jmh.iterations", 5))
+            .measurementTime(TimeValue.seconds(ConfigManager.getIntProperty("jmh.iteration.seconds", 1)))
+            .resultFormat(ResultFormatType.JSON)
+            .result(results.getPath())
+            .build();
+        new Runner(options).run();
+
+        File history = new File(ConfigManager.getProperty("history.dir", ".test-history"), "jmh");
+        String label = DurationStore.currentRunLabel();
+        String previous = archive(history, label, results);
+        if (previous == null) {
+            System.out.println("No earlier microbenchmark run to compare with; results kept as " + label);
+            return;
+        }
+        List<String> regressions = new ArrayList<>();
+        System.out.println(diff(previous, read(new File(history, previous + ".json")), label, read(results),
+            regressions));
+        if (!regressions.isEmpty() && ConfigManager.getBooleanProperty("jmh.fail.on.regression", false)) {
+            System.err.println("Microbenchmark regressions: " + regressions);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Keep the results under the run's label and return the label of the run before it, if any
+     */
+    private static String archive(File history, String label, File results) throws IOException {
+        history.mkdirs();
+        File index = new File(history, "runs.txt");
+        List<String> runs = index.exists()
+            ? Files.readAllLines(index.toPath(), StandardCharsets.UTF_8) : Collections.<String>emptyList();
+        String previous = null;
+        for (String run : runs) {
+            if (!run.isEmpty() && !run.equals(label) && new File(history, run + ".json").exists()) {
+                previous = run;
+            }
+        }
+        Files.copy(results.toPath(), new File(history, label + ".json").toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+        if (!runs.contains(label)) {
+            Files.write(index.toPath(), Collections.singletonList(label), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return previous;
+    }
+
+    public static String diff(String beforeLabel, List<Map<String, Object>> baseline, String afterLabel,
+                              List<Map<String, Object>> current) {
+        return diff(beforeLabel, baseline, afterLabel, current, new ArrayList<>());
+    }
+
+    /**
+     * Compare two JMH result files benchmark by benchmark, adding the flagged ones to regressions
+     */
+    private static String diff(String beforeLabel, List<Map<String, Object>> baseline, String afterLabel,
+                               List<Map<String, Object>> current, List<String> regressions) {
+        double threshold = ConfigManager.getDoubleProperty("jmh.regression.threshold", 10);
+        Map<String, Map<String, Object>> before = new LinkedHashMap<>();
+        for (Map<String, Object> result : baseline) {
+            before.put(name(result), result);
+        }
+
+        StringBuilder out = new StringBuilder(String.format("%nMicrobenchmark diff: %s -> %s%n",
+            beforeLabel, afterLabel));
+        out.append(String.format("  %-64s %-8s %26s%n", "benchmark", "unit", "score"));
+        for (Map<String, Object> after : current) {
+            String name = name(after);
+            Map<String, Object> old = before.get(name);
+            if (old == null) {
+                out.append(String.format("  %-64s (new benchmark)%n", name));
+                continue;
+            }
+            double oldScore = metric(old, "score");
+            double newScore = metric(after, "score");
+            // Lower is better for time per operation, higher for throughput
+            boolean throughput = "thrpt".equals(after.get("mode"));
+            double worse = throughput ? -change(oldScore, newScore) : change(oldScore, newScore);
+            boolean outsideError = throughput
+                ? newScore + metric(after, "scoreError") < oldScore - metric(old, "scoreError")
+                : newScore - metric(after, "scoreError") > oldScore + metric(old, "scoreError");
+            boolean regression = worse > threshold && outsideError;
+            if (regression) {
+                regressions.add(name);
+            }
+            out.append(String.format("  %-64s %-8s %26s%s%n", name, unit(after), compare(oldScore, newScore),
+                regression ? "  REGRESSION" : ""));
+        }
+        return out.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String name(Map<String, Object> result) {
+        String name = ((String) result.get("benchmark")).replace("com.vagent.", "");
+        Map<String, Object> params = (Map<String, Object>) result.get("params");
+        return params == null || params.isEmpty() ? name : name + new TreeMap<>(params);
+    }
+
+    private static String compare(double before, double after) {
+        return String.format("%.2f->%.2f (%+.0f%%)", before, after, change(before, after));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double metric(Map<String, Object> result, String key) {
+        Object value = ((Map<String, Object>) result.get("primaryMetric")).get(key);
+        // JMH writes "NaN" for the error of single-iteration runs
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String unit(Map<String, Object> result) {
+        return (String) ((Map<String, Object>) result.get("primaryMetric")).get("scoreUnit");
+    }
+
+    private static List<Map<String, Object>> read(File file) throws IOException {
+        return MAPPER.readValue(file, JSON_ARRAY);
+    }
+}
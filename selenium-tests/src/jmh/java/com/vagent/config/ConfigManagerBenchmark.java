@@ -0,0 +1,77 @@
+package com.vagent.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration lookups made from page objects, waits and listeners on every step. Also covers the same
+ * lookups with a thread override bound, a miss that falls through to system properties, and a full
+ * reload of every layer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigManagerBenchmark {
+
+    /**
+     * A test thread running under a per-method override, as ConfigListener binds it
+     */
+    @State(Scope.Thread)
+    public static class Overridden {
+        private ConfigManager.Scope scope;
+
+        @Setup
+        public void bind() {
+            scope = ConfigManager.withOverrides(Collections.singletonMap("explicit.wait", "5"));
+        }
+
+        @TearDown
+        public void unbind() {
+            scope.close();
+        }
+    }
+
+    @Benchmark
+    public String property() {
+        return ConfigManager.getProperty("base.url");
+    }
+
+    @Benchmark
+    public String missingProperty() {
+        return ConfigManager.getProperty("jmh.not.configured", "fallback");
+    }
+
+    @Benchmark
+    public int intProperty() {
+        return ConfigManager.getIntProperty("screenshot.max.width", 0);
+    }
+
+    @Benchmark
+    public boolean booleanProperty() {
+        return ConfigManager.getBooleanProperty("config.watch", false);
+    }
+
+    @Benchmark
+    public int explicitWait() {
+        return ConfigManager.getExplicitWait();
+    }
+
+    @Benchmark
+    public int explicitWaitOverridden(Overridden overridden) {
+        return ConfigManager.getExplicitWait();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean reload() {
+        return ConfigManager.reload();
+    }
+}
@@ -0,0 +1,123 @@
+package com.vagent.pages;
+
+import com.vagent.config.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.PageFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page-object construction and locator building. Constructors never talk to the browser, so they run
+ * against a driver stub and measure only element proxies, waits and row locators, with the shared
+ * PageRegistry wiring and with eager PageFactory wiring on every construction. navigation builds the
+ * pages a login, open project and back round trip creates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PageObjectBenchmark {
+
+    @Param({"true", "false"})
+    public String registry;
+
+    private WebDriver driver;
+    private ProjectPage projectPage;
+    private String email;
+
+    @Setup
+    public void stubDriver() {
+        ConfigManager.override("pages.registry", registry);
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                Class<?> type = method.getReturnType();
+                if (type == boolean.class) {
+                    return false;
+                }
+                if (type == int.class) {
+                    return 0;
+                }
+                if (type == long.class) {
+                    return 0L;
+                }
+                if (method.getName().equals("toString")) {
+                    return "stub driver";
+                }
+                return null;
+            });
+        projectPage = new ProjectPage(driver);
+        email = "user-" + System.nanoTime() + "@example.com";
+    }
+
+    @Benchmark
+    public LoginPage loginPage() {
+        return new LoginPage(driver);
+    }
+
+    @Benchmark
+    public RegisterPage registerPage() {
+        return new RegisterPage(driver);
+    }
+
+    @Benchmark
+    public HomePage homePage() {
+        return new HomePage(driver);
+    }
+
+    @Benchmark
+    public ProjectPage projectPage() {
+        return new ProjectPage(driver);
+    }
+
+    @Benchmark
+    public HomePage navigation() {
+        new LoginPage(driver);
+        new HomePage(driver);
+        new ProjectPage(driver);
+        return new HomePage(driver);
+    }
+
+    @Benchmark
+    public ProjectPage initElements() {
+        PageFactory.initElements(driver, projectPage);
+        return projectPage;
+    }
+
+    @Benchmark
+    public By xpathLocator() {
+        return By.xpath("//h1[contains(text(), '" + email + "')]/ancestor::div[@class='user']");
+    }
+
+    @Benchmark
+    public By cssLocator() {
+        return By.cssSelector(".file-tree .tree-element");
+    }
+
+    @Benchmark
+    public DomSnapshot.Query snapshotQuery() {
+        return new DomSnapshot.Query()
+            .select("title", "h1")
+            .select("messages", ".message", "p")
+            .select("collaborators", ".user")
+            .select("files", ".tree-element")
+            .select("sidePanel", ".sidePanel");
+    }
+}
@@ -0,0 +1,54 @@
+package com.vagent.report;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisation of report events into events.jsonl lines, as the report writer does for every step,
+ * log and test end
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ReportSerializationBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ReportEvent step;
+    private ReportEvent failure;
+
+    @Setup
+    public void events() {
+        step = new ReportEvent(ReportEvent.Kind.STEP, 42);
+        step.name = "sendMessage";
+        step.status = "pass";
+        step.detail = "Sent [u1#17] to the project chat";
+        step.durationMillis = 83;
+
+        failure = new ReportEvent(ReportEvent.Kind.TEST_END, 42);
+        failure.name = "testSendMessage";
+        failure.className = "com.vagent.tests.CollaborationTest";
+        failure.status = "fail";
+        failure.error = new AssertionError("Last message should be the one just sent expected [a] but found [b]");
+        failure.durationMillis = 4210;
+    }
+
+    @Benchmark
+    public String stepLine() throws JsonProcessingException {
+        return MAPPER.writeValueAsString(step.toJson(null));
+    }
+
+    @Benchmark
+    public String failureLine() throws JsonProcessingException {
+        return MAPPER.writeValueAsString(failure.toJson("screenshots/testSendMessage-1.jpg"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.vagent.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What ScreenshotService does with each captured frame: hash it for deduplication, then re-encode it
+ * according to screenshot.format and screenshot.max.width. The frame is a synthetic 1366x768 page with
+ * text and gradients, so it compresses roughly like a real one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ScreenshotEncodingBenchmark {
+
+    private byte[] png;
+
+    @Setup
+    public void capture() throws IOException {
+        BufferedImage page = new BufferedImage(1366, 768, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = page.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(0x1e293b), 1366, 768, new Color(0x334155)));
+        graphics.fillRect(0, 0, 1366, 768);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+        for (int row = 0; row < 40; row++) {
+            graphics.setColor(row % 2 == 0 ? Color.WHITE : new Color(0x94a3b8));
+            graphics.drawString("[u" + row % 4 + "#" + row + "] " + TestDataGenerator.generateTestMessage(),
+                24, 24 + row * 18);
+        }
+        graphics.setColor(new Color(0x0ea5e9));
+        graphics.fillRoundRect(1000, 40, 320, 680, 12, 12);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(page, "png", out);
+        png = out.toByteArray();
+    }
+
+    @Benchmark
+    public String dedupHash() {
+        return ScreenshotService.sha256(png);
+    }
+
+    @Benchmark
+    public byte[] jpeg() throws IOException {
+        return ScreenshotService.encode(png, "jpg", 0.75f, 0);
+    }
+
+    @Benchmark
+    public byte[] jpegScaled() throws IOException {
+        return ScreenshotService.encode(png, "jpg", 0.75f, 800);
+    }
+
+    @Benchmark
+    public byte[] pngScaled() throws IOException {
+        return ScreenshotService.encode(png, "png", 0.75f, 800);
+    }
+}
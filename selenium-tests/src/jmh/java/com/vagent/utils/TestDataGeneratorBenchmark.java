@@ -0,0 +1,57 @@
+package com.vagent.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test data generation, called for every seeded user, project and message. The contended variant runs
+ * as many threads as a parallel suite does against the per-test random streams.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TestDataGeneratorBenchmark {
+
+    @Benchmark
+    public String randomEmail() {
+        return TestDataGenerator.generateRandomEmail();
+    }
+
+    @Benchmark
+    public String randomPassword() {
+        return TestDataGenerator.generateRandomPassword();
+    }
+
+    @Benchmark
+    public String randomProjectName() {
+        return TestDataGenerator.generateRandomProjectName();
+    }
+
+    @Benchmark
+    public String randomString() {
+        return TestDataGenerator.generateRandomString(16);
+    }
+
+    @Benchmark
+    public String testMessage() {
+        return TestDataGenerator.generateTestMessage();
+    }
+
+    @Benchmark
+    public String uniqueSuffix() {
+        return TestDataGenerator.uniqueSuffix();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomEmailContended() {
+        return TestDataGenerator.generateRandomEmail();
+    }
+}
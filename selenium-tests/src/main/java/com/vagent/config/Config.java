@@ -0,0 +1,369 @@
+package com.vagent.config;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, resolved configuration: the layers of ConfigSource merged by priority, ${NAME:default}
+ * placeholders expanded and every value checked once when it is built. Typed values are parsed at most once,
+ * so reading a Config from many threads costs a map lookup. Changing a layer builds a new Config (see with).
+ */
+public final class Config {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}:]+)(?::([^}]*))?}");
+    private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+    private static final Pattern DECIMAL = Pattern.compile("-?\\d*\\.\\d+");
+    private static final int MAX_DEPTH = 10;
+    private static final List<String> BROWSERS = Arrays.asList("chrome", "firefox", "edge");
+    private static final List<String> PARALLEL_MODES = Arrays.asList("none", "tests", "classes", "methods");
+
+    private final List<ConfigSource> sources;
+    private final Map<String, String> values;
+    private final Map<String, String> origins;
+    private final Set<String> knownKeys;
+    private final Map<String, Object> typed = new ConcurrentHashMap<>();
+
+    private final String baseUrl;
+    private final String apiUrl;
+    private final String browser;
+    private final String driverProfile;
+    private final Boolean headlessOverride;
+    private final int implicitWait;
+    private final int explicitWait;
+    private final int pageLoadTimeout;
+    private final String parallelMode;
+    private final int threadCount;
+
+    private Config(List<ConfigSource> sources, Map<String, String> values, Map<String, String> origins,
+                   Set<String> knownKeys) {
+        this.sources = Collections.unmodifiableList(sources);
+        this.values = Collections.unmodifiableMap(values);
+        this.origins = Collections.unmodifiableMap(origins);
+        this.knownKeys = Collections.unmodifiableSet(knownKeys);
+        this.baseUrl = get("base.url", "https://localhost:3000");
+        this.apiUrl = get("api.url", "https://vagentbetabackend.onrender.com");
+        this.browser = get("browser", "chrome");
+        this.driverProfile = get("driver.profile", "headless");
+        Boolean headless = getOptionalBoolean("headless");
+        this.headlessOverride = headless != null ? headless : getOptionalBoolean("headless.mode");
+        this.implicitWait = getInt("implicit.wait", 30);
+        this.explicitWait = getInt("explicit.wait", 60);
+        this.pageLoadTimeout = getInt("page.load.timeout", 120);
+        this.parallelMode = get("test.parallel", "none").trim().toLowerCase();
+        this.threadCount = getInt("test.thread.count", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Merge, resolve and validate the layers, throwing IllegalStateException that lists every problem found
+     */
+    public static Config of(List<ConfigSource> layers) {
+        List<ConfigSource> sources = new ArrayList<>(layers);
+        sources.sort(Comparator.comparingInt(ConfigSource::getPriority));
+        Map<String, String> raw = new LinkedHashMap<>();
+        Map<String, String> origins = new HashMap<>();
+        Set<String> knownKeys = new LinkedHashSet<>();
+        for (ConfigSource source : sources) {
+            raw.putAll(source.getValues());
+            for (String key : source.getValues().keySet()) {
+                origins.put(key, source.getName());
+            }
+            if (source.getPriority() <= ConfigSource.SHARD) {
+                knownKeys.addAll(source.getValues().keySet());
+            }
+        }
+
+        List<String> problems = new ArrayList<>();
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : raw.keySet()) {
+            values.put(key, resolve(key, raw, values, new HashSet<>(), problems, origins));
+        }
+        validate(sources, values, origins, problems);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid configuration:\n  " + String.join("\n  ", problems));
+        }
+        return new Config(sources, values, origins, knownKeys);
+    }
+
+    /**
+     * This configuration with a layer added, or replaced when one of the same name is already present
+     */
+    public Config with(ConfigSource layer) {
+        List<ConfigSource> layers = new ArrayList<>();
+        for (ConfigSource source : sources) {
+            if (!source.getName().equals(layer.getName())) {
+                layers.add(source);
+            }
+        }
+        layers.add(layer);
+        return of(layers);
+    }
+
+    public ConfigSource getSource(String name) {
+        for (ConfigSource source : sources) {
+            if (source.getName().equals(name)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    public List<ConfigSource> getSources() {
+        return sources;
+    }
+
+    public String get(String key) {
+        return lookup(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = lookup(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = typed(key, "int");
+        return value != null ? (Integer) value : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Object value = typed(key, "double");
+        return value != null ? (Double) value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = typed(key, "boolean");
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * A boolean that is only applied when set, or null when the key is missing or blank
+     */
+    public Boolean getOptionalBoolean(String key) {
+        String value = lookup(key);
+        return value == null || value.trim().isEmpty() ? null : getBoolean(key, false);
+    }
+
+    /**
+     * Which layer the value of key came from, for error messages
+     */
+    public String getOrigin(String key) {
+        return origins.get(key);
+    }
+
+    /**
+     * Whether a key belongs to this configuration: defined in the defaults, config files or shard overlay,
+     * or sharing its first segment (such as stub. or perf.) with a key that is
+     */
+    public boolean isConfigurable(String key) {
+        return ConfigSource.isKnown(knownKeys, key);
+    }
+
+    public Set<String> getKnownKeys() {
+        return knownKeys;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public String getDriverProfile() {
+        return driverProfile;
+    }
+
+    public Boolean getHeadlessOverride() {
+        return headlessOverride;
+    }
+
+    public int getImplicitWait() {
+        return implicitWait;
+    }
+
+    public int getExplicitWait() {
+        return explicitWait;
+    }
+
+    public int getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    public String getParallelMode() {
+        return parallelMode;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    private Object typed(String key, String type) {
+        String cacheKey = type + ":" + key;
+        Object value = typed.get(cacheKey);
+        if (value != null) {
+            return value;
+        }
+        String text = values.get(key);
+        boolean cacheable = text != null;
+        if (text == null && (text = System.getProperty(key)) == null) {
+            return null;
+        }
+        try {
+            if ("int".equals(type)) {
+                value = Integer.parseInt(text.trim());
+            } else if ("double".equals(type)) {
+                value = Double.parseDouble(text.trim());
+            } else {
+                value = Boolean.parseBoolean(text.trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Config key " + key + " is not a valid " + type + ": '" + text
+                + "' (from " + origins.get(key) + ")");
+        }
+        if (cacheable) {
+            typed.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * A key's value, falling back to a -D flag for keys outside the known families, which are not snapshotted
+     */
+    private String lookup(String key) {
+        String value = values.get(key);
+        return value != null ? value : System.getProperty(key);
+    }
+
+    private static String resolve(String key, Map<String, String> raw, Map<String, String> resolved,
+                                  Set<String> visiting, List<String> problems, Map<String, String> origins) {
+        String done = resolved.get(key);
+        if (done != null) {
+            return done;
+        }
+        if (!visiting.add(key)) {
+            problems.add(key + ": placeholder cycle through " + visiting);
+            return raw.get(key);
+        }
+        String value = expand(key, raw.get(key), raw, resolved, visiting, problems, origins, 0);
+        visiting.remove(key);
+        resolved.put(key, value);
+        return value;
+    }
+
+    private static String expand(String key, String value, Map<String, String> raw, Map<String, String> resolved,
+                                 Set<String> visiting, List<String> problems, Map<String, String> origins,
+                                 int depth) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        if (depth > MAX_DEPTH) {
+            problems.add(key + ": placeholders nested more than " + MAX_DEPTH + " deep");
+            return value;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        StringBuffer expanded = new StringBuffer();
+        while (matcher.find()) {
+            String name = matcher.group(1).trim();
+            String replacement;
+            if (raw.containsKey(name)) {
+                replacement = resolve(name, raw, resolved, visiting, problems, origins);
+            } else if (System.getProperty(name) != null) {
+                replacement = System.getProperty(name);
+            } else if (System.getenv(name) != null) {
+                replacement = System.getenv(name);
+            } else if (matcher.group(2) != null) {
+                replacement = expand(key, matcher.group(2), raw, resolved, visiting, problems, origins, depth + 1);
+            } else {
+                problems.add(key + ": unresolved placeholder ${" + name + "} (from " + origins.get(key) + ")");
+                replacement = matcher.group();
+            }
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+
+    /**
+     * Check values against the type of their default (the lowest layer giving a literal, non-blank value),
+     * plus URLs, browser and parallel mode
+     */
+    private static void validate(List<ConfigSource> sources, Map<String, String> values, Map<String, String> origins,
+                                 List<String> problems) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue() != null ? entry.getValue().trim() : "";
+            String type = defaultType(sources, key);
+            String from = " (from " + origins.get(key) + ")";
+            if ("int".equals(type) && !INTEGER.matcher(value).matches()) {
+                problems.add(key + ": expected an integer but was '" + value + "'" + from);
+            } else if ("double".equals(type) && !INTEGER.matcher(value).matches()
+                && !DECIMAL.matcher(value).matches()) {
+                problems.add(key + ": expected a number but was '" + value + "'" + from);
+            } else if ("boolean".equals(type) && !value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                problems.add(key + ": expected true or false but was '" + value + "'" + from);
+            }
+            if (key.endsWith(".url") && !value.isEmpty() && !value.contains("${") && !isHttpUrl(value)) {
+                problems.add(key + ": expected an http(s) URL but was '" + value + "'" + from);
+            }
+        }
+        String browser = values.get("browser");
+        if (browser != null && !BROWSERS.contains(browser.trim().toLowerCase())) {
+            problems.add("browser: expected one of " + BROWSERS + " but was '" + browser + "'"
+                + " (from " + origins.get("browser") + ")");
+        }
+        String parallel = values.get("test.parallel");
+        if (parallel != null && !PARALLEL_MODES.contains(parallel.trim().toLowerCase())) {
+            problems.add("test.parallel: expected one of " + PARALLEL_MODES + " but was '" + parallel + "'"
+                + " (from " + origins.get("test.parallel") + ")");
+        }
+    }
+
+    private static String defaultType(List<ConfigSource> sources, String key) {
+        for (ConfigSource source : sources) {
+            String value = source.getValues().get(key);
+            if (value == null || value.trim().isEmpty() || value.contains("${")) {
+                continue;
+            }
+            value = value.trim();
+            if (INTEGER.matcher(value).matches()) {
+                return "int";
+            }
+            if (DECIMAL.matcher(value).matches()) {
+                return "double";
+            }
+            if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+                return "boolean";
+            }
+            return "string";
+        }
+        return "string";
+    }
+
+    private static boolean isHttpUrl(String value) {
+        try {
+            URI uri = new URI(value);
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+}
@@ -1,76 +1,379 @@
 package com.vagent.config;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.Properties;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Configuration manager to handle application properties
+ * Configuration manager to handle application properties.
+ *
+ * Values are layered (see ConfigSource): built-in defaults, config.properties on the classpath, the config
+ * file (-Dconfig.file, default src/test/resources/config.properties), config-shard-N.properties next to it
+ * for shard N, suite parameters, environment variables (DRIVER_PROFILE for driver.profile), -D system
+ * properties (-DbaseUrl is accepted for base.url) and runtime overrides. ${NAME:default} placeholders are
+ * expanded and the result is validated once into an immutable Config; readers never lock.
+ *
+ * A thread can run against other values with withOverrides, and ConfigListener binds each suite's
+ * parameters to the threads running its tests. -D flags outside the families of the config files (no
+ * key shares their first segment) are not layered, but are still read when nothing else defines the key.
+ * reload() re-reads the files and environment, and config.watch=true does so whenever the config file
+ * changes.
  */
 public class ConfigManager {
-    private static Properties properties = new Properties();
+    private static final String CONFIG_RESOURCE = "config.properties";
     private static final String CONFIG_FILE_PATH = "src/test/resources/config.properties";
 
+    private static final ThreadLocal<Config> bound = new ThreadLocal<>();
+    private static final Map<String, SuiteConfig> suites = new ConcurrentHashMap<>();
+    private static volatile Config base;
+    private static volatile Map<String, String> runtime = new LinkedHashMap<>();
+
     static {
-        loadProperties();
+        base = load(runtime);
+        if (base.getBoolean("config.watch", false)) {
+            watch();
+        }
     }
 
-    private static void loadProperties() {
+    /**
+     * The configuration seen by the calling thread: its bound overrides, else the shared configuration
+     */
+    public static Config current() {
+        Config config = bound.get();
+        return config != null ? config : base;
+    }
+
+    /**
+     * Re-read the config files, environment and system properties, keeping runtime overrides. An invalid
+     * configuration is reported and the previous one kept.
+     */
+    public static synchronized boolean reload() {
         try {
-            FileInputStream fileInputStream = new FileInputStream(CONFIG_FILE_PATH);
-            properties.load(fileInputStream);
-            fileInputStream.close();
-        } catch (IOException e) {
-            System.err.println("Failed to load config properties: " + e.getMessage());
-            // Set default values
-            setDefaultProperties();
+            base = load(runtime);
+            return true;
+        } catch (IllegalStateException e) {
+            System.err.println("Keeping the previous configuration: " + e.getMessage());
+            return false;
         }
     }
 
-    private static void setDefaultProperties() {
-        // Use environment variables or fallback to defaults
-        properties.setProperty("base.url", System.getenv("BASE_URL") != null ? 
-            System.getenv("BASE_URL") : "https://localhost:3000");
-        properties.setProperty("browser", System.getenv("BROWSER") != null ? 
-            System.getenv("BROWSER") : "chrome");
-        properties.setProperty("implicit.wait", "30");
-        properties.setProperty("explicit.wait", "60");
-        properties.setProperty("page.load.timeout", "120");
-        properties.setProperty("test.email", System.getenv("TEST_EMAIL") != null ? 
-            System.getenv("TEST_EMAIL") : "test@example.com");
-        properties.setProperty("test.password", System.getenv("TEST_PASSWORD") != null ? 
-            System.getenv("TEST_PASSWORD") : "password123");
+    /**
+     * Set a value for the rest of the run, above every file, environment and -D value; used by the stub
+     * backend to point base.url and api.url at itself. The calling thread's bound configuration is rebased
+     * at once, so a @BeforeSuite method bound by ConfigListener sees the value it just set. Other bound
+     * threads see it when ConfigListener binds their next method, or when their withOverrides scope closes.
+     */
+    public static synchronized void override(String key, String value) {
+        Map<String, String> values = new LinkedHashMap<>(runtime);
+        values.put(key, value);
+        base = base.with(new ConfigSource("runtime", ConfigSource.RUNTIME, values));
+        runtime = values;
+        Config config = bound.get();
+        if (config != null) {
+            bound.set(rebase(config));
+        }
+    }
+
+    /**
+     * A configuration bound before the latest runtime override, with that override applied
+     */
+    private static Config rebase(Config config) {
+        Map<String, String> values = runtime;
+        ConfigSource layer = config.getSource("runtime");
+        if (layer != null && layer.getValues().equals(values)) {
+            return config;
+        }
+        return config.with(new ConfigSource("runtime", ConfigSource.RUNTIME, values));
+    }
+
+    /**
+     * Run the calling thread against the current configuration with values replaced, until the scope closes:
+     * try (ConfigManager.Scope scope = ConfigManager.withOverrides(Map.of("api.url", url))) { ... }
+     */
+    public static Scope withOverrides(Map<String, String> values) {
+        Config config = current();
+        int depth = 0;
+        while (config.getSource("thread:" + depth) != null) {
+            depth++;
+        }
+        return bind(config.with(new ConfigSource("thread:" + depth, ConfigSource.THREAD + depth, values)));
+    }
+
+    /**
+     * Bind a configuration to the calling thread until the scope closes
+     */
+    public static Scope bind(Config config) {
+        Scope scope = new Scope(bound.get());
+        bound.set(config);
+        return scope;
+    }
+
+    /**
+     * The configuration for a suite: its parameters that name configuration keys, above the config files
+     * but below environment variables and -D flags, so the command line still wins. Built once per suite and
+     * rebuilt only after a reload or runtime override.
+     */
+    public static Config forSuite(String suite, Map<String, String> parameters) {
+        Config shared = base;
+        SuiteConfig cached = suites.get(suite);
+        if (cached != null && cached.base == shared) {
+            return cached.config;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            if (shared.isConfigurable(parameter.getKey())) {
+                values.put(parameter.getKey(), parameter.getValue());
+            }
+        }
+        Config config = values.isEmpty() ? shared
+            : shared.with(new ConfigSource("suite:" + suite, ConfigSource.SUITE, values));
+        suites.put(suite, new SuiteConfig(shared, config));
+        return config;
+    }
+
+    /**
+     * The -D flags of configuration keys, as given to this JVM, for passing on to child JVMs
+     */
+    public static Map<String, String> getCommandLineOverrides() {
+        ConfigSource system = base.getSource("system");
+        return system != null ? system.getValues() : new LinkedHashMap<>();
+    }
+
+    private static Config load(Map<String, String> runtimeValues) {
+        File file = new File(System.getProperty("config.file", CONFIG_FILE_PATH));
+        List<ConfigSource> sources = new ArrayList<>();
+        sources.add(defaults());
+        sources.add(ConfigSource.classpath(CONFIG_RESOURCE, ConfigSource.CLASSPATH));
+        sources.add(ConfigSource.file(file, ConfigSource.FILE));
+        String shard = System.getProperty("shard.index", System.getenv("SHARD_INDEX"));
+        if (shard != null) {
+            File overlay = shardFile(file, shard);
+            sources.add(overlay.isFile() ? ConfigSource.file(overlay, ConfigSource.SHARD)
+                : ConfigSource.classpath(overlay.getName(), ConfigSource.SHARD));
+        }
+        if (sources.get(1).getValues().isEmpty() && sources.get(2).getValues().isEmpty()) {
+            System.err.println("Failed to load config properties: no " + CONFIG_RESOURCE + " on the classpath or at "
+                + file.getPath() + ", using defaults");
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (ConfigSource source : sources) {
+            keys.addAll(source.getValues().keySet());
+        }
+        sources.add(ConfigSource.env(keys));
+        sources.add(ConfigSource.system(keys));
+        sources.add(new ConfigSource("runtime", ConfigSource.RUNTIME, runtimeValues));
+        return Config.of(sources);
+    }
+
+    private static ConfigSource defaults() {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("base.url", "${BASE_URL:https://localhost:3000}");
+        values.put("browser", "${BROWSER:chrome}");
+        values.put("implicit.wait", "30");
+        values.put("explicit.wait", "60");
+        values.put("page.load.timeout", "120");
+        values.put("test.email", "${TEST_EMAIL:test@example.com}");
+        values.put("test.password", "${TEST_PASSWORD:password123}");
+        return new ConfigSource("defaults", ConfigSource.DEFAULTS, values);
+    }
+
+    private static File shardFile(File file, String shard) {
+        return new File(file.getAbsoluteFile().getParentFile(), "config-shard-" + shard.trim() + ".properties");
+    }
+
+    /**
+     * Reload whenever the config file or a shard overlay in its directory changes
+     */
+    private static void watch() {
+        File file = new File(System.getProperty("config.file", CONFIG_FILE_PATH)).getAbsoluteFile();
+        Path dir = file.getParentFile().toPath();
+        WatchService service;
+        try {
+            service = dir.getFileSystem().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + dir + " for config changes: " + e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(() -> {
+            while (true) {
+                WatchKey key;
+                try {
+                    key = service.take();
+                    // Editors often write in several steps; let them finish
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    String name = String.valueOf(event.context());
+                    changed |= name.equals(file.getName()) || name.startsWith("config-shard-");
+                }
+                key.reset();
+                if (changed && reload()) {
+                    System.out.println("Reloaded configuration from " + dir);
+                }
+            }
+        }, "config-watch");
+        watcher.setDaemon(true);
+        watcher.start();
     }
 
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return current().get(key);
+    }
+
+    /**
+     * Get property value, letting a -Dkey=value system property override the config file
+     */
+    public static String getProperty(String key, String defaultValue) {
+        return current().get(key, defaultValue);
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        return current().getInt(key, defaultValue);
+    }
+
+    public static double getDoubleProperty(String key, double defaultValue) {
+        return current().getDouble(key, defaultValue);
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        return current().getBoolean(key, defaultValue);
     }
 
+    /**
+     * Whether a key belongs to this configuration: defined in the config file, or sharing its first
+     * segment (such as stub. or perf.) with a key that is
+     */
+    public static boolean isConfigurable(String key) {
+        return current().isConfigurable(key);
+    }
+
+    /**
+     * Get a boolean that is only applied when set, or null when the key is missing or blank
+     */
+    public static Boolean getOptionalBoolean(String key) {
+        return current().getOptionalBoolean(key);
+    }
+
+    /**
+     * Get frontend URL (-Dbase.url or -DbaseUrl, then BASE_URL, then config file; the stub backend overrides it)
+     */
     public static String getBaseUrl() {
-        return properties.getProperty("base.url");
+        return current().getBaseUrl();
+    }
+
+    /**
+     * Get backend API URL (-Dapi.url, then API_URL, then config file; the stub backend overrides it)
+     */
+    public static String getApiUrl() {
+        return current().getApiUrl();
     }
 
     public static String getBrowser() {
-        return properties.getProperty("browser");
+        return current().getBrowser();
+    }
+
+    /**
+     * Get driver profile name (-Ddriver.profile, then DRIVER_PROFILE, then config file)
+     */
+    public static String getDriverProfile() {
+        return current().getDriverProfile();
+    }
+
+    /**
+     * Headless override from -Dheadless (used by CI) or headless.mode, or null to keep the profile's setting
+     */
+    public static Boolean getHeadlessOverride() {
+        return current().getHeadlessOverride();
     }
 
     public static int getImplicitWait() {
-        return Integer.parseInt(properties.getProperty("implicit.wait"));
+        return current().getImplicitWait();
     }
 
     public static int getExplicitWait() {
-        return Integer.parseInt(properties.getProperty("explicit.wait"));
+        return current().getExplicitWait();
     }
 
     public static int getPageLoadTimeout() {
-        return Integer.parseInt(properties.getProperty("page.load.timeout"));
+        return current().getPageLoadTimeout();
     }
 
     public static String getTestEmail() {
-        return properties.getProperty("test.email");
+        return current().get("test.email");
     }
 
     public static String getTestPassword() {
-        return properties.getProperty("test.password");
+        return current().get("test.password");
+    }
+
+    public static String getParallelMode() {
+        return current().getParallelMode();
+    }
+
+    public static int getThreadCount() {
+        return current().getThreadCount();
+    }
+
+    public static boolean isDriverPoolEnabled() {
+        return getBooleanProperty("driver.pool.enabled", true);
+    }
+
+    public static int getDriverPoolSize() {
+        // Never fewer browsers than worker threads, otherwise parallel tests queue on lease
+        int size = getIntProperty("driver.pool.size", 4);
+        return "none".equals(getParallelMode()) ? size : Math.max(size, getThreadCount());
+    }
+
+    public static int getDriverPoolMaxUses() {
+        return getIntProperty("driver.pool.max.uses", 25);
+    }
+
+    public static int getDriverPoolLeaseTimeout() {
+        return getIntProperty("driver.pool.lease.timeout", 120);
+    }
+
+    /**
+     * Restores the thread's previous configuration when closed
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Config previous;
+
+        private Scope(Config previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                bound.set(rebase(previous));
+            } else {
+                bound.remove();
+            }
+        }
+    }
+
+    private static final class SuiteConfig {
+        private final Config base;
+        private final Config config;
+
+        SuiteConfig(Config base, Config config) {
+            this.base = base;
+            this.config = config;
+        }
     }
 }
@@ -0,0 +1,168 @@
+package com.vagent.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * One layer of configuration values. Layers are applied in priority order, higher priorities winning:
+ * built-in defaults, the classpath config.properties, the config file, the shard overlay, suite parameters,
+ * environment variables, -D system properties, runtime overrides and finally per-thread overrides.
+ */
+public final class ConfigSource {
+
+    public static final int DEFAULTS = 0;
+    public static final int CLASSPATH = 10;
+    public static final int FILE = 20;
+    public static final int SHARD = 30;
+    public static final int SUITE = 40;
+    public static final int ENV = 50;
+    public static final int SYSTEM = 60;
+    public static final int RUNTIME = 70;
+    public static final int THREAD = 80;
+
+    private final String name;
+    private final int priority;
+    private final Map<String, String> values;
+
+    public ConfigSource(String name, int priority, Map<String, String> values) {
+        this.name = name;
+        this.priority = priority;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * A properties resource on the classpath, empty when there is none
+     */
+    public static ConfigSource classpath(String resource, int priority) {
+        Map<String, String> values = new LinkedHashMap<>();
+        try (InputStream in = ConfigSource.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                values = read(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read classpath config " + resource, e);
+        }
+        return new ConfigSource("classpath:" + resource, priority, values);
+    }
+
+    /**
+     * A properties file, empty when it does not exist
+     */
+    public static ConfigSource file(File file, int priority) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                values = read(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read config file " + file.getPath(), e);
+            }
+        }
+        return new ConfigSource("file:" + file.getPath(), priority, values);
+    }
+
+    /**
+     * Environment variables named after known keys: driver.profile is read from DRIVER_PROFILE
+     */
+    public static ConfigSource env(Collection<String> keys) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : keys) {
+            String value = System.getenv(envName(key));
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return new ConfigSource("env", ENV, values);
+    }
+
+    /**
+     * -D system properties of known keys, also accepting the camelCase spelling CI uses (-DbaseUrl for base.url);
+     * the dotted spelling wins when both are given
+     */
+    public static ConfigSource system(Collection<String> keys) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Properties system = System.getProperties();
+        for (String name : system.stringPropertyNames()) {
+            String key = dotted(name);
+            if (!key.equals(name) && system.getProperty(key) != null) {
+                continue;
+            }
+            if (isKnown(keys, key)) {
+                values.put(key, system.getProperty(name));
+            }
+        }
+        return new ConfigSource("system", SYSTEM, values);
+    }
+
+    public static String envName(String key) {
+        return key.toUpperCase().replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * Whether a key is defined by one of keys, or shares its first segment (such as stub. or perf.) with one.
+     * A key without a dot has no family and must be defined itself, so -Dbase is not taken for base.url.
+     */
+    static boolean isKnown(Collection<String> keys, String key) {
+        if (keys.contains(key)) {
+            return true;
+        }
+        if (!key.contains(".")) {
+            return false;
+        }
+        String prefix = key.substring(0, key.indexOf('.') + 1);
+        for (String name : keys) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String dotted(String name) {
+        if (name.contains(".") || name.equals(name.toLowerCase())) {
+            return name;
+        }
+        StringBuilder key = new StringBuilder(name.length() + 4);
+        for (char c : name.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                key.append('.').append(Character.toLowerCase(c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private static Map<String, String> read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
+        }
+        return values;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + values.size() + " keys)";
+    }
+}
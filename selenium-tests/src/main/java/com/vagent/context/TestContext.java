@@ -0,0 +1,79 @@
+package com.vagent.context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread state for the test method currently executing on that thread
+ */
+public class TestContext {
+
+    private static final ThreadLocal<TestContext> current = new ThreadLocal<>();
+
+    private final String className;
+    private final String methodName;
+    private final long startedAtMillis;
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private TestContext(String className, String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+        this.startedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Bind a fresh context to the calling thread
+     */
+    public static TestContext start(String className, String methodName) {
+        TestContext context = new TestContext(className, methodName);
+        current.set(context);
+        return context;
+    }
+
+    /**
+     * Get the context bound to the calling thread, or null outside a test
+     */
+    public static TestContext get() {
+        return current.get();
+    }
+
+    /**
+     * Get the current test name, or "unknown" outside a test
+     */
+    public static String currentTestName() {
+        TestContext context = current.get();
+        return context != null ? context.getTestName() : "unknown";
+    }
+
+    /**
+     * Unbind the context from the calling thread
+     */
+    public static void clear() {
+        current.remove();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getTestName() {
+        return className + "." + methodName;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public void setAttribute(String key, Object value) {
+        attributes.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String key) {
+        return (T) attributes.get(key);
+    }
+}
@@ -1,16 +1,33 @@
 package com.vagent.driver;
 
 import com.vagent.config.ConfigManager;
+import com.vagent.metrics.DriverMetricsListener;
+import com.vagent.metrics.MetricsRegistry;
+import com.vagent.network.NetworkCapture;
+import com.vagent.pages.PageRegistry;
+import com.vagent.perf.WebVitals;
+import com.vagent.wait.WaitEngine;
 import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.Dimension;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * WebDriver factory for creating and managing WebDriver instances
@@ -18,11 +35,76 @@ import java.time.Duration;
 public class DriverFactory {
     
     private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    private static volatile DriverPool driverPool;
+    
+    private static final String NO_ANIMATIONS_SCRIPT =
+        "(function () {"
+        + "  var css = '*, *::before, *::after { transition-duration: 0s !important; transition-delay: 0s !important;"
+        + " animation-duration: 0s !important; animation-delay: 0s !important; scroll-behavior: auto !important; }';"
+        + "  function add() { var style = document.createElement('style'); style.textContent = css;"
+        + " (document.head || document.documentElement).appendChild(style); }"
+        + "  if (document.documentElement) { add(); } else { document.addEventListener('DOMContentLoaded', add); }"
+        + "})();";
+    
+    /**
+     * Create WebDriver instance for the current thread, leasing a warm one from the pool when enabled
+     */
+    public static WebDriver createDriver() {
+        WebDriver driver = ConfigManager.isDriverPoolEnabled() ? getPool().lease() : newDriver();
+        driverThreadLocal.set(driver);
+        return driver;
+    }
+    
+    /**
+     * Make an existing driver the current thread's driver, e.g. when a dependent test method
+     * of a class-scoped session is scheduled on a different worker thread
+     */
+    public static void bindDriver(WebDriver driver) {
+        driverThreadLocal.set(driver);
+    }
     
     /**
-     * Create WebDriver instance based on browser configuration
+     * Detach the current thread's driver without releasing it
      */
-    public static void createDriver() {
+    public static void unbindDriver() {
+        driverThreadLocal.remove();
+    }
+    
+    /**
+     * Get the shared driver pool, creating it on first use
+     */
+    public static DriverPool getPool() {
+        if (driverPool == null) {
+            synchronized (DriverFactory.class) {
+                if (driverPool == null) {
+                    DriverPool pool = new DriverPool(
+                        DriverFactory::newDriver,
+                        DriverFactory::configureWindow,
+                        ConfigManager.getDriverPoolSize(),
+                        ConfigManager.getDriverPoolMaxUses(),
+                        Duration.ofSeconds(ConfigManager.getDriverPoolLeaseTimeout()));
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        System.out.println(pool.getStats());
+                        pool.shutdown();
+                    }, "driver-pool-shutdown"));
+                    driverPool = pool;
+                }
+            }
+        }
+        return driverPool;
+    }
+    
+    /**
+     * Launch a new WebDriver instance based on browser configuration
+     */
+    static WebDriver newDriver() {
+        return newDriver(DriverProfile.fromConfig());
+    }
+    
+    /**
+     * Launch a new WebDriver instance for the configured browser using the given profile
+     */
+    public static WebDriver newDriver(DriverProfile profile) {
         String browser = ConfigManager.getBrowser().toLowerCase();
         WebDriver driver;
         
@@ -37,8 +119,10 @@ public class DriverFactory {
                 chromeOptions.addArguments("--disable-dev-shm-usage");
                 chromeOptions.addArguments("--disable-blink-features=AutomationControlled");
                 chromeOptions.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-                // Uncomment for headless mode
-                // chromeOptions.addArguments("--headless");
+                applyProfile(chromeOptions, profile);
+                if (NetworkCapture.isEnabled()) {
+                    NetworkCapture.configure(chromeOptions);
+                }
                 driver = new ChromeDriver(chromeOptions);
                 break;
                 
@@ -47,8 +131,7 @@ public class DriverFactory {
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
                 firefoxOptions.addPreference("dom.webnotifications.enabled", false);
                 firefoxOptions.addPreference("dom.push.enabled", false);
-                // Uncomment for headless mode
-                // firefoxOptions.addArguments("--headless");
+                applyProfile(firefoxOptions, profile);
                 driver = new FirefoxDriver(firefoxOptions);
                 break;
                 
@@ -57,8 +140,10 @@ public class DriverFactory {
                 EdgeOptions edgeOptions = new EdgeOptions();
                 edgeOptions.addArguments("--disable-notifications");
                 edgeOptions.addArguments("--disable-popup-blocking");
-                // Uncomment for headless mode
-                // edgeOptions.addArguments("--headless");
+                applyProfile(edgeOptions, profile);
+                if (NetworkCapture.isEnabled()) {
+                    NetworkCapture.configure(edgeOptions);
+                }
                 driver = new EdgeDriver(edgeOptions);
                 break;
                 
@@ -69,9 +154,138 @@ public class DriverFactory {
         // Configure timeouts
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(ConfigManager.getImplicitWait()));
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(ConfigManager.getPageLoadTimeout()));
-        driver.manage().window().maximize();
+        // Async waits carry their own deadline, so the script timeout only needs to outlast it
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(ConfigManager.getExplicitWait() + 5));
+        configureWindow(driver, profile);
+        applyProfile(driver, profile);
+        WaitEngine.installHooks(driver);
+        WebVitals.install(driver);
         
-        driverThreadLocal.set(driver);
+        // Every command issued through the returned driver is timed and/or marked with the page action behind it
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (MetricsRegistry.isEnabled()) {
+            listeners.add(new DriverMetricsListener());
+        }
+        if (NetworkCapture.isEnabled()) {
+            listeners.add(NetworkCapture.listener());
+        }
+        if (!listeners.isEmpty()) {
+            driver = new EventFiringDecorator<WebDriver>(listeners.toArray(new WebDriverListener[0])).decorate(driver);
+        }
+        return driver;
+    }
+    
+    /**
+     * Apply profile launch flags shared by Chrome and Edge
+     */
+    private static void applyProfile(ChromiumOptions<?> options, DriverProfile profile) {
+        if (profile.isHeadless()) {
+            options.addArguments("--headless=new");
+        }
+        Dimension viewport = profile.getViewport();
+        if (viewport != null) {
+            options.addArguments("--window-size=" + viewport.getWidth() + "," + viewport.getHeight());
+        }
+        if (profile.isDisableImages()) {
+            options.addArguments("--blink-settings=imagesEnabled=false");
+        }
+        if (profile.isDisableAnimations()) {
+            options.addArguments("--force-prefers-reduced-motion");
+        }
+        if (profile.isBlockThirdParty()) {
+            // Unlisted hosts fail DNS resolution, so analytics, CDNs and ads never reach the network
+            StringBuilder rules = new StringBuilder("MAP * ~NOTFOUND");
+            for (String host : profile.getFirstPartyHosts()) {
+                rules.append(", EXCLUDE ").append(host);
+            }
+            options.addArguments("--host-resolver-rules=" + rules);
+        }
+        if (profile.isReducedMemory()) {
+            options.addArguments("--renderer-process-limit=1");
+            options.addArguments("--disable-gpu");
+            options.addArguments("--disable-background-networking");
+            options.addArguments("--disable-component-update");
+            options.addArguments("--disable-features=Translate,BackForwardCache,MediaRouter,OptimizationHints");
+            options.addArguments("--disk-cache-size=1");
+            options.addArguments("--media-cache-size=1");
+            options.addArguments("--js-flags=--max-old-space-size=256");
+        }
+    }
+    
+    /**
+     * Apply profile launch flags for Firefox
+     */
+    private static void applyProfile(FirefoxOptions options, DriverProfile profile) {
+        if (profile.isHeadless()) {
+            options.addArguments("-headless");
+        }
+        Dimension viewport = profile.getViewport();
+        if (viewport != null) {
+            options.addArguments("--width=" + viewport.getWidth(), "--height=" + viewport.getHeight());
+        }
+        if (profile.isDisableImages()) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (profile.isDisableFonts()) {
+            options.addPreference("gfx.downloadable_fonts.enabled", false);
+        }
+        if (profile.isDisableAnimations()) {
+            options.addPreference("ui.prefersReducedMotion", 1);
+            options.addPreference("toolkit.cosmeticAnimations.enabled", false);
+        }
+        if (profile.isBlockThirdParty()) {
+            // Route unlisted hosts to a closed local port through an inline PAC script
+            StringBuilder pac = new StringBuilder("function FindProxyForURL(url, host) {");
+            for (String allowed : profile.getFirstPartyHosts()) {
+                pac.append(" if (host == '").append(allowed).append("') return 'DIRECT';");
+            }
+            pac.append(" return 'PROXY 127.0.0.1:9'; }");
+            options.addPreference("network.proxy.type", 2);
+            // Quotes, spaces and braces are not valid raw in a data: URL, and a '+' there is not a space
+            options.addPreference("network.proxy.autoconfig_url", "data:text/plain,"
+                + URLEncoder.encode(pac.toString(), StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        if (profile.isReducedMemory()) {
+            options.addPreference("dom.ipc.processCount", 1);
+            options.addPreference("browser.sessionhistory.max_total_viewers", 0);
+            options.addPreference("browser.cache.memory.capacity", 8192);
+            options.addPreference("browser.cache.disk.enable", false);
+        }
+    }
+    
+    /**
+     * Apply profile settings that need a running browser: web font blocking and zero-length animations.
+     * Chromium has no launch flag for either, so they go through CDP and are skipped on other browsers.
+     */
+    private static void applyProfile(WebDriver driver, DriverProfile profile) {
+        if (!(driver instanceof HasCdp)) {
+            return;
+        }
+        HasCdp cdp = (HasCdp) driver;
+        if (profile.isDisableFonts()) {
+            cdp.executeCdpCommand("Network.enable", Collections.emptyMap());
+            cdp.executeCdpCommand("Network.setBlockedURLs",
+                Collections.singletonMap("urls", Arrays.asList("*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot")));
+        }
+        if (profile.isDisableAnimations()) {
+            cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                Collections.singletonMap("source", NO_ANIMATIONS_SCRIPT));
+        }
+    }
+    
+    /**
+     * Apply the configured window size
+     */
+    public static void configureWindow(WebDriver driver) {
+        configureWindow(driver, DriverProfile.fromConfig());
+    }
+    
+    private static void configureWindow(WebDriver driver, DriverProfile profile) {
+        if (profile.getViewport() != null) {
+            driver.manage().window().setSize(profile.getViewport());
+        } else {
+            driver.manage().window().maximize();
+        }
     }
     
     /**
@@ -82,13 +296,25 @@ public class DriverFactory {
     }
     
     /**
-     * Quit WebDriver instance and clean up
+     * Release WebDriver instance back to the pool, or quit it when pooling is disabled
      */
     public static void quitDriver() {
         WebDriver driver = driverThreadLocal.get();
         if (driver != null) {
-            driver.quit();
             driverThreadLocal.remove();
+            releaseDriver(driver);
+        }
+    }
+    
+    /**
+     * Release a specific driver back to the pool, or quit it when pooling is disabled
+     */
+    public static void releaseDriver(WebDriver driver) {
+        if (driverPool != null) {
+            driverPool.release(driver);
+        } else {
+            PageRegistry.release(driver);
+            driver.quit();
         }
     }
 }
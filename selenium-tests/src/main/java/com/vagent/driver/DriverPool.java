@@ -0,0 +1,302 @@
+package com.vagent.driver;
+
+import com.vagent.pages.PageRegistry;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of warm WebDriver sessions that are leased per test and reset between leases
+ */
+public class DriverPool {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Supplier<WebDriver> driverSupplier;
+    private final Consumer<WebDriver> windowSetup;
+    private final int maxUses;
+    private final Duration leaseTimeout;
+
+    private final Semaphore capacity;
+    private final LinkedBlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledDriver> leased = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong healthFailures = new AtomicLong();
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leaseWaitNanosTotal = new AtomicLong();
+    private final AtomicLong leaseWaitNanosMax = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public DriverPool(Supplier<WebDriver> driverSupplier, Consumer<WebDriver> windowSetup,
+                      int maxSize, int maxUses, Duration leaseTimeout) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Driver pool size must be at least 1: " + maxSize);
+        }
+        this.driverSupplier = driverSupplier;
+        this.windowSetup = windowSetup;
+        this.maxUses = Math.max(1, maxUses);
+        this.leaseTimeout = leaseTimeout;
+        this.capacity = new Semaphore(maxSize);
+    }
+
+    /**
+     * Lease a driver, reusing an idle one when possible and launching a new one only while under capacity
+     */
+    public WebDriver lease() {
+        if (closed) {
+            throw new IllegalStateException("Driver pool is closed");
+        }
+        long start = System.nanoTime();
+        long deadline = start + leaseTimeout.toNanos();
+
+        try {
+            while (true) {
+                PooledDriver pooled = idle.pollFirst();
+                if (pooled != null) {
+                    if (isHealthy(pooled.driver)) {
+                        hits.incrementAndGet();
+                        return checkOut(pooled, start);
+                    }
+                    healthFailures.incrementAndGet();
+                    destroy(pooled);
+                    continue;
+                }
+
+                if (capacity.tryAcquire()) {
+                    misses.incrementAndGet();
+                    try {
+                        return checkOut(new PooledDriver(driverSupplier.get()), start);
+                    } catch (RuntimeException e) {
+                        capacity.release();
+                        throw e;
+                    }
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Timed out after " + leaseTimeout.getSeconds()
+                        + "s waiting for a pooled driver");
+                }
+                pooled = idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                    TimeUnit.NANOSECONDS);
+                if (pooled != null) {
+                    idle.offerFirst(pooled);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled driver", e);
+        }
+    }
+
+    /**
+     * Return a leased driver, resetting it for the next lease or recycling it when worn out or broken
+     */
+    public void release(WebDriver driver) {
+        PooledDriver pooled = leased.remove(driver);
+        if (pooled == null) {
+            PageRegistry.release(driver);
+            driver.quit();
+            return;
+        }
+
+        pooled.uses++;
+        if (closed || pooled.uses >= maxUses) {
+            recycled.incrementAndGet();
+            destroy(pooled);
+            return;
+        }
+
+        try {
+            reset(pooled.driver);
+        } catch (Exception e) {
+            healthFailures.incrementAndGet();
+            destroy(pooled);
+            return;
+        }
+        idle.offerFirst(pooled);
+    }
+
+    /**
+     * Quit every driver owned by the pool
+     */
+    public void shutdown() {
+        closed = true;
+        List<PooledDriver> all = new ArrayList<>(leased.values());
+        leased.clear();
+        idle.drainTo(all);
+        for (PooledDriver pooled : all) {
+            destroy(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), recycled.get(), healthFailures.get(), leaseCount.get(),
+            leaseWaitNanosTotal.get(), leaseWaitNanosMax.get(), idle.size(), leased.size());
+    }
+
+    private WebDriver checkOut(PooledDriver pooled, long leaseStart) {
+        long waited = System.nanoTime() - leaseStart;
+        leaseCount.incrementAndGet();
+        leaseWaitNanosTotal.addAndGet(waited);
+        leaseWaitNanosMax.accumulateAndGet(waited, Math::max);
+        leased.put(pooled.driver, pooled);
+        return pooled.driver;
+    }
+
+    /**
+     * Clear everything a previous test may have left behind: alerts, extra windows, cookies and web storage
+     */
+    private void reset(WebDriver driver) {
+        try {
+            driver.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException e) {
+            // Nothing to dismiss
+        }
+
+        Set<String> handles = driver.getWindowHandles();
+        List<String> ordered = new ArrayList<>(handles);
+        String keep = ordered.get(0);
+        for (String handle : ordered.subList(1, ordered.size())) {
+            driver.switchTo().window(handle);
+            driver.close();
+        }
+        driver.switchTo().window(keep);
+
+        // Web storage is scoped to the current origin, so clear it before leaving the page
+        ((JavascriptExecutor) driver).executeScript(
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+        if (driver instanceof HasCdp) {
+            ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+
+        driver.get("about:blank");
+        windowSetup.accept(driver);
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledDriver pooled) {
+        PageRegistry.release(pooled.driver);
+        try {
+            pooled.driver.quit();
+        } catch (Exception e) {
+            System.err.println("Failed to quit pooled driver: " + e.getMessage());
+        } finally {
+            capacity.release();
+        }
+    }
+
+    private static class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+
+        PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+
+    /**
+     * Point-in-time pool counters
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long recycled;
+        private final long healthFailures;
+        private final long leases;
+        private final long leaseWaitNanosTotal;
+        private final long leaseWaitNanosMax;
+        private final int idle;
+        private final int leased;
+
+        Stats(long hits, long misses, long recycled, long healthFailures, long leases,
+              long leaseWaitNanosTotal, long leaseWaitNanosMax, int idle, int leased) {
+            this.hits = hits;
+            this.misses = misses;
+            this.recycled = recycled;
+            this.healthFailures = healthFailures;
+            this.leases = leases;
+            this.leaseWaitNanosTotal = leaseWaitNanosTotal;
+            this.leaseWaitNanosMax = leaseWaitNanosMax;
+            this.idle = idle;
+            this.leased = leased;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getRecycled() {
+            return recycled;
+        }
+
+        public long getHealthFailures() {
+            return healthFailures;
+        }
+
+        public long getLeases() {
+            return leases;
+        }
+
+        public double getHitRatio() {
+            return leases == 0 ? 0 : (double) hits / leases;
+        }
+
+        public double getAverageLeaseWaitMillis() {
+            return leases == 0 ? 0 : leaseWaitNanosTotal / 1_000_000.0 / leases;
+        }
+
+        public double getMaxLeaseWaitMillis() {
+            return leaseWaitNanosMax / 1_000_000.0;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getLeased() {
+            return leased;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("DriverPool[leases=%d, hits=%d, misses=%d, hitRatio=%.2f, recycled=%d, "
+                    + "healthFailures=%d, avgWait=%.1fms, maxWait=%.1fms, idle=%d, leased=%d]",
+                leases, hits, misses, getHitRatio(), recycled, healthFailures,
+                getAverageLeaseWaitMillis(), getMaxLeaseWaitMillis(), idle, leased);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.vagent.driver;
+
+import com.vagent.config.ConfigManager;
+import org.openqa.selenium.Dimension;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named bundle of browser launch settings tuned for a particular trade-off between fidelity and throughput.
+ * Selected with driver.profile (-Ddriver.profile, DRIVER_PROFILE or config.properties); the legacy
+ * headless.mode and maximize.window keys override the selected profile when set.
+ */
+public final class DriverProfile {
+
+    private static final Dimension DEFAULT_VIEWPORT = new Dimension(1920, 1080);
+
+    /** Headed, maximized browser as on a developer machine */
+    public static final DriverProfile DEFAULT =
+        new DriverProfile("default", false, null, false, false, false, false, false);
+
+    /** Headless (new headless mode) with a fixed viewport */
+    public static final DriverProfile HEADLESS =
+        new DriverProfile("headless", true, DEFAULT_VIEWPORT, false, false, false, false, false);
+
+    /** Headless without images, web fonts or animations, and with third-party hosts blocked */
+    public static final DriverProfile FAST =
+        new DriverProfile("fast", true, DEFAULT_VIEWPORT, true, true, true, true, false);
+
+    /** FAST plus flags that cap renderer processes, caches and the V8 heap */
+    public static final DriverProfile LOW_MEMORY =
+        new DriverProfile("low-memory", true, new Dimension(1280, 800), true, true, true, true, true);
+
+    private static final Map<String, DriverProfile> PROFILES = new LinkedHashMap<>();
+
+    static {
+        for (DriverProfile profile : new DriverProfile[] {DEFAULT, HEADLESS, FAST, LOW_MEMORY}) {
+            PROFILES.put(profile.name, profile);
+        }
+    }
+
+    private final String name;
+    private final boolean headless;
+    private final Dimension viewport;
+    private final boolean disableImages;
+    private final boolean disableFonts;
+    private final boolean disableAnimations;
+    private final boolean blockThirdParty;
+    private final boolean reducedMemory;
+
+    private DriverProfile(String name, boolean headless, Dimension viewport, boolean disableImages,
+                          boolean disableFonts, boolean disableAnimations, boolean blockThirdParty,
+                          boolean reducedMemory) {
+        this.name = name;
+        this.headless = headless;
+        this.viewport = viewport;
+        this.disableImages = disableImages;
+        this.disableFonts = disableFonts;
+        this.disableAnimations = disableAnimations;
+        this.blockThirdParty = blockThirdParty;
+        this.reducedMemory = reducedMemory;
+    }
+
+    /**
+     * Look up a built-in profile by name
+     */
+    public static DriverProfile named(String name) {
+        DriverProfile profile = PROFILES.get(name.trim().toLowerCase());
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown driver profile: " + name + " (expected one of "
+                + PROFILES.keySet() + ")");
+        }
+        return profile;
+    }
+
+    public static List<DriverProfile> all() {
+        return new ArrayList<>(PROFILES.values());
+    }
+
+    /**
+     * Resolve the configured profile, applying headless.mode and maximize.window overrides
+     */
+    public static DriverProfile fromConfig() {
+        DriverProfile profile = named(ConfigManager.getDriverProfile());
+
+        Boolean headlessOverride = ConfigManager.getHeadlessOverride();
+        if (headlessOverride != null) {
+            profile = profile.withHeadless(headlessOverride);
+        }
+        Boolean maximizeOverride = ConfigManager.getOptionalBoolean("maximize.window");
+        if (maximizeOverride != null) {
+            profile = profile.withViewport(maximizeOverride ? null
+                : profile.viewport != null ? profile.viewport : DEFAULT_VIEWPORT);
+        }
+        return profile;
+    }
+
+    public DriverProfile withHeadless(boolean value) {
+        return new DriverProfile(name, value, viewport, disableImages, disableFonts, disableAnimations,
+            blockThirdParty, reducedMemory);
+    }
+
+    /**
+     * Use a fixed viewport, or null to maximize the window
+     */
+    public DriverProfile withViewport(Dimension value) {
+        return new DriverProfile(name, headless, value, disableImages, disableFonts, disableAnimations,
+            blockThirdParty, reducedMemory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Fixed viewport size, or null when the window should be maximized
+     */
+    public Dimension getViewport() {
+        return viewport;
+    }
+
+    public boolean isDisableImages() {
+        return disableImages;
+    }
+
+    public boolean isDisableFonts() {
+        return disableFonts;
+    }
+
+    public boolean isDisableAnimations() {
+        return disableAnimations;
+    }
+
+    public boolean isBlockThirdParty() {
+        return blockThirdParty;
+    }
+
+    public boolean isReducedMemory() {
+        return reducedMemory;
+    }
+
+    /**
+     * Hosts that stay reachable when third-party requests are blocked: the frontend, the backend
+     * and anything listed in driver.allowed.hosts
+     */
+    public List<String> getFirstPartyHosts() {
+        List<String> hosts = new ArrayList<>();
+        // Both are read from the resolved configuration, so ${BASE_URL:...} placeholders are already expanded
+        addHost(hosts, "base.url", ConfigManager.getBaseUrl());
+        addHost(hosts, "api.url", ConfigManager.getApiUrl());
+        hosts.add("localhost");
+        hosts.add("127.0.0.1");
+        for (String extra : ConfigManager.getProperty("driver.allowed.hosts", "").split(",")) {
+            if (!extra.trim().isEmpty()) {
+                hosts.add(extra.trim());
+            }
+        }
+        return hosts;
+    }
+
+    /**
+     * Add the URL's host; a URL without one would silently block the frontend or backend, so it fails instead
+     */
+    private static void addHost(List<String> hosts, String key, String url) {
+        String host = null;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            // Reported below
+        }
+        if (host == null) {
+            throw new IllegalStateException("Cannot allow the host of " + key + "=" + url
+                + " for a first-party-only driver profile");
+        }
+        hosts.add(host);
+    }
+
+    @Override
+    public String toString() {
+        return name + (headless ? " [headless" : " [headed")
+            + (viewport != null ? ", " + viewport.getWidth() + "x" + viewport.getHeight() : ", maximized")
+            + (disableImages ? ", no-images" : "")
+            + (disableFonts ? ", no-web-fonts" : "")
+            + (disableAnimations ? ", no-animations" : "")
+            + (blockThirdParty ? ", first-party-only" : "")
+            + (reducedMemory ? ", reduced-memory" : "") + "]";
+    }
+}
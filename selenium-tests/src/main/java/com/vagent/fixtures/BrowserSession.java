@@ -0,0 +1,83 @@
+package com.vagent.fixtures;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.pages.HomePage;
+import com.vagent.pages.LoginPage;
+import com.vagent.pages.ProjectPage;
+import com.vagent.session.SessionCache;
+import com.vagent.session.SessionState;
+import com.vagent.wait.WaitEngine;
+import com.vagent.warmup.WarmUpService;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+
+/**
+ * Puts a browser into an authenticated state for a seeded user without going through the login form.
+ * The frontend keeps the JWT in localStorage but the user object only in React's UserContext, which
+ * does not survive a reload. So the token is written to localStorage, the context's setUser is called
+ * directly on the mounted provider, and the app is routed client-side with history.pushState.
+ * Sessions go through {@link SessionCache}, so a user who logged in once is restored instead of logging in again.
+ */
+public class BrowserSession {
+
+    private BrowserSession() {
+    }
+
+    /**
+     * Sign the browser in as the user and land on the home page
+     */
+    public static HomePage signIn(WebDriver driver, UserFixture user) {
+        return restore(driver, session(user));
+    }
+
+    /**
+     * Sign the browser in as the user and land directly on a project's workspace
+     */
+    public static ProjectPage openProject(WebDriver driver, UserFixture user, ProjectFixture project) {
+        openApplication(driver);
+        SessionCache.apply(driver, session(user), "/project", Collections.singletonMap("project", project.getProject()));
+        ProjectPage projectPage = new ProjectPage(driver);
+        projectPage.waits().as("BrowserSession.openProject").untilNetworkIdle();
+        return projectPage;
+    }
+
+    /**
+     * Restore the user's cached session, falling back to the login form (which caches it) on a miss
+     */
+    public static HomePage login(WebDriver driver, String email, String password) {
+        SessionState cached = SessionCache.get(email);
+        if (cached != null) {
+            return restore(driver, cached);
+        }
+        if (!driver.getCurrentUrl().contains("/login")) {
+            driver.get(ConfigManager.getBaseUrl() + "/login");
+        }
+        return new LoginPage(driver).login(email, password);
+    }
+
+    private static HomePage restore(WebDriver driver, SessionState state) {
+        openApplication(driver);
+        SessionCache.apply(driver, state, "/", null);
+        HomePage homePage = new HomePage(driver);
+        homePage.waits().as("BrowserSession.signIn").untilNetworkIdle();
+        return homePage;
+    }
+
+    /**
+     * Reuse a live cached session for the user, so its cookies carry over, or cache the fixture's token
+     */
+    private static SessionState session(UserFixture user) {
+        SessionState cached = SessionCache.get(user.getEmail());
+        return cached != null ? cached : SessionCache.remember(user.getEmail(), user.getUser(), user.getToken());
+    }
+
+    private static void openApplication(WebDriver driver) {
+        WarmUpService.awaitReady();
+        // The login route renders without an auth redirect, so the provider is mounted and idle
+        if (!driver.getCurrentUrl().startsWith(ConfigManager.getBaseUrl())) {
+            driver.get(ConfigManager.getBaseUrl() + "/login");
+        }
+        new WaitEngine(driver).untilElementPresent("#root > *");
+    }
+}
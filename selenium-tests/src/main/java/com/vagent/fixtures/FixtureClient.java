@@ -0,0 +1,274 @@
+package com.vagent.fixtures;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vagent.config.ConfigManager;
+import com.vagent.utils.TestDataGenerator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Seeds users and projects directly against the backend REST API instead of driving the UI
+ */
+public class FixtureClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final String apiUrl;
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+
+    public FixtureClient() {
+        this(ConfigManager.getApiUrl(), ConfigManager.getIntProperty("fixtures.concurrency", 8));
+    }
+
+    public FixtureClient(String apiUrl, int maxConcurrentRequests) {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        // Cleartext HTTP/2 is attempted via an Upgrade header, which the backend's engine.io server treats as
+        // a foreign websocket upgrade and drops, so only negotiate HTTP/2 over TLS
+        this.httpClient = HttpClient.newBuilder()
+            .version(this.apiUrl.startsWith("https") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+        this.inFlight = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * Register a new user with random credentials
+     */
+    public UserFixture registerRandomUser() {
+        return join(registerUserAsync(TestDataGenerator.generateRandomEmail(), TestDataGenerator.generateRandomPassword()));
+    }
+
+    /**
+     * Register a user via POST /users/register
+     */
+    public UserFixture registerUser(String email, String password) {
+        return join(registerUserAsync(email, password));
+    }
+
+    public CompletableFuture<UserFixture> registerUserAsync(String email, String password) {
+        Map<String, Object> body = credentials(email, password);
+        return send("POST", "/users/register", null, body, 201)
+            .thenApply(json -> toUser(email, password, json));
+    }
+
+    /**
+     * Log an existing user in via POST /users/login
+     */
+    public UserFixture login(String email, String password) {
+        return join(loginAsync(email, password));
+    }
+
+    public CompletableFuture<UserFixture> loginAsync(String email, String password) {
+        return send("POST", "/users/login", null, credentials(email, password), 200)
+            .thenApply(json -> toUser(email, password, json));
+    }
+
+    /**
+     * Create a project owned by the user via POST /projects/create
+     */
+    public ProjectFixture createProject(UserFixture owner, String name) {
+        return join(createProjectAsync(owner, name));
+    }
+
+    public CompletableFuture<ProjectFixture> createProjectAsync(UserFixture owner, String name) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", name);
+        return send("POST", "/projects/create", owner.getToken(), body, 201)
+            .thenApply(ProjectFixture::new);
+    }
+
+    /**
+     * Add collaborators to a project via PUT /projects/add-user
+     */
+    public ProjectFixture addUsers(UserFixture owner, ProjectFixture project, List<UserFixture> collaborators) {
+        return join(addUsersAsync(owner, project, collaborators));
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ProjectFixture> addUsersAsync(UserFixture owner, ProjectFixture project,
+                                                           List<UserFixture> collaborators) {
+        List<String> userIds = new ArrayList<>();
+        for (UserFixture collaborator : collaborators) {
+            userIds.add(collaborator.getId());
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("projectId", project.getId());
+        body.put("users", userIds);
+        return send("PUT", "/projects/add-user", owner.getToken(), body, 200)
+            .thenApply(json -> new ProjectFixture((Map<String, Object>) json.get("project")));
+    }
+
+    /**
+     * Remove a collaborator from a project via PUT /projects/remove-user; only the owner may do this
+     */
+    public ProjectFixture removeUser(UserFixture owner, ProjectFixture project, UserFixture collaborator) {
+        return join(removeUserAsync(owner, project, collaborator));
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ProjectFixture> removeUserAsync(UserFixture owner, ProjectFixture project,
+                                                             UserFixture collaborator) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("projectId", project.getId());
+        body.put("userToRemove", collaborator.getId());
+        return send("PUT", "/projects/remove-user", owner.getToken(), body, 200)
+            .thenApply(json -> new ProjectFixture((Map<String, Object>) json.get("project")));
+    }
+
+    /**
+     * Read a project as the user sees it via GET /projects/get-project/:id, with its users and file tree
+     */
+    public ProjectFixture getProject(UserFixture user, ProjectFixture project) {
+        return join(getProjectAsync(user, project));
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ProjectFixture> getProjectAsync(UserFixture user, ProjectFixture project) {
+        return send("GET", "/projects/get-project/" + project.getId(), user.getToken(), null, 200)
+            .thenApply(json -> new ProjectFixture((Map<String, Object>) json.get("project")));
+    }
+
+    /**
+     * Replace a project's file tree via PUT /projects/update-file-tree, e.g. with DatasetGenerator.fileTree
+     */
+    public ProjectFixture updateFileTree(UserFixture owner, ProjectFixture project, Map<String, Object> fileTree) {
+        return join(updateFileTreeAsync(owner, project, fileTree));
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ProjectFixture> updateFileTreeAsync(UserFixture owner, ProjectFixture project,
+                                                                 Map<String, Object> fileTree) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("projectId", project.getId());
+        body.put("fileTree", fileTree);
+        return send("PUT", "/projects/update-file-tree", owner.getToken(), body, 200)
+            .thenApply(json -> new ProjectFixture((Map<String, Object>) json.get("project")));
+    }
+
+    /**
+     * Register many random users concurrently
+     */
+    public List<UserFixture> registerRandomUsers(int count) {
+        List<Supplier<CompletableFuture<UserFixture>>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(() -> registerUserAsync(TestDataGenerator.generateRandomEmail(),
+                TestDataGenerator.generateRandomPassword()));
+        }
+        return batch(tasks);
+    }
+
+    /**
+     * Create many randomly named projects for one owner concurrently
+     */
+    public List<ProjectFixture> createRandomProjects(UserFixture owner, int count) {
+        List<Supplier<CompletableFuture<ProjectFixture>>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(() -> createProjectAsync(owner, TestDataGenerator.generateRandomProjectName()));
+        }
+        return batch(tasks);
+    }
+
+    /**
+     * Run fixture requests concurrently and wait for all of them, preserving order
+     */
+    public <T> List<T> batch(List<Supplier<CompletableFuture<T>>> tasks) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Supplier<CompletableFuture<T>> task : tasks) {
+            futures.add(task.get());
+        }
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private CompletableFuture<Map<String, Object>> send(String method, String path, String token,
+                                                        Map<String, Object> body, int expectedStatus) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(apiUrl + path))
+            .timeout(Duration.ofSeconds(ConfigManager.getExplicitWait()))
+            .header("Content-Type", "application/json")
+            .method(method, body != null ? HttpRequest.BodyPublishers.ofString(toJson(body))
+                : HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+
+        HttpRequest request = builder.build();
+
+        // Bound concurrency so large batches do not flood the backend
+        inFlight.acquireUninterruptibly();
+        CompletableFuture<HttpResponse<String>> pending;
+        try {
+            pending = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return pending
+            .whenComplete((response, error) -> inFlight.release())
+            .thenApply(response -> {
+                if (response.statusCode() != expectedStatus) {
+                    throw new IllegalStateException(method + " " + path + " failed: HTTP "
+                        + response.statusCode() + " " + response.body());
+                }
+                return parse(response.body());
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserFixture toUser(String email, String password, Map<String, Object> json) {
+        return new UserFixture(email, password, (String) json.get("token"), (Map<String, Object>) json.get("user"));
+    }
+
+    private static Map<String, Object> credentials(String email, String password) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("email", email);
+        body.put("password", password);
+        return body;
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize request body", e);
+        }
+    }
+
+    private static Map<String, Object> parse(String body) {
+        try {
+            return MAPPER.readValue(body, JSON_OBJECT);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected response body: " + body, e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.vagent.fixtures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A project seeded through the backend API
+ */
+public class ProjectFixture {
+
+    private final Map<String, Object> project;
+
+    public ProjectFixture(Map<String, Object> project) {
+        this.project = Collections.unmodifiableMap(project);
+    }
+
+    public String getId() {
+        return String.valueOf(project.get("_id"));
+    }
+
+    /**
+     * Project name as stored by the backend, which lower-cases it
+     */
+    public String getName() {
+        return String.valueOf(project.get("name"));
+    }
+
+    /**
+     * Ids of the project's users, whether the response populated them as objects or left them as ids
+     */
+    public List<String> getUserIds() {
+        List<String> ids = new ArrayList<>();
+        Object users = project.get("users");
+        if (users instanceof List) {
+            for (Object user : (List<?>) users) {
+                ids.add(String.valueOf(user instanceof Map ? ((Map<?, ?>) user).get("_id") : user));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The project's file tree, or an empty map when it has none
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getFileTree() {
+        Object fileTree = project.get("fileTree");
+        return fileTree instanceof Map ? (Map<String, Object>) fileTree : Collections.emptyMap();
+    }
+
+    /**
+     * The project object exactly as the backend returned it, which the frontend passes as router state
+     */
+    public Map<String, Object> getProject() {
+        return project;
+    }
+}
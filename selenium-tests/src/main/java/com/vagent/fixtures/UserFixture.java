@@ -0,0 +1,45 @@
+package com.vagent.fixtures;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A user seeded through the backend API, with the JWT it was issued
+ */
+public class UserFixture {
+
+    private final String email;
+    private final String password;
+    private final String token;
+    private final Map<String, Object> user;
+
+    public UserFixture(String email, String password, String token, Map<String, Object> user) {
+        this.email = email;
+        this.password = password;
+        this.token = token;
+        this.user = Collections.unmodifiableMap(user);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getId() {
+        return String.valueOf(user.get("_id"));
+    }
+
+    /**
+     * The user object exactly as the backend returned it, which is what the frontend keeps in its UserContext
+     */
+    public Map<String, Object> getUser() {
+        return user;
+    }
+}
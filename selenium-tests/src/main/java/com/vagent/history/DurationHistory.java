@@ -0,0 +1,112 @@
+package com.vagent.history;
+
+import com.vagent.config.ConfigManager;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command line view of the duration history in history.dir.
+ *
+ *   runs                 every run label with its batch and sample counts
+ *   show TEXT            per-run durations of the series whose name contains TEXT
+ *   check [LABEL]        regressions of LABEL (default: the latest run) against the runs before it;
+ *                        exits with 1 when any series got significantly slower
+ *
+ * Usage: mvn compile exec:java -Dexec.mainClass=com.vagent.history.DurationHistory -Dexec.args="check"
+ *            [-Dhistory.baseline.runs=10] [-Dhistory.regression.min.ratio=0.2]
+ */
+public class DurationHistory {
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "check";
+        DurationStore store = DurationStore.open();
+        Map<String, List<DurationStore.Sample>> runs = store.runs();
+        if (runs.isEmpty()) {
+            System.out.println("No duration history in " + store.getDir().getAbsolutePath());
+            return;
+        }
+        switch (command) {
+            case "runs":
+                printRuns(store);
+                break;
+            case "show":
+                if (args.length < 2) {
+                    throw new IllegalArgumentException("Usage: show <series name text>");
+                }
+                printSeries(runs, args[1]);
+                break;
+            case "check":
+                String label = args.length > 1 ? args[1] : new ArrayList<>(runs.keySet()).get(runs.size() - 1);
+                List<RegressionDetector.Finding> findings = RegressionDetector.fromConfig().compare(runs, label);
+                System.out.print(report(label, findings));
+                if (!findings.isEmpty()) {
+                    System.exit(1);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command + ", expected runs, show or check");
+        }
+    }
+
+    /**
+     * Plain-text list of findings, as printed by check and at the end of a test run
+     */
+    public static String report(String label, List<RegressionDetector.Finding> findings) {
+        StringBuilder report = new StringBuilder();
+        if (findings.isEmpty()) {
+            report.append("No significant slowdowns in run ").append(label).append('\n');
+            return report.toString();
+        }
+        report.append(findings.size()).append(" significant slowdown(s) in run ").append(label).append(":\n");
+        for (RegressionDetector.Finding finding : findings) {
+            report.append("  ").append(finding).append('\n');
+        }
+        return report.toString();
+    }
+
+    private static void printRuns(DurationStore store) throws Exception {
+        Map<String, int[]> counts = new LinkedHashMap<>();
+        Map<String, Long> appended = new LinkedHashMap<>();
+        for (DurationStore.Batch batch : store.batches()) {
+            int[] count = counts.computeIfAbsent(batch.getLabel(), label -> new int[2]);
+            count[0]++;
+            count[1] += batch.getCount();
+            appended.put(batch.getLabel(), batch.getAppendedAtMillis());
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        System.out.printf("%-32s  %-16s  %7s  %7s%n", "run", "finished", "batches", "samples");
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            System.out.printf("%-32s  %-16s  %7d  %7d%n", entry.getKey(),
+                format.format(new Date(appended.get(entry.getKey()))), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    private static void printSeries(Map<String, List<DurationStore.Sample>> runs, String text) {
+        Map<String, Map<String, List<String>>> bySeries = new TreeMap<>();
+        for (Map.Entry<String, List<DurationStore.Sample>> run : runs.entrySet()) {
+            for (DurationStore.Sample sample : run.getValue()) {
+                if (sample.getSeries().contains(text)) {
+                    bySeries.computeIfAbsent(sample.getSeries(), name -> new LinkedHashMap<>())
+                        .computeIfAbsent(run.getKey(), label -> new ArrayList<>())
+                        .add(sample.getMillis() + (sample.isFailed() ? "ms (failed)" : "ms"));
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, List<String>>> series : bySeries.entrySet()) {
+            System.out.println(series.getKey());
+            for (Map.Entry<String, List<String>> run : series.getValue().entrySet()) {
+                System.out.printf("  %-32s  %s%n", run.getKey(), String.join(", ", run.getValue()));
+            }
+        }
+        if (bySeries.isEmpty()) {
+            System.out.println("No series containing \"" + text + "\" in " + ConfigManager.getProperty("history.dir",
+                ".test-history"));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.vagent.history;
+
+import com.vagent.config.ConfigManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only time series of test and step durations, kept in history.dir across runs and mvn clean.
+ * samples.dat holds fixed 9-byte records (series id, milliseconds, failed flag); series.idx maps ids to
+ * names, one per line; runs.idx lists each appended batch with its label, time, offset and record count.
+ * The run line is written last, so a batch interrupted half way is never read. Shard JVMs of one run
+ * append separate batches under the same label, serialized by a file lock.
+ */
+public class DurationStore {
+
+    /** Series name prefix for whole test methods, "test:Class#method" */
+    public static final String TEST = "test:";
+    /** Series name prefix for page-object steps within a test, "step:Class.method/Page.action" */
+    public static final String STEP = "step:";
+
+    private static final int RECORD_BYTES = 9;
+
+    private final File dir;
+
+    public DurationStore(File dir) {
+        this.dir = dir;
+    }
+
+    public static DurationStore open() {
+        return new DurationStore(new File(ConfigManager.getProperty("history.dir", ".test-history")));
+    }
+
+    /**
+     * Label shared by every batch of this run: history.run.label, the CI run id, or the start time
+     */
+    public static String currentRunLabel() {
+        String ciRun = System.getenv("GITHUB_RUN_ID");
+        return ConfigManager.getProperty("history.run.label", ciRun != null ? "ci-" + ciRun
+            : "local-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    public boolean isEmpty() {
+        return !new File(dir, "runs.idx").isFile();
+    }
+
+    /**
+     * Append one batch of samples under the run label
+     */
+    public synchronized void append(String label, Collection<Sample> samples) throws IOException {
+        if (samples.isEmpty()) {
+            return;
+        }
+        dir.mkdirs();
+        try (RandomAccessFile lockFile = new RandomAccessFile(new File(dir, "lock"), "rw");
+             FileChannel channel = lockFile.getChannel();
+             FileLock lock = channel.lock()) {
+            List<String> names = readSeries();
+            Map<String, Integer> ids = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                ids.put(names.get(i), i);
+            }
+
+            List<String> added = new ArrayList<>();
+            ByteArrayOutputStream records = new ByteArrayOutputStream(samples.size() * RECORD_BYTES);
+            DataOutputStream out = new DataOutputStream(records);
+            for (Sample sample : samples) {
+                Integer id = ids.get(sample.series);
+                if (id == null) {
+                    id = names.size() + added.size();
+                    ids.put(sample.series, id);
+                    added.add(sample.series);
+                }
+                out.writeInt(id);
+                out.writeInt((int) Math.min(Integer.MAX_VALUE, Math.max(0, sample.millis)));
+                out.writeByte(sample.failed ? 1 : 0);
+            }
+
+            appendLines(new File(dir, "series.idx"), added);
+            File data = new File(dir, "samples.dat");
+            long offset = data.length();
+            try (FileOutputStream stream = new FileOutputStream(data, true)) {
+                records.writeTo(stream);
+                stream.getFD().sync();
+            }
+            appendLines(new File(dir, "runs.idx"), Collections.singletonList(label.replace('\t', ' ') + "\t"
+                + System.currentTimeMillis() + "\t" + offset + "\t" + samples.size()));
+        }
+    }
+
+    /**
+     * Every complete batch, oldest first
+     */
+    public List<Batch> batches() throws IOException {
+        List<Batch> batches = new ArrayList<>();
+        File index = new File(dir, "runs.idx");
+        if (!index.isFile()) {
+            return batches;
+        }
+        for (String line : Files.readAllLines(index.toPath(), StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields.length == 4) {
+                batches.add(new Batch(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    Integer.parseInt(fields[3])));
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Samples of every run, grouped by label in the order the runs started
+     */
+    public Map<String, List<Sample>> runs() throws IOException {
+        List<String> names = readSeries();
+        Map<String, List<Sample>> runs = new LinkedHashMap<>();
+        File data = new File(dir, "samples.dat");
+        if (!data.isFile()) {
+            return runs;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(data, "r")) {
+            for (Batch batch : batches()) {
+                byte[] bytes = new byte[batch.count * RECORD_BYTES];
+                file.seek(batch.offset);
+                file.readFully(bytes);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+                List<Sample> samples = runs.computeIfAbsent(batch.label, label -> new ArrayList<>());
+                for (int i = 0; i < batch.count; i++) {
+                    int id = in.readInt();
+                    int millis = in.readInt();
+                    boolean failed = in.readByte() != 0;
+                    samples.add(new Sample(id < names.size() ? names.get(id) : "#" + id, millis, failed));
+                }
+            }
+        }
+        return runs;
+    }
+
+    private List<String> readSeries() throws IOException {
+        File index = new File(dir, "series.idx");
+        List<String> names = new ArrayList<>();
+        if (!index.isFile()) {
+            return names;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(index.toPath()),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                names.add(line);
+            }
+        }
+        return names;
+    }
+
+    private static void appendLines(File file, List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        try (FileOutputStream stream = new FileOutputStream(file, true);
+             Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line.replace('\n', ' '));
+                writer.write('\n');
+            }
+            writer.flush();
+            stream.getFD().sync();
+        }
+    }
+
+    /**
+     * One duration of a named series
+     */
+    public static class Sample {
+        private final String series;
+        private final long millis;
+        private final boolean failed;
+
+        public Sample(String series, long millis, boolean failed) {
+            this.series = series;
+            this.millis = millis;
+            this.failed = failed;
+        }
+
+        public String getSeries() {
+            return series;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * One appended batch as listed in runs.idx
+     */
+    public static class Batch {
+        private final String label;
+        private final long appendedAtMillis;
+        private final long offset;
+        private final int count;
+
+        Batch(String label, long appendedAtMillis, long offset, int count) {
+            this.label = label;
+            this.appendedAtMillis = appendedAtMillis;
+            this.offset = offset;
+            this.count = count;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getAppendedAtMillis() {
+            return appendedAtMillis;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.vagent.history;
+
+import com.vagent.config.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Flags series that got significantly slower in one run compared with the runs before it. Only passing
+ * samples count, since a failure's duration says more about where it failed than how fast the test is.
+ * With at least three samples on both sides (a method run several times, or shard batches of one label)
+ * a one-sided Mann-Whitney U test is used; with fewer candidate samples the candidate median is scored
+ * against the baseline median and its scaled median absolute deviation. Either way a finding must also
+ * exceed history.regression.min.ratio and history.regression.min.ms, so tiny but consistent shifts of
+ * fast steps are not reported.
+ */
+public class RegressionDetector {
+
+    private static final int MIN_RANK_SAMPLES = 3;
+
+    private final int baselineRuns;
+    private final int minBaselineSamples;
+    private final double alpha;
+    private final double zThreshold;
+    private final double minRatio;
+    private final long minMillis;
+
+    public RegressionDetector(int baselineRuns, int minBaselineSamples, double alpha, double zThreshold,
+                              double minRatio, long minMillis) {
+        this.baselineRuns = baselineRuns;
+        this.minBaselineSamples = minBaselineSamples;
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.minRatio = minRatio;
+        this.minMillis = minMillis;
+    }
+
+    public static RegressionDetector fromConfig() {
+        return new RegressionDetector(
+            ConfigManager.getIntProperty("history.baseline.runs", 10),
+            ConfigManager.getIntProperty("history.baseline.min.samples", 3),
+            ConfigManager.getDoubleProperty("history.regression.alpha", 0.01),
+            ConfigManager.getDoubleProperty("history.regression.z", 3.5),
+            ConfigManager.getDoubleProperty("history.regression.min.ratio", 0.2),
+            ConfigManager.getIntProperty("history.regression.min.ms", 250));
+    }
+
+    /**
+     * Compare the candidate run with the baselineRuns runs before it, slowest relative change first
+     */
+    public List<Finding> compare(Map<String, List<DurationStore.Sample>> runs, String candidateLabel) {
+        List<String> labels = new ArrayList<>(runs.keySet());
+        int candidateIndex = labels.indexOf(candidateLabel);
+        if (candidateIndex < 0) {
+            throw new IllegalArgumentException("No run labelled " + candidateLabel + " in the duration history");
+        }
+        List<List<DurationStore.Sample>> baselineRunSamples = new ArrayList<>();
+        for (String label : labels.subList(Math.max(0, candidateIndex - baselineRuns), candidateIndex)) {
+            baselineRunSamples.add(runs.get(label));
+        }
+        Map<String, List<Long>> baseline = series(baselineRunSamples, "");
+        Map<String, List<Long>> candidate = series(Collections.singletonList(runs.get(candidateLabel)), "");
+
+        List<Finding> findings = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : candidate.entrySet()) {
+            List<Long> before = baseline.get(entry.getKey());
+            if (before != null && before.size() >= minBaselineSamples) {
+                Finding finding = test(entry.getKey(), before, entry.getValue());
+                if (finding != null) {
+                    findings.add(finding);
+                }
+            }
+        }
+        findings.sort(Comparator.comparingDouble(Finding::getRatio).reversed());
+        return findings;
+    }
+
+    private Finding test(String series, List<Long> before, List<Long> after) {
+        double baselineMedian = median(before);
+        double candidateMedian = median(after);
+        if (candidateMedian - baselineMedian < minMillis || candidateMedian < baselineMedian * (1 + minRatio)) {
+            return null;
+        }
+        if (after.size() >= MIN_RANK_SAMPLES) {
+            double p = mannWhitneyGreater(after, before);
+            return p < alpha ? new Finding(series, before.size(), after.size(), baselineMedian, candidateMedian,
+                String.format("p=%.4f (Mann-Whitney U)", p)) : null;
+        }
+        double spread = Math.max(1.4826 * medianAbsoluteDeviation(before, baselineMedian),
+            Math.max(0.05 * baselineMedian, 1));
+        double z = (candidateMedian - baselineMedian) / spread;
+        return z >= zThreshold ? new Finding(series, before.size(), after.size(), baselineMedian, candidateMedian,
+            String.format("z=%.1f (median/MAD)", z)) : null;
+    }
+
+    /**
+     * One-sided p-value that samples tend to be larger than reference, normal approximation with tie correction
+     */
+    static double mannWhitneyGreater(List<Long> samples, List<Long> reference) {
+        int n1 = samples.size();
+        int n2 = reference.size();
+        int n = n1 + n2;
+        List<long[]> pooled = new ArrayList<>(n);
+        for (long value : samples) {
+            pooled.add(new long[] {value, 1});
+        }
+        for (long value : reference) {
+            pooled.add(new long[] {value, 0});
+        }
+        pooled.sort(Comparator.comparingLong(entry -> entry[0]));
+
+        double rankSum = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && pooled.get(j)[0] == pooled.get(i)[0]) {
+                j++;
+            }
+            double rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (pooled.get(k)[1] == 1) {
+                    rankSum += rank;
+                }
+            }
+            double ties = j - i;
+            tieTerm += ties * ties * ties - ties;
+            i = j;
+        }
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2.0;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / (n * (double) (n - 1)));
+        if (variance <= 0) {
+            return u > mean ? 0 : 1;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    private static double normalCdf(double z) {
+        // Abramowitz and Stegun 7.1.26, accurate to about 1e-7
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027
+            + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    /**
+     * The last count runs of the history, oldest first
+     */
+    public static Map<String, List<DurationStore.Sample>> lastRuns(Map<String, List<DurationStore.Sample>> runs,
+                                                                  int count) {
+        Map<String, List<DurationStore.Sample>> last = new LinkedHashMap<>();
+        int skip = Math.max(0, runs.size() - count);
+        for (Map.Entry<String, List<DurationStore.Sample>> run : runs.entrySet()) {
+            if (skip-- <= 0) {
+                last.put(run.getKey(), run.getValue());
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Passing durations per series name starting with prefix, across the given runs
+     */
+    public static Map<String, List<Long>> series(Collection<List<DurationStore.Sample>> runs, String prefix) {
+        Map<String, List<Long>> series = new TreeMap<>();
+        for (List<DurationStore.Sample> run : runs) {
+            for (DurationStore.Sample sample : run) {
+                if (!sample.isFailed() && sample.getSeries().startsWith(prefix)) {
+                    series.computeIfAbsent(sample.getSeries(), name -> new ArrayList<>()).add(sample.getMillis());
+                }
+            }
+        }
+        return series;
+    }
+
+    public static double median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2.0;
+    }
+
+    private static double medianAbsoluteDeviation(List<Long> values, double median) {
+        List<Long> deviations = new ArrayList<>();
+        for (long value : values) {
+            deviations.add(Math.round(Math.abs(value - median)));
+        }
+        return median(deviations);
+    }
+
+    /**
+     * A series that got slower, with the evidence behind it
+     */
+    public static class Finding {
+        private final String series;
+        private final int baselineSamples;
+        private final int candidateSamples;
+        private final double baselineMedianMillis;
+        private final double candidateMedianMillis;
+        private final String statistic;
+
+        Finding(String series, int baselineSamples, int candidateSamples, double baselineMedianMillis,
+                double candidateMedianMillis, String statistic) {
+            this.series = series;
+            this.baselineSamples = baselineSamples;
+            this.candidateSamples = candidateSamples;
+            this.baselineMedianMillis = baselineMedianMillis;
+            this.candidateMedianMillis = candidateMedianMillis;
+            this.statistic = statistic;
+        }
+
+        public String getSeries() {
+            return series;
+        }
+
+        public int getBaselineSamples() {
+            return baselineSamples;
+        }
+
+        public int getCandidateSamples() {
+            return candidateSamples;
+        }
+
+        public double getBaselineMedianMillis() {
+            return baselineMedianMillis;
+        }
+
+        public double getCandidateMedianMillis() {
+            return candidateMedianMillis;
+        }
+
+        public double getRatio() {
+            return candidateMedianMillis / Math.max(1, baselineMedianMillis);
+        }
+
+        public String getStatistic() {
+            return statistic;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.0fms -> %.0fms (%.2fx, %d vs %d samples, %s)", series, baselineMedianMillis,
+                candidateMedianMillis, getRatio(), baselineSamples, candidateSamples, statistic);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.vagent.listeners;
+
+import com.vagent.config.ConfigManager;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlTest;
+
+/**
+ * Applies suite and test <parameter>s that name configuration keys (such as base.url or api.url), so suites
+ * in one run can target different backends. The configuration is checked when the suite starts and bound to
+ * whichever thread runs each of its methods; -D flags and environment variables still take precedence.
+ * Registered first so other listeners see the same values.
+ */
+public class ConfigListener implements ISuiteListener, IInvokedMethodListener {
+
+    private static final ThreadLocal<ConfigManager.Scope> scopes = new ThreadLocal<>();
+
+    @Override
+    public void onStart(ISuite suite) {
+        ConfigManager.forSuite(suite.getName(), suite.getXmlSuite().getParameters());
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        XmlTest test = result.getTestContext().getCurrentXmlTest();
+        String name = result.getTestContext().getSuite().getName() + "/" + test.getName();
+        scopes.set(ConfigManager.bind(ConfigManager.forSuite(name, test.getAllParameters())));
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        ConfigManager.Scope scope = scopes.get();
+        if (scope != null) {
+            scopes.remove();
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.vagent.listeners;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.history.DurationHistory;
+import com.vagent.history.DurationStore;
+import com.vagent.history.RegressionDetector;
+import com.vagent.metrics.MetricsRegistry;
+import com.vagent.shard.TestDurations;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Appends each test method's duration, and the mean time of each page-object action within it, to the
+ * duration history at the end of the run, then prints any significant slowdowns against earlier runs.
+ * A failing test is compared with its passing history straight away; the note goes to the console and
+ * to the result's "durationHistory" attribute for reports. Skipped methods are left out, since they say
+ * nothing about how long the method takes to run.
+ */
+public class DurationRecorder implements ITestListener, IExecutionListener {
+
+    private final Queue<DurationStore.Sample> observed = new ConcurrentLinkedQueue<>();
+    private final DurationStore store = DurationStore.open();
+    private Map<String, List<Long>> history;
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        observed.add(sample(result, false));
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        DurationStore.Sample sample = sample(result, true);
+        observed.add(sample);
+        List<Long> passing = history().get(sample.getSeries());
+        if (passing != null && !passing.isEmpty()) {
+            List<Long> sorted = new ArrayList<>(passing);
+            Collections.sort(sorted);
+            String note = String.format("failed after %.1fs; passing runs took %.1fs (median of %d, p90 %.1fs)",
+                sample.getMillis() / 1000.0, RegressionDetector.median(sorted) / 1000.0, sorted.size(),
+                sorted.get((int) Math.ceil(0.9 * sorted.size()) - 1) / 1000.0);
+            result.setAttribute("durationHistory", note);
+            System.out.println("Duration history: " + result.getMethod().getQualifiedName() + " " + note);
+        }
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        if (MetricsRegistry.isEnabled()) {
+            for (Map<String, Object> row : MetricsRegistry.snapshot()) {
+                if (MetricsRegistry.PAGE_ACTION.equals(row.get("metric")) && !"unknown".equals(row.get("test"))) {
+                    observed.add(new DurationStore.Sample(DurationStore.STEP + row.get("test") + "/" + row.get("page")
+                        + "." + row.get("operation"), Math.round((Double) row.get("meanMs")),
+                        ((Number) row.get("errors")).longValue() > 0));
+                }
+            }
+        }
+        String label = DurationStore.currentRunLabel();
+        try {
+            store.append(label, new ArrayList<>(observed));
+            if (!observed.isEmpty()) {
+                System.out.print(DurationHistory.report(label,
+                    RegressionDetector.fromConfig().compare(store.runs(), label)));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to record test durations in " + store.getDir() + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized Map<String, List<Long>> history() {
+        if (history == null) {
+            try {
+                history = RegressionDetector.series(RegressionDetector.lastRuns(store.runs(),
+                    ConfigManager.getIntProperty("history.baseline.runs", 10)).values(), DurationStore.TEST);
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable duration history " + store.getDir() + ": " + e.getMessage());
+                history = Collections.emptyMap();
+            }
+        }
+        return history;
+    }
+
+    private static DurationStore.Sample sample(ITestResult result, boolean failed) {
+        return new DurationStore.Sample(DurationStore.TEST + TestDurations.key(result.getTestClass().getName(),
+            result.getMethod().getMethodName()), result.getEndMillis() - result.getStartMillis(), failed);
+    }
+}
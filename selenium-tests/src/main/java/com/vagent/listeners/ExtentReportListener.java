@@ -0,0 +1,59 @@
+package com.vagent.listeners;
+
+import com.vagent.report.TestReport;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+/**
+ * Feeds TestNG results into the ExtentReports test report (see TestReport). Registered after
+ * DurationRecorder so a failure's duration history note is already on the result.
+ */
+public class ExtentReportListener implements ITestListener, IExecutionListener {
+
+    private static final String REPORT_ID = "reportId";
+
+    @Override
+    public void onExecutionStart() {
+        TestReport.open();
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        TestReport.close();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        result.setAttribute(REPORT_ID, TestReport.startTest(name(result), result.getTestClass().getName()));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        end(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        end(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        end(result, "SKIP");
+    }
+
+    private static void end(ITestResult result, String status) {
+        Object id = result.getAttribute(REPORT_ID);
+        Object history = result.getAttribute("durationHistory");
+        TestReport.endTest(id instanceof Long ? (Long) id : 0, name(result), result.getTestClass().getName(),
+            status, result.getEndMillis() - result.getStartMillis(), result.getThrowable(),
+            history != null ? "Duration history: " + history : null);
+    }
+
+    private static String name(ITestResult result) {
+        String description = result.getMethod().getDescription();
+        return result.getMethod().getMethodName() + (description != null && !description.isEmpty()
+            ? " - " + description : "");
+    }
+}
@@ -0,0 +1,90 @@
+package com.vagent.listeners;
+
+import com.vagent.config.ConfigManager;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Switches suites into the parallel mode selected by test.parallel and test.thread.count.
+ * In methods mode, classes with dependsOnMethods chains are moved into their own test block
+ * that runs by class, so their shared page objects and browser stay on a single thread.
+ */
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String mode = ConfigManager.getParallelMode();
+        int threadCount = ConfigManager.getThreadCount();
+
+        for (XmlSuite suite : suites) {
+            switch (mode) {
+                case "none":
+                    suite.setParallel(XmlSuite.ParallelMode.NONE);
+                    break;
+                case "tests":
+                    suite.setParallel(XmlSuite.ParallelMode.TESTS);
+                    suite.setThreadCount(threadCount);
+                    break;
+                case "classes":
+                    suite.setParallel(XmlSuite.ParallelMode.CLASSES);
+                    suite.setThreadCount(threadCount);
+                    break;
+                case "methods":
+                    splitStatefulClasses(suite, threadCount);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported parallel mode: " + mode
+                        + " (expected none, tests, classes or methods)");
+            }
+            System.out.println("Suite '" + suite.getName() + "' parallel=" + mode + " threads=" + threadCount);
+        }
+    }
+
+    private void splitStatefulClasses(XmlSuite suite, int threadCount) {
+        List<XmlTest> rewritten = new ArrayList<>();
+
+        for (XmlTest test : new ArrayList<>(suite.getTests())) {
+            List<XmlClass> stateless = new ArrayList<>();
+            List<XmlClass> stateful = new ArrayList<>();
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                if (TestClasses.hasDependentMethods(xmlClass.getSupportClass())) {
+                    stateful.add(xmlClass);
+                } else {
+                    stateless.add(xmlClass);
+                }
+            }
+
+            if (stateful.isEmpty()) {
+                test.setParallel(XmlSuite.ParallelMode.METHODS);
+                test.setThreadCount(threadCount);
+                rewritten.add(test);
+                continue;
+            }
+
+            test.setXmlClasses(stateful);
+            test.setParallel(XmlSuite.ParallelMode.CLASSES);
+            test.setThreadCount(threadCount);
+            rewritten.add(test);
+
+            if (!stateless.isEmpty()) {
+                XmlTest methodsTest = new XmlTest(suite);
+                methodsTest.setName(test.getName() + " (methods)");
+                methodsTest.setParameters(test.getLocalParameters());
+                methodsTest.setPreserveOrder(test.getPreserveOrder());
+                methodsTest.setXmlClasses(stateless);
+                methodsTest.setParallel(XmlSuite.ParallelMode.METHODS);
+                methodsTest.setThreadCount(threadCount);
+                rewritten.add(methodsTest);
+            }
+        }
+
+        suite.setTests(rewritten);
+        suite.setParallel(XmlSuite.ParallelMode.TESTS);
+        suite.setThreadCount(threadCount);
+    }
+}
@@ -0,0 +1,26 @@
+package com.vagent.listeners;
+
+import com.vagent.perf.PerfBudget;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Fails a test method with the load-budget breach its setup recorded (see PerfBudget.checkLoadDeferred),
+ * so perf.budget.mode=fail fails one test instead of skipping the class. Registered before
+ * ScreenshotListener and the report listeners so they see the failure.
+ */
+public class PerfBudgetListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        String breach = PerfBudget.takeDeferred(result.getInstance());
+        if (breach != null && result.getStatus() == ITestResult.SUCCESS) {
+            result.setStatus(ITestResult.FAILURE);
+            result.setThrowable(new AssertionError(breach));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.vagent.listeners;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
+import com.vagent.driver.DriverFactory;
+import com.vagent.report.TestReport;
+import com.vagent.utils.ScreenshotService;
+import org.openqa.selenium.WebDriver;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Captures the failure screenshot right after a test method fails, while its browser is still open
+ * (ITestListener.onTestFailure only runs after @AfterMethod has closed it), and writes the test's
+ * buffered frames alongside it. Passing tests just drop their frames. Everything is written by
+ * ScreenshotService in the background and attached to the test report.
+ */
+public class ScreenshotListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        ScreenshotService screenshots = ScreenshotService.get();
+        String test = TestContext.currentTestName();
+        if (result.getStatus() != ITestResult.FAILURE
+                || !ConfigManager.getBooleanProperty("screenshot.on.failure", true)) {
+            screenshots.discardFrames(test);
+            return;
+        }
+        for (ScreenshotService.Labelled frame : screenshots.flushFrames(test)) {
+            TestReport.attach(frame.getTitle(), frame.getFile());
+        }
+        WebDriver driver = DriverFactory.getDriver();
+        if (driver != null) {
+            try {
+                TestReport.attach("Failure", screenshots.capture(driver, test + "_FAILED"));
+            } catch (RuntimeException e) {
+                TestReport.log("Failure screenshot unavailable: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vagent.listeners;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.shard.ShardPlanner;
+import com.vagent.shard.TestDurations;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+
+/**
+ * Narrows the suites to one shard when shard.total is above 1, running only the units that
+ * ShardPlanner assigns to shard.index (0-based). Registered ahead of ParallelSuiteListener so
+ * the parallel split applies to what is left.
+ */
+public class ShardListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int total = ConfigManager.getIntProperty("shard.total", 1);
+        if (total <= 1) {
+            return;
+        }
+        int index = ConfigManager.getIntProperty("shard.index", 0);
+        if (index < 0 || index >= total) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (total - 1) + ", got " + index);
+        }
+
+        TestDurations durations = TestDurations.load();
+        ShardPlanner planner = new ShardPlanner(durations);
+        List<ShardPlanner.Shard> shards = planner.plan(planner.units(suites), total);
+        ShardPlanner.Shard shard = shards.get(index);
+        ShardPlanner.retain(suites, shard);
+
+        System.out.printf("Shard %d/%d: %d methods in %d units, estimated %.0fs%s%n", index + 1, total,
+            shard.getMethodCount(), shard.getUnits().size(), shard.getEstimateMillis() / 1000.0,
+            durations.isEmpty() ? " (no recorded durations, using defaults)" : "");
+    }
+}
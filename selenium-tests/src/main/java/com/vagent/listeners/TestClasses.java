@@ -0,0 +1,28 @@
+package com.vagent.listeners;
+
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reflection helpers for classifying test classes
+ */
+public class TestClasses {
+
+    private TestClasses() {
+    }
+
+    /**
+     * Check whether a test class chains its methods with dependsOnMethods. Such classes share
+     * page objects and a browser across methods, so their methods must run serially on one thread.
+     */
+    public static boolean hasDependentMethods(Class<?> testClass) {
+        for (Method method : testClass.getMethods()) {
+            Test test = method.getAnnotation(Test.class);
+            if (test != null && test.dependsOnMethods().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,364 @@
+package com.vagent.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.config.ConfigManager;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.stub.StubBackend;
+import com.vagent.utils.DatasetGenerator;
+import com.vagent.utils.TestDataGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Headless load generator for project chat rooms. Seeds users and projects through the REST API, opens
+ * authenticated Socket.IO connections spread across the projects, emits project-message events at a fixed
+ * open-loop rate and measures how long the backend takes to fan each message out to the rest of the room.
+ * A load.ai.ratio share of the messages are "@ai" prompts, to see how fan-out degrades while AI calls are
+ * in flight; load.stub=true runs against an in-process stub backend over polling instead of load.url.
+ *
+ * Usage: mvn compile exec:java -Dexec.mainClass=com.vagent.load.ChatLoadGenerator
+ *            [-Dload.url=http://localhost:3000] [-Dload.projects=50] [-Dload.connections.per.project=40]
+ *            [-Dload.rate=200] [-Dload.duration.seconds=60] [-Dload.ai.ratio=0.05]
+ *            [-Dload.transport=websocket|polling] [-Dload.stub=true -Dai.sim.latency=typical]
+ */
+public class ChatLoadGenerator {
+
+    private static final String EVENT = "project-message";
+    private static final String RESULTS_FILE = "target/load/chat-load.json";
+
+    private final StubBackend stub = startStub();
+    private final String serverUrl = stub != null ? stub.getUrl()
+        : ConfigManager.getProperty("load.url", "http://localhost:3000");
+    private final boolean polling = stub != null
+        || "polling".equals(ConfigManager.getProperty("load.transport", "websocket"));
+    private final double aiRatio = ConfigManager.getDoubleProperty("load.ai.ratio", 0);
+    private final int projectCount = ConfigManager.getIntProperty("load.projects", 50);
+    private final int connectionsPerProject = ConfigManager.getIntProperty("load.connections.per.project", 40);
+    private final int userCount = ConfigManager.getIntProperty("load.users", 20);
+    private final int connectConcurrency = ConfigManager.getIntProperty("load.connect.concurrency", 200);
+    private final double messagesPerSecond = ConfigManager.getDoubleProperty("load.rate", 200);
+    private final int durationSeconds = ConfigManager.getIntProperty("load.duration.seconds", 60);
+    private final int drainSeconds = ConfigManager.getIntProperty("load.drain.seconds", 5);
+    private final Iterator<String> messageTexts = new DatasetGenerator("chat-load")
+        .messages(ConfigManager.getIntProperty("load.message.words", 12));
+
+    private final ExecutorService ioExecutor = Executors.newFixedThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private final HttpClient httpClient = HttpClient.newBuilder().executor(ioExecutor).build();
+
+    private final List<Room> rooms = new ArrayList<>();
+    private final LatencyRecorder overall = new LatencyRecorder();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong unexpected = new AtomicLong();
+    private final AtomicLong aiPrompts = new AtomicLong();
+    private final AtomicLong aiReplies = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        ChatLoadGenerator generator = new ChatLoadGenerator();
+        try {
+            generator.run();
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Chat load: %s (%s), %d projects x %d connections, %.0f msg/s for %ds, %.0f%% @ai%n",
+            serverUrl, polling ? "polling" : "websocket", projectCount, connectionsPerProject, messagesPerSecond,
+            durationSeconds, aiRatio * 100);
+
+        seed();
+        connect();
+
+        long start = System.nanoTime();
+        generate(start);
+        long sendEnd = System.nanoTime();
+        TimeUnit.SECONDS.sleep(drainSeconds);
+
+        report((sendEnd - start) / 1_000_000_000.0);
+    }
+
+    /**
+     * Register users and create projects through the REST API; sockets only need a valid token and project id
+     */
+    private void seed() {
+        FixtureClient fixtures = new FixtureClient(serverUrl, ConfigManager.getIntProperty("fixtures.concurrency", 8));
+        List<UserFixture> users = fixtures.registerRandomUsers(userCount);
+
+        List<Supplier<CompletableFuture<ProjectFixture>>> tasks = new ArrayList<>();
+        for (int i = 0; i < projectCount; i++) {
+            UserFixture owner = users.get(i % users.size());
+            tasks.add(() -> fixtures.createProjectAsync(owner, TestDataGenerator.generateRandomProjectName()));
+        }
+        List<ProjectFixture> projects = fixtures.batch(tasks);
+
+        for (int i = 0; i < projects.size(); i++) {
+            rooms.add(new Room(projects.get(i), users, i));
+        }
+        System.out.printf("Seeded %d users and %d projects%n", users.size(), projects.size());
+    }
+
+    /**
+     * Open every connection, bounding concurrent handshakes so the server's accept queue is not flooded
+     */
+    private void connect() {
+        Semaphore handshakes = new Semaphore(connectConcurrency);
+        List<CompletableFuture<SocketIoClient>> pending = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (Room room : rooms) {
+            for (int i = 0; i < connectionsPerProject; i++) {
+                UserFixture user = room.users.get(i % room.users.size());
+                String connectionId = room.index + "-" + i;
+                handshakes.acquireUninterruptibly();
+                BiConsumer<String, JsonNode> handler = (event, payload) -> onEvent(room, connectionId, event, payload);
+                CompletableFuture<SocketIoClient> future = (polling
+                        ? SocketIoClient.connectPolling(httpClient, serverUrl, user.getToken(), room.project.getId(),
+                            connectionId, handler)
+                        : SocketIoClient.connect(httpClient, serverUrl, user.getToken(), room.project.getId(),
+                            connectionId, handler))
+                    .whenComplete((client, error) -> handshakes.release());
+                pending.add(future.thenApply(client -> {
+                    room.addConnection(client, user);
+                    return client;
+                }));
+            }
+        }
+
+        int failed = 0;
+        for (CompletableFuture<SocketIoClient> future : pending) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                if (failed++ == 0) {
+                    System.err.println("Connection failed: " + e.getMessage());
+                }
+            }
+        }
+        System.out.printf("Opened %d connections in %.1fs (%d failed)%n", pending.size() - failed,
+            (System.nanoTime() - start) / 1_000_000_000.0, failed);
+        // A room with one connection has nobody to deliver to; close it rather than leave it polling unmeasured
+        rooms.removeIf(room -> {
+            if (room.connections.size() >= 2) {
+                return false;
+            }
+            room.connections.forEach(SocketIoClient::close);
+            return true;
+        });
+        if (rooms.isEmpty()) {
+            throw new IllegalStateException("No room has two live connections; is the backend running at " + serverUrl
+                + "?");
+        }
+    }
+
+    /**
+     * Emit messages on an open-loop schedule. Latency is measured from the scheduled send time, so a stalled
+     * sender shows up as latency instead of silently lowering the offered rate.
+     */
+    private void generate(long start) {
+        long intervalNanos = (long) (1_000_000_000L / messagesPerSecond);
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (long sequence = 0; ; sequence++) {
+            long scheduled = start + sequence * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            SocketIoClient sender = room.connections.get(random.nextInt(room.connections.size()));
+            Map<String, Object> payload = new HashMap<>();
+            boolean ai = aiRatio > 0 && random.nextDouble() < aiRatio;
+            payload.put("message", ai ? "@ai load prompt " + sequence
+                : "load message " + sequence + ": " + messageTexts.next());
+            payload.put("sender", room.senderFor(sender));
+            payload.put("loadSentAt", scheduled);
+            payload.put("loadSequence", sequence);
+
+            room.expectedDeliveries.addAndGet(room.connections.size() - 1);
+            room.sent.incrementAndGet();
+            sent.incrementAndGet();
+            if (ai) {
+                aiPrompts.incrementAndGet();
+            }
+            sender.emit(EVENT, payload).exceptionally(error -> {
+                sendFailures.incrementAndGet();
+                return null;
+            });
+        }
+    }
+
+    private void onEvent(Room room, String connectionId, String event, JsonNode payload) {
+        long received = System.nanoTime();
+        if (EVENT.equals(event) && payload != null && "ai".equals(payload.path("sender").path("_id").asText())) {
+            aiReplies.incrementAndGet();
+            return;
+        }
+        if (!EVENT.equals(event) || payload == null || !payload.has("loadSentAt")) {
+            unexpected.incrementAndGet();
+            return;
+        }
+        long latency = received - payload.get("loadSentAt").asLong();
+        room.latency.record(latency);
+        room.delivered.incrementAndGet();
+        overall.record(latency);
+    }
+
+    private void report(double sendSeconds) throws IOException {
+        long expected = 0;
+        long delivered = 0;
+        for (Room room : rooms) {
+            expected += room.expectedDeliveries.get();
+            delivered += room.delivered.get();
+        }
+
+        System.out.println();
+        System.out.printf("Sent %d messages in %.1fs (%.1f msg/s, %d send failures)%n", sent.get(), sendSeconds,
+            sent.get() / sendSeconds, sendFailures.get());
+        System.out.printf("Deliveries: %d of %d expected (%.2f%% lost), %.0f deliveries/s%n", delivered, expected,
+            expected == 0 ? 0 : 100.0 * (expected - delivered) / expected, delivered / sendSeconds);
+        if (aiPrompts.get() > 0) {
+            System.out.printf("AI prompts: %d sent, %d replies delivered%n", aiPrompts.get(), aiReplies.get());
+        }
+        System.out.printf("Fan-out latency: p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+            overall.percentileMillis(50), overall.percentileMillis(90), overall.percentileMillis(99),
+            overall.percentileMillis(100));
+
+        List<Map<String, Object>> perRoom = new ArrayList<>();
+        System.out.println();
+        System.out.printf("  %-26s %5s %7s %10s %10s %9s %9s%n", "room", "conns", "sent", "delivered", "deliv/s",
+            "p50(ms)", "p99(ms)");
+        for (Room room : rooms) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("projectId", room.project.getId());
+            row.put("connections", room.connections.size());
+            row.put("sent", room.sent.get());
+            row.put("expectedDeliveries", room.expectedDeliveries.get());
+            row.put("delivered", room.delivered.get());
+            row.put("deliveriesPerSecond", room.delivered.get() / sendSeconds);
+            row.put("p50Ms", room.latency.percentileMillis(50));
+            row.put("p99Ms", room.latency.percentileMillis(99));
+            perRoom.add(row);
+            System.out.printf("  %-26s %5d %7d %10d %10.1f %9.1f %9.1f%n", room.project.getId(),
+                room.connections.size(), room.sent.get(), room.delivered.get(), room.delivered.get() / sendSeconds,
+                room.latency.percentileMillis(50), room.latency.percentileMillis(99));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("serverUrl", serverUrl);
+        result.put("transport", polling ? "polling" : "websocket");
+        result.put("rooms", rooms.size());
+        result.put("connectionsPerRoom", connectionsPerProject);
+        result.put("targetRate", messagesPerSecond);
+        result.put("durationSeconds", sendSeconds);
+        result.put("sent", sent.get());
+        result.put("sendFailures", sendFailures.get());
+        result.put("expectedDeliveries", expected);
+        result.put("delivered", delivered);
+        result.put("unexpectedEvents", unexpected.get());
+        result.put("aiRatio", aiRatio);
+        result.put("aiPrompts", aiPrompts.get());
+        result.put("aiReplies", aiReplies.get());
+        if (stub != null) {
+            result.put("aiPeakInFlight", stub.getAiSimulator().getPeakInFlight());
+        }
+        result.put("p50Ms", overall.percentileMillis(50));
+        result.put("p90Ms", overall.percentileMillis(90));
+        result.put("p99Ms", overall.percentileMillis(99));
+        result.put("maxMs", overall.percentileMillis(100));
+        result.put("perRoom", perRoom);
+
+        File file = new File(RESULTS_FILE);
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        System.out.println("Results written to " + RESULTS_FILE);
+    }
+
+    private void shutdown() {
+        for (Room room : rooms) {
+            for (SocketIoClient client : room.connections) {
+                client.close();
+            }
+        }
+        ioExecutor.shutdownNow();
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+
+    /**
+     * In-process stub backend when load.stub is set; it serves Socket.IO over polling only
+     */
+    private static StubBackend startStub() {
+        if (!ConfigManager.getBooleanProperty("load.stub", false)) {
+            return null;
+        }
+        try {
+            return new StubBackend(0, new File("target/load/no-frontend"), Collections.emptyList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start stub backend", e);
+        }
+    }
+
+    /**
+     * One project chat room and the connections joined to it
+     */
+    private static class Room {
+        private final ProjectFixture project;
+        private final List<UserFixture> users;
+        private final int index;
+        private final List<SocketIoClient> connections = new ArrayList<>();
+        private final Map<SocketIoClient, Map<String, Object>> senders = new HashMap<>();
+        private final LatencyRecorder latency = new LatencyRecorder();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong expectedDeliveries = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+
+        Room(ProjectFixture project, List<UserFixture> users, int index) {
+            this.project = project;
+            this.users = users;
+            this.index = index;
+        }
+
+        synchronized void addConnection(SocketIoClient client, UserFixture user) {
+            Map<String, Object> sender = new HashMap<>();
+            sender.put("_id", user.getId());
+            sender.put("email", user.getEmail());
+            senders.put(client, sender);
+            connections.add(client);
+        }
+
+        Map<String, Object> senderFor(SocketIoClient client) {
+            return senders.get(client);
+        }
+    }
+}
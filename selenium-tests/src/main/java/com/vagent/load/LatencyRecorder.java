@@ -0,0 +1,47 @@
+package com.vagent.load;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every latency sample so percentiles are exact; a load run produces at most a few million samples
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * Percentile (0-100) in milliseconds, or 0 when nothing was recorded
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+
+    public synchronized double meanMillis() {
+        if (size == 0) {
+            return 0;
+        }
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += samples[i];
+        }
+        return total / size / 1_000_000.0;
+    }
+}
@@ -0,0 +1,353 @@
+package com.vagent.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.config.ConfigManager;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Throughput and latency benchmark for the project and user REST endpoints.
+ * Each endpoint is driven at a fixed open-loop arrival rate. Latency is measured from each request's
+ * scheduled start rather than its actual send time, which corrects for coordinated omission: when the
+ * backend stalls, the requests that should have been sent meanwhile are charged the stall.
+ *
+ * Usage: mvn -Papi-benchmark verify [-Dbench.url=http://localhost:3000] [-Dbench.rate=50]
+ *            [-Dbench.label=v2] [-Dbench.baseline=target/benchmarks/rest-api-v1.json]
+ *        mvn compile exec:java -Dexec.mainClass=com.vagent.load.RestBenchmark -Dexec.args="diff old.json new.json"
+ */
+public class RestBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final String serverUrl = ConfigManager.getProperty("bench.url", "http://localhost:3000");
+    private final double rate = ConfigManager.getDoubleProperty("bench.rate", 50);
+    private final int warmupSeconds = ConfigManager.getIntProperty("bench.warmup.seconds", 5);
+    private final int durationSeconds = ConfigManager.getIntProperty("bench.duration.seconds", 30);
+    private final int maxInFlight = ConfigManager.getIntProperty("bench.max.inflight", 1000);
+    private final int userCount = ConfigManager.getIntProperty("bench.users", 10);
+    private final int projectsPerUser = ConfigManager.getIntProperty("bench.projects.per.user", 5);
+    private final int fileTreeFiles = ConfigManager.getIntProperty("bench.filetree.files", 20);
+
+    private final ExecutorService ioExecutor = Executors.newFixedThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(serverUrl.startsWith("https") ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(30))
+        .executor(ioExecutor)
+        .build();
+
+    private final List<UserFixture> users = new ArrayList<>();
+    private final List<ProjectFixture> projects = new ArrayList<>();
+    private final Map<ProjectFixture, UserFixture> owners = new LinkedHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && "diff".equals(args[0])) {
+            System.out.println(diff(read(new File(args[1])), read(new File(args[2]))));
+            return;
+        }
+
+        RestBenchmark benchmark = new RestBenchmark();
+        Map<String, Object> report;
+        try {
+            report = benchmark.run();
+        } finally {
+            benchmark.ioExecutor.shutdownNow();
+        }
+
+        File file = new File("target/benchmarks/rest-api-" + ConfigManager.getProperty("bench.label", "current")
+            + ".json");
+        file.getParentFile().mkdirs();
+        MAPPER.writeValue(file, report);
+        System.out.println("Results written to " + file.getPath());
+
+        String baseline = ConfigManager.getProperty("bench.baseline", "");
+        if (!baseline.isEmpty()) {
+            System.out.println(diff(read(new File(baseline)), report));
+        }
+    }
+
+    public Map<String, Object> run() {
+        System.out.printf("REST benchmark: %s, %.0f req/s per endpoint, %ds warm-up + %ds measured%n",
+            serverUrl, rate, warmupSeconds, durationSeconds);
+        seed();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Endpoint endpoint : endpoints()) {
+            runPhase(endpoint, warmupSeconds);
+            Map<String, Object> result = runPhase(endpoint, durationSeconds).toMap(endpoint, rate);
+            results.add(result);
+            System.out.printf("  %-36s %8.1f req/s  p50=%7.1fms p99=%7.1fms p99.9=%7.1fms errors=%d%n",
+                endpoint.name, result.get("achievedRate"), latency(result, "p50"), latency(result, "p99"),
+                latency(result, "p999"), result.get("errors"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", ConfigManager.getProperty("bench.label", "current"));
+        report.put("serverUrl", serverUrl);
+        report.put("targetRate", rate);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("durationSeconds", durationSeconds);
+        report.put("users", users.size());
+        report.put("projects", projects.size());
+        report.put("fileTreeFiles", fileTreeFiles);
+        report.put("endpoints", results);
+        return report;
+    }
+
+    /**
+     * Seed users that each own several projects, so list endpoints return realistic result sets
+     */
+    private void seed() {
+        FixtureClient fixtures = new FixtureClient(serverUrl, ConfigManager.getIntProperty("fixtures.concurrency", 8));
+        users.addAll(fixtures.registerRandomUsers(userCount));
+        for (UserFixture user : users) {
+            for (ProjectFixture project : fixtures.createRandomProjects(user, projectsPerUser)) {
+                projects.add(project);
+                owners.put(project, user);
+            }
+        }
+        System.out.printf("Seeded %d users and %d projects%n", users.size(), projects.size());
+    }
+
+    private List<Endpoint> endpoints() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new Endpoint("GET /projects/all", () -> get("/projects/all", randomUser())));
+        endpoints.add(new Endpoint("GET /projects/get-project/:projectId", () -> {
+            ProjectFixture project = randomProject();
+            return get("/projects/get-project/" + project.getId(), owners.get(project));
+        }));
+        endpoints.add(new Endpoint("PUT /projects/update-file-tree", () -> {
+            ProjectFixture project = randomProject();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("projectId", project.getId());
+            body.put("fileTree", fileTree());
+            return request("/projects/update-file-tree", owners.get(project))
+                .PUT(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build();
+        }));
+        endpoints.add(new Endpoint("GET /users/all", () -> get("/users/all", randomUser())));
+        return endpoints;
+    }
+
+    /**
+     * Drive one endpoint at the target arrival rate for the given time and wait for every response
+     */
+    private PhaseResult runPhase(Endpoint endpoint, int seconds) {
+        PhaseResult result = new PhaseResult();
+        if (seconds <= 0) {
+            return result;
+        }
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong lastCompletion = new AtomicLong(start);
+
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + sequence * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocking here delays later sends, but their latency still counts from the intended start
+            inFlight.acquireUninterruptibly();
+            long sentAt;
+            CompletableFuture<HttpResponse<byte[]>> sent;
+            try {
+                HttpRequest request = endpoint.requests.get();
+                sentAt = System.nanoTime();
+                sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+            pending.add(sent
+                .handle((response, error) -> {
+                    long done = System.nanoTime();
+                    inFlight.release();
+                    lastCompletion.accumulateAndGet(done, Math::max);
+                    result.latency.record(done - intended);
+                    result.serviceTime.record(done - sentAt);
+                    if (error != null || response.statusCode() != 200) {
+                        result.errors.incrementAndGet();
+                    } else {
+                        result.bytes.addAndGet(response.body().length);
+                    }
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        result.elapsedNanos = lastCompletion.get() - start;
+        return result;
+    }
+
+    private HttpRequest get(String path, UserFixture user) {
+        return request(path, user).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, UserFixture user) {
+        return HttpRequest.newBuilder(URI.create(serverUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + user.getToken());
+    }
+
+    /**
+     * A file tree shaped like the AI service output, e.g. {"app.js": {"file": {"contents": "..."}}}
+     */
+    private Map<String, Object> fileTree() {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (int i = 0; i < fileTreeFiles; i++) {
+            StringBuilder contents = new StringBuilder();
+            for (int line = 0; line < 40; line++) {
+                contents.append("export const value").append(line).append(" = ").append(i * line).append(";\n");
+            }
+            tree.put("src/file" + i + ".js", Collections.singletonMap("file",
+                Collections.singletonMap("contents", contents.toString())));
+        }
+        return tree;
+    }
+
+    private UserFixture randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private ProjectFixture randomProject() {
+        return projects.get(ThreadLocalRandom.current().nextInt(projects.size()));
+    }
+
+    /**
+     * Compare two reports endpoint by endpoint; p99 growth beyond bench.regression.threshold percent is flagged
+     */
+    @SuppressWarnings("unchecked")
+    public static String diff(Map<String, Object> baseline, Map<String, Object> current) {
+        double threshold = ConfigManager.getDoubleProperty("bench.regression.threshold", 10);
+        Map<String, Map<String, Object>> before = new LinkedHashMap<>();
+        for (Map<String, Object> endpoint : (List<Map<String, Object>>) baseline.get("endpoints")) {
+            before.put((String) endpoint.get("endpoint"), endpoint);
+        }
+
+        StringBuilder out = new StringBuilder(String.format("%nREST benchmark diff: %s -> %s%n",
+            baseline.get("label"), current.get("label")));
+        out.append(String.format("  %-36s %22s %22s %22s%n", "endpoint", "req/s", "p50(ms)", "p99(ms)"));
+        for (Map<String, Object> after : (List<Map<String, Object>>) current.get("endpoints")) {
+            String name = (String) after.get("endpoint");
+            Map<String, Object> old = before.get(name);
+            if (old == null) {
+                out.append(String.format("  %-36s (new endpoint)%n", name));
+                continue;
+            }
+            double p99Change = change(latency(old, "p99"), latency(after, "p99"));
+            out.append(String.format("  %-36s %22s %22s %22s%s%n", name,
+                compare(number(old, "achievedRate"), number(after, "achievedRate")),
+                compare(latency(old, "p50"), latency(after, "p50")),
+                compare(latency(old, "p99"), latency(after, "p99")),
+                p99Change > threshold ? "  REGRESSION" : ""));
+        }
+        return out.toString();
+    }
+
+    private static String compare(double before, double after) {
+        return String.format("%.1f->%.1f (%+.0f%%)", before, after, change(before, after));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double latency(Map<String, Object> endpoint, String key) {
+        return number((Map<String, Object>) endpoint.get("latencyMs"), key);
+    }
+
+    private static double number(Map<String, Object> map, String key) {
+        return ((Number) map.get(key)).doubleValue();
+    }
+
+    private static Map<String, Object> read(File file) throws IOException {
+        return MAPPER.readValue(file, JSON_OBJECT);
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize request body", e);
+        }
+    }
+
+    private static class Endpoint {
+        private final String name;
+        private final Supplier<HttpRequest> requests;
+
+        Endpoint(String name, Supplier<HttpRequest> requests) {
+            this.name = name;
+            this.requests = requests;
+        }
+    }
+
+    private static class PhaseResult {
+        private final LatencyRecorder latency = new LatencyRecorder();
+        private final LatencyRecorder serviceTime = new LatencyRecorder();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private long elapsedNanos;
+
+        Map<String, Object> toMap(Endpoint endpoint, double targetRate) {
+            int requests = latency.count();
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", endpoint.name);
+            map.put("targetRate", targetRate);
+            map.put("achievedRate", seconds == 0 ? 0 : requests / seconds);
+            map.put("requests", requests);
+            map.put("errors", errors.get());
+            map.put("avgResponseBytes", requests == errors.get() ? 0 : bytes.get() / (requests - errors.get()));
+            map.put("latencyMs", percentiles(latency));
+            map.put("serviceTimeMs", percentiles(serviceTime));
+            return map;
+        }
+
+        private static Map<String, Object> percentiles(LatencyRecorder recorder) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("mean", recorder.meanMillis());
+            map.put("p50", recorder.percentileMillis(50));
+            map.put("p90", recorder.percentileMillis(90));
+            map.put("p99", recorder.percentileMillis(99));
+            map.put("p999", recorder.percentileMillis(99.9));
+            map.put("max", recorder.percentileMillis(100));
+            return map;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.vagent.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+/**
+ * Minimal Socket.IO v4 client (Engine.IO protocol 4) for load generation, over websocket or HTTP long-polling.
+ * Supports the handshake with auth.token and query parameters, ping/pong, and emitting and receiving events.
+ * Each websocket frame carries exactly one Engine.IO packet; polling payloads batch packets with a record separator.
+ */
+public class SocketIoClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SEPARATOR = "\u001e";
+
+    private final String id;
+    private final CompletableFuture<SocketIoClient> connected = new CompletableFuture<>();
+    private final BiConsumer<String, JsonNode> eventHandler;
+    private volatile WebSocket webSocket;
+    private volatile HttpClient pollingClient;
+    private volatile String pollingUrl;
+    private volatile boolean closed;
+    private CompletableFuture<Void> sendChain = CompletableFuture.completedFuture(null);
+
+    private SocketIoClient(String id, BiConsumer<String, JsonNode> eventHandler) {
+        this.id = id;
+        this.eventHandler = eventHandler;
+    }
+
+    /**
+     * Open a websocket to the server's /socket.io/ endpoint and complete once the namespace connect is acknowledged
+     */
+    public static CompletableFuture<SocketIoClient> connect(HttpClient httpClient, String serverUrl, String token,
+                                                           String projectId, String id,
+                                                           BiConsumer<String, JsonNode> eventHandler) {
+        SocketIoClient client = new SocketIoClient(id, eventHandler);
+        String base = serverUrl.replaceFirst("^http", "ws");
+        URI uri = URI.create(base + (base.endsWith("/") ? "" : "/") + "socket.io/?EIO=4&transport=websocket&projectId="
+            + URLEncoder.encode(projectId, StandardCharsets.UTF_8));
+
+        httpClient.newWebSocketBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .buildAsync(uri, client.new Listener(token))
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    client.connected.completeExceptionally(error);
+                } else {
+                    client.webSocket = ws;
+                }
+            });
+        return client.connected;
+    }
+
+    /**
+     * Connect over HTTP long-polling, for servers without a websocket endpoint such as the stub backend
+     */
+    public static CompletableFuture<SocketIoClient> connectPolling(HttpClient httpClient, String serverUrl, String token,
+                                                                  String projectId, String id,
+                                                                  BiConsumer<String, JsonNode> eventHandler) {
+        SocketIoClient client = new SocketIoClient(id, eventHandler);
+        String base = serverUrl + (serverUrl.endsWith("/") ? "" : "/") + "socket.io/?EIO=4&transport=polling";
+        client.pollingClient = httpClient;
+
+        httpClient.sendAsync(HttpRequest.newBuilder(URI.create(base + "&projectId="
+                    + URLEncoder.encode(projectId, StandardCharsets.UTF_8))).timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != 200 || !response.body().startsWith("0")) {
+                    client.connected.completeExceptionally(error != null ? error
+                        : new IllegalStateException("Handshake failed for " + id + ": HTTP " + response.statusCode()));
+                    return;
+                }
+                try {
+                    String sid = MAPPER.readTree(response.body().substring(1)).path("sid").asText();
+                    client.pollingUrl = base + "&sid=" + URLEncoder.encode(sid, StandardCharsets.UTF_8);
+                    client.onPacket(response.body(), token);
+                    client.poll(token);
+                } catch (Exception e) {
+                    client.connected.completeExceptionally(e);
+                }
+            });
+        return client.connected;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Emit an event with a single JSON argument
+     */
+    public CompletableFuture<Void> emit(String event, Object payload) {
+        try {
+            return sendRaw("42" + MAPPER.writeValueAsString(new Object[] {event, payload}));
+        } catch (Exception e) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    public void close() {
+        closed = true;
+        if (pollingUrl != null) {
+            sendRaw("1");
+            return;
+        }
+        WebSocket ws = webSocket;
+        if (ws != null && !ws.isOutputClosed()) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(e -> null);
+        }
+    }
+
+    /**
+     * WebSocket allows one outstanding send at a time, and polling POSTs must arrive in order, so pongs and
+     * emits are chained per connection
+     */
+    private synchronized CompletableFuture<Void> sendRaw(String text) {
+        sendChain = sendChain.exceptionally(e -> null).thenCompose(previous -> {
+            if (pollingUrl == null) {
+                return webSocket.sendText(text, true).thenApply(ws -> null);
+            }
+            HttpRequest post = HttpRequest.newBuilder(URI.create(pollingUrl))
+                .header("Content-Type", "text/plain;charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(text))
+                .build();
+            return pollingClient.sendAsync(post, HttpResponse.BodyHandlers.discarding()).thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Connection " + id + " POST failed: HTTP " + response.statusCode());
+                }
+                return null;
+            });
+        });
+        return sendChain;
+    }
+
+    /**
+     * Keep one long-poll GET outstanding, handling each batch of packets before issuing the next
+     */
+    private void poll(String token) {
+        pollingClient.sendAsync(HttpRequest.newBuilder(URI.create(pollingUrl)).build(),
+                HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                if (closed) {
+                    return;
+                }
+                if (error != null || response.statusCode() != 200) {
+                    connected.completeExceptionally(error != null ? error
+                        : new IllegalStateException("Connection " + id + " poll failed: HTTP " + response.statusCode()));
+                    return;
+                }
+                for (String packet : response.body().split(SEPARATOR)) {
+                    try {
+                        onPacket(packet, token);
+                    } catch (Exception e) {
+                        System.err.println("Connection " + id + " failed to handle packet: " + e.getMessage());
+                    }
+                }
+                poll(token);
+            });
+    }
+
+    private void onPacket(String packet, String token) throws Exception {
+        if (packet.isEmpty()) {
+            return;
+        }
+        switch (packet.charAt(0)) {
+            case '0':
+                // Engine.IO open: connect to the default namespace with auth
+                sendRaw("40" + MAPPER.writeValueAsString(Collections.singletonMap("token", token)));
+                break;
+            case '2':
+                sendRaw("3");
+                break;
+            case '4':
+                onSocketIoPacket(packet.substring(1));
+                break;
+            case '1':
+                connected.completeExceptionally(new IllegalStateException("Connection " + id + " closed by server"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onSocketIoPacket(String packet) throws Exception {
+        if (packet.startsWith("0")) {
+            connected.complete(this);
+        } else if (packet.startsWith("4")) {
+            connected.completeExceptionally(new IllegalStateException("Connection " + id + " rejected: "
+                + packet.substring(1)));
+        } else if (packet.startsWith("2")) {
+            JsonNode array = MAPPER.readTree(packet.substring(1));
+            if (array.isArray() && array.size() > 0) {
+                eventHandler.accept(array.get(0).asText(), array.size() > 1 ? array.get(1) : null);
+            }
+        }
+    }
+
+    private class Listener implements WebSocket.Listener {
+        private final String token;
+        private final StringBuilder buffer = new StringBuilder();
+
+        Listener(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            webSocket = ws;
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String packet = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    onPacket(packet, token);
+                } catch (Exception e) {
+                    System.err.println("Connection " + id + " failed to handle packet: " + e.getMessage());
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            connected.completeExceptionally(new IllegalStateException("Connection " + id + " closed: " + statusCode
+                + " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            connected.completeExceptionally(error);
+        }
+    }
+}
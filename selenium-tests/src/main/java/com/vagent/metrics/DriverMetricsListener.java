@@ -0,0 +1,62 @@
+package com.vagent.metrics;
+
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Times every WebDriver, WebElement and nested (navigation, options, alert...) call on a decorated driver.
+ * Each command is attributed to the page-object method that issued it, see {@link PageCaller}.
+ */
+public class DriverMetricsListener implements WebDriverListener {
+
+    private static final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(target, method, false);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(target, method, true);
+    }
+
+    private void finish(Object target, Method method, boolean failed) {
+        Long start = startTimes.get().poll();
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        StackWalker.StackFrame caller = PageCaller.find().orElse(null);
+        MetricsRegistry.record(MetricsRegistry.DRIVER_COMMAND, commandName(target, method),
+            caller != null ? caller.getDeclaringClass().getSimpleName() : "none",
+            caller != null ? caller.getMethodName() : "-", elapsed, failed);
+    }
+
+    /**
+     * Name a command after the interface it belongs to, e.g. WebElement.click or Navigation.to
+     */
+    private static String commandName(Object target, Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        String type;
+        if (owner == SearchContext.class || owner == Object.class) {
+            type = target instanceof WebElement ? "WebElement" : target instanceof WebDriver ? "WebDriver"
+                : owner.getSimpleName();
+        } else {
+            type = owner.getSimpleName();
+        }
+        return type + "." + method.getName();
+    }
+}
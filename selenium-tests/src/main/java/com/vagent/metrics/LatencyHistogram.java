@@ -0,0 +1,89 @@
+package com.vagent.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed bucket bounds, so series can be merged and exported as Prometheus buckets
+ */
+public class LatencyHistogram {
+
+    /** Upper bucket bounds in milliseconds; anything slower lands in the implicit +Inf bucket */
+    static final double[] BOUNDS_MILLIS = {
+        1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 120000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one observation
+     */
+    public void record(long elapsedNanos, boolean failed) {
+        double millis = elapsedNanos / 1_000_000.0;
+        int bucket = BOUNDS_MILLIS.length;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            if (millis <= BOUNDS_MILLIS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getTotalMillis() {
+        return totalNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : getTotalMillis() / n;
+    }
+
+    /**
+     * Estimate a percentile (0-100) as the upper bound of the bucket that contains it, capped at the observed max
+     */
+    public double getPercentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS_MILLIS[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Non-cumulative count of the bucket at the index; the last index is the +Inf bucket
+     */
+    public long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+}
@@ -0,0 +1,308 @@
+package com.vagent.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Latency histograms for driver commands and page-object actions, tagged with test, page and browser.
+ * Exported as JSON and Prometheus text to metrics.output.dir when the JVM exits.
+ */
+public class MetricsRegistry {
+
+    public static final String DRIVER_COMMAND = "driver_command";
+    public static final String PAGE_ACTION = "page_action";
+
+    private static final String PROMETHEUS_PREFIX = "vagent_";
+    private static final Map<Series, LatencyHistogram> series = new ConcurrentHashMap<>();
+    private static final AtomicBoolean exportRegistered = new AtomicBoolean();
+    private static final boolean enabled = ConfigManager.getBooleanProperty("metrics.enabled", true);
+    private static final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record one observation for the current test and configured browser
+     */
+    public static void record(String family, String operation, String page, String caller, long elapsedNanos,
+                              boolean failed) {
+        Series key = new Series(family, operation, page, caller, TestContext.currentTestName(),
+            ConfigManager.getBrowser());
+        series.computeIfAbsent(key, k -> new LatencyHistogram()).record(elapsedNanos, failed);
+        for (Observer observer : observers) {
+            observer.recorded(family, operation, page, elapsedNanos, failed);
+        }
+        if (exportRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MetricsRegistry::exportOnExit, "metrics-export"));
+        }
+    }
+
+    /**
+     * Time a page-object action and record it under the page's class name
+     */
+    public static <T> T time(String page, String action, Supplier<T> body) {
+        if (!enabled) {
+            return body.get();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = body.get();
+            failed = false;
+            return result;
+        } finally {
+            record(PAGE_ACTION, action, page, "", System.nanoTime() - start, failed);
+        }
+    }
+
+    public static void time(String page, String action, Runnable body) {
+        time(page, action, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Also pass every observation to observer, on the thread that made it
+     */
+    public static void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public static void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    public static void reset() {
+        series.clear();
+    }
+
+    /**
+     * Snapshot every series as a list of plain maps, slowest total time first
+     */
+    public static List<Map<String, Object>> snapshot() {
+        List<Map.Entry<Series, LatencyHistogram>> entries = sortedByTotalTime();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<Series, LatencyHistogram> entry : entries) {
+            Series key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("metric", key.family);
+            row.put("operation", key.operation);
+            row.put("page", key.page);
+            if (!key.caller.isEmpty()) {
+                row.put("caller", key.caller);
+            }
+            row.put("test", key.test);
+            row.put("browser", key.browser);
+            row.put("count", histogram.getCount());
+            row.put("errors", histogram.getErrors());
+            row.put("totalMs", round(histogram.getTotalMillis()));
+            row.put("meanMs", round(histogram.getMeanMillis()));
+            row.put("p50Ms", round(histogram.getPercentileMillis(50)));
+            row.put("p90Ms", round(histogram.getPercentileMillis(90)));
+            row.put("p99Ms", round(histogram.getPercentileMillis(99)));
+            row.put("maxMs", round(histogram.getMaxMillis()));
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i <= LatencyHistogram.BOUNDS_MILLIS.length; i++) {
+                buckets.put(i < LatencyHistogram.BOUNDS_MILLIS.length
+                    ? formatBound(LatencyHistogram.BOUNDS_MILLIS[i]) : "+Inf", histogram.getBucketCount(i));
+            }
+            row.put("bucketsMs", buckets);
+            result.add(row);
+        }
+        return result;
+    }
+
+    public static String toJson() {
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(snapshot());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize metrics", e);
+        }
+    }
+
+    /**
+     * Render all series in the Prometheus text exposition format, with latencies in seconds
+     */
+    public static String toPrometheus() {
+        Map<String, List<Map.Entry<Series, LatencyHistogram>>> families = new LinkedHashMap<>();
+        for (Map.Entry<Series, LatencyHistogram> entry : sortedByTotalTime()) {
+            families.computeIfAbsent(entry.getKey().family, k -> new ArrayList<>()).add(entry);
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, List<Map.Entry<Series, LatencyHistogram>>> family : families.entrySet()) {
+            String name = PROMETHEUS_PREFIX + family.getKey() + "_seconds";
+            out.append("# HELP ").append(name).append(' ').append(DRIVER_COMMAND.equals(family.getKey())
+                ? "WebDriver command latency" : "Page-object action latency").append('\n');
+            out.append("# TYPE ").append(name).append(" histogram\n");
+            for (Map.Entry<Series, LatencyHistogram> entry : family.getValue()) {
+                String labels = entry.getKey().labels();
+                LatencyHistogram histogram = entry.getValue();
+                long cumulative = 0;
+                for (int i = 0; i < LatencyHistogram.BOUNDS_MILLIS.length; i++) {
+                    cumulative += histogram.getBucketCount(i);
+                    out.append(name).append("_bucket{").append(labels).append(",le=\"")
+                        .append(LatencyHistogram.BOUNDS_MILLIS[i] / 1000.0).append("\"} ").append(cumulative).append('\n');
+                }
+                out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(histogram.getCount()).append('\n');
+                out.append(name).append("_sum{").append(labels).append("} ")
+                    .append(histogram.getTotalMillis() / 1000.0).append('\n');
+                out.append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+            }
+
+            String errors = PROMETHEUS_PREFIX + family.getKey() + "_errors_total";
+            out.append("# TYPE ").append(errors).append(" counter\n");
+            for (Map.Entry<Series, LatencyHistogram> entry : family.getValue()) {
+                out.append(errors).append('{').append(entry.getKey().labels()).append("} ")
+                    .append(entry.getValue().getErrors()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write metrics.json and metrics.prom into the directory
+     */
+    public static void export(File directory) throws IOException {
+        directory.mkdirs();
+        try (PrintWriter writer = new PrintWriter(new File(directory, "metrics.json"), "UTF-8")) {
+            writer.print(toJson());
+        }
+        try (PrintWriter writer = new PrintWriter(new File(directory, "metrics.prom"), "UTF-8")) {
+            writer.print(toPrometheus());
+        }
+    }
+
+    /**
+     * Render the operations that consumed the most time, aggregated across tests
+     */
+    public static String summary(int limit) {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        for (Map.Entry<Series, LatencyHistogram> entry : series.entrySet()) {
+            Series key = entry.getKey();
+            String operation = key.family + " " + key.page + (key.caller.isEmpty() ? "" : "#" + key.caller)
+                + " " + key.operation;
+            double[] total = totals.computeIfAbsent(operation, k -> new double[2]);
+            total[0] += entry.getValue().getCount();
+            total[1] += entry.getValue().getTotalMillis();
+        }
+        List<Map.Entry<String, double[]>> rows = new ArrayList<>(totals.entrySet());
+        rows.sort((a, b) -> Double.compare(b.getValue()[1], a.getValue()[1]));
+
+        StringBuilder builder = new StringBuilder("Slowest operations (total time across tests):\n");
+        builder.append(String.format("  %-70s %7s %10s%n", "operation", "count", "total(s)"));
+        for (Map.Entry<String, double[]> row : rows.subList(0, Math.min(limit, rows.size()))) {
+            builder.append(String.format("  %-70s %7.0f %10.1f%n", row.getKey(), row.getValue()[0],
+                row.getValue()[1] / 1000.0));
+        }
+        return builder.toString();
+    }
+
+    private static void exportOnExit() {
+        File directory = new File(ConfigManager.getProperty("metrics.output.dir", "target/metrics"));
+        try {
+            export(directory);
+            System.out.println(summary(15));
+            System.out.println("Metrics written to " + directory.getPath());
+        } catch (IOException e) {
+            System.err.println("Failed to export metrics: " + e.getMessage());
+        }
+    }
+
+    private static List<Map.Entry<Series, LatencyHistogram>> sortedByTotalTime() {
+        List<Map.Entry<Series, LatencyHistogram>> entries = new ArrayList<>(series.entrySet());
+        entries.sort(Comparator.comparingDouble(
+            (Map.Entry<Series, LatencyHistogram> e) -> e.getValue().getTotalMillis()).reversed());
+        return entries;
+    }
+
+    private static String formatBound(double millis) {
+        return millis == Math.rint(millis) ? String.valueOf((long) millis) : String.valueOf(millis);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Receives observations as they are recorded; must return quickly
+     */
+    public interface Observer {
+        void recorded(String family, String operation, String page, long elapsedNanos, boolean failed);
+    }
+
+    private static final class Series {
+        private final String family;
+        private final String operation;
+        private final String page;
+        private final String caller;
+        private final String test;
+        private final String browser;
+
+        Series(String family, String operation, String page, String caller, String test, String browser) {
+            this.family = family;
+            this.operation = operation;
+            this.page = page;
+            this.caller = caller;
+            this.test = test;
+            this.browser = String.valueOf(browser);
+        }
+
+        String labels() {
+            StringBuilder labels = new StringBuilder();
+            labels.append("operation=\"").append(escape(operation)).append('"');
+            labels.append(",page=\"").append(escape(page)).append('"');
+            if (!caller.isEmpty()) {
+                labels.append(",caller=\"").append(escape(caller)).append('"');
+            }
+            labels.append(",test=\"").append(escape(test)).append('"');
+            labels.append(",browser=\"").append(escape(browser)).append('"');
+            return labels.toString();
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Series)) {
+                return false;
+            }
+            Series other = (Series) o;
+            return family.equals(other.family) && operation.equals(other.operation) && page.equals(other.page)
+                && caller.equals(other.caller) && test.equals(other.test) && browser.equals(other.browser);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(family, operation, page, caller, test, browser);
+        }
+    }
+}
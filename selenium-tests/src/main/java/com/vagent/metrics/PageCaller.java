@@ -0,0 +1,57 @@
+package com.vagent.metrics;
+
+import com.vagent.pages.BasePage;
+
+import java.util.Optional;
+
+/**
+ * Finds the page-object method responsible for the driver call currently on the stack
+ */
+public final class PageCaller {
+
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private PageCaller() {
+    }
+
+    /**
+     * Nearest frame in a concrete page object, falling back to a BasePage helper called directly from a test
+     */
+    public static Optional<StackWalker.StackFrame> find() {
+        return WALKER.walk(frames -> {
+            StackWalker.StackFrame basePageFrame = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (type == BasePage.class) {
+                    if (basePageFrame == null) {
+                        basePageFrame = frame;
+                    }
+                } else if (BasePage.class.isAssignableFrom(type)) {
+                    return Optional.of(frame);
+                }
+            }
+            return Optional.ofNullable(basePageFrame);
+        });
+    }
+
+    /**
+     * Describe the caller as Page#method, or as Class#method for the first framework or test frame
+     * (e.g. BaseTest#openApplication) when no page object is involved
+     */
+    public static String describe() {
+        Optional<StackWalker.StackFrame> page = find();
+        if (page.isPresent()) {
+            return page.get().getDeclaringClass().getSimpleName() + "#" + page.get().getMethodName();
+        }
+        return WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith("com.vagent.") && !isInfrastructure(frame.getClassName()))
+            .findFirst()
+            .map(frame -> frame.getDeclaringClass().getSimpleName() + "#" + frame.getMethodName())
+            .orElse("unattributed"));
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("com.vagent.metrics.") || className.startsWith("com.vagent.network.")
+            || className.startsWith("com.vagent.driver.") || className.startsWith("com.vagent.wait.");
+    }
+}
@@ -0,0 +1,317 @@
+package com.vagent.network;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vagent.config.ConfigManager;
+import com.vagent.metrics.PageCaller;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Opt-in capture of every request the frontend makes during a test (network.capture.enabled=true).
+ * Chromium's performance log streams the DevTools Network domain events without tying the suite to a
+ * versioned CDP binding. Each request is attributed to the page-object action whose driver command most
+ * recently preceded it, written per test as a compact HAR file and added to the aggregated {@link NetworkReport}.
+ */
+public class NetworkCapture {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final boolean enabled = ConfigManager.getBooleanProperty("network.capture.enabled", false);
+    private static final ThreadLocal<List<Mark>> timeline = ThreadLocal.withInitial(ArrayList::new);
+    private static final ThreadLocal<Long> sliceStart = ThreadLocal.withInitial(System::currentTimeMillis);
+    private static final ThreadLocal<List<LogEntry>> carriedOver = ThreadLocal.withInitial(ArrayList::new);
+
+    private NetworkCapture() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ask Chrome or Edge to record network events in the performance log
+     */
+    public static void configure(ChromiumOptions<?> options) {
+        LoggingPreferences logging = new LoggingPreferences();
+        logging.enable(LogType.PERFORMANCE, Level.ALL);
+        options.setCapability(options instanceof EdgeOptions ? "ms:loggingPrefs" : "goog:loggingPrefs", logging);
+        Map<String, Object> perfLogging = new LinkedHashMap<>();
+        perfLogging.put("enableNetwork", true);
+        perfLogging.put("enablePage", false);
+        options.setExperimentalOption("perfLoggingPrefs", perfLogging);
+    }
+
+    /**
+     * Driver listener that timestamps which page-object action issued each command
+     */
+    public static WebDriverListener listener() {
+        return new WebDriverListener() {
+            @Override
+            public void beforeAnyCall(Object target, Method method, Object[] args) {
+                List<Mark> marks = timeline.get();
+                String action = PageCaller.describe();
+                if (marks.isEmpty() || !marks.get(marks.size() - 1).action.equals(action)) {
+                    marks.add(new Mark(action, System.currentTimeMillis()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Start a capture on the driver, discarding events left over from its previous lease
+     */
+    public static void begin(WebDriver driver) {
+        if (!enabled) {
+            return;
+        }
+        timeline.get().clear();
+        carriedOver.get().clear();
+        readLog(driver);
+        sliceStart.set(System.currentTimeMillis());
+    }
+
+    /**
+     * Collect the requests made since begin, write them as a HAR file and add them to the report
+     */
+    public static List<NetworkEntry> finish(WebDriver driver, String testName) {
+        if (!enabled || driver == null) {
+            return Collections.emptyList();
+        }
+        long testEnd = System.currentTimeMillis();
+        List<LogEntry> log = new ArrayList<>(carriedOver.get());
+        log.addAll(readLog(driver));
+        long start = sliceStart.get();
+        List<LogEntry> drained = drain(driver, log, start, testEnd);
+
+        // Slices are split by start time: requests from an earlier test, or started while draining, belong elsewhere
+        List<NetworkEntry> entries = parse(log);
+        entries.removeIf(entry -> entry.startedAtMillis < start || entry.startedAtMillis > testEnd);
+        carriedOver.set(drained);
+        sliceStart.set(testEnd);
+        attribute(entries, timeline.get());
+        timeline.get().clear();
+
+        try {
+            writeHar(testName, entries);
+        } catch (IOException e) {
+            System.err.println("Failed to write HAR for " + testName + ": " + e.getMessage());
+        }
+        NetworkReport.add(testName, entries);
+        return entries;
+    }
+
+    /**
+     * Keep reading the log until the test's requests have finished, or network.capture.drain.ms has passed,
+     * so a request still in flight when the test ended is charged to that test. Socket.IO long polls never
+     * finish and are not waited for. Returns what was read while draining, which the next slice also sees.
+     */
+    private static List<LogEntry> drain(WebDriver driver, List<LogEntry> log, long start, long testEnd) {
+        List<LogEntry> drained = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + ConfigManager.getIntProperty("network.capture.drain.ms", 2000);
+        while (hasPending(parse(log), start, testEnd) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            List<LogEntry> more = readLog(driver);
+            log.addAll(more);
+            drained.addAll(more);
+        }
+        return drained;
+    }
+
+    private static boolean hasPending(List<NetworkEntry> entries, long start, long testEnd) {
+        for (NetworkEntry entry : entries) {
+            boolean inSlice = entry.startedAtMillis >= start && entry.startedAtMillis <= testEnd;
+            if (inSlice && entry.durationMillis < 0 && !entry.url.contains("/socket.io/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<LogEntry> readLog(WebDriver driver) {
+        try {
+            return driver.manage().logs().get(LogType.PERFORMANCE).getAll();
+        } catch (RuntimeException e) {
+            // Browser without performance logging, e.g. Firefox
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Fold Network.* events into one entry per request, in the order requests were sent
+     */
+    static List<NetworkEntry> parse(List<LogEntry> logEntries) {
+        Map<String, NetworkEntry> open = new LinkedHashMap<>();
+        List<NetworkEntry> done = new ArrayList<>();
+
+        for (LogEntry logEntry : logEntries) {
+            JsonNode message;
+            try {
+                message = MAPPER.readTree(logEntry.getMessage()).path("message");
+            } catch (IOException e) {
+                continue;
+            }
+            String method = message.path("method").asText();
+            JsonNode params = message.path("params");
+            String requestId = params.path("requestId").asText();
+
+            switch (method) {
+                case "Network.requestWillBeSent": {
+                    NetworkEntry previous = open.remove(requestId);
+                    if (previous != null && params.has("redirectResponse")) {
+                        // A redirect reuses the request id; close the hop that was redirected
+                        applyResponse(previous, params.path("redirectResponse"));
+                        previous.durationMillis = (params.path("timestamp").asDouble() - previous.startTimestamp) * 1000;
+                        done.add(previous);
+                    }
+                    NetworkEntry entry = new NetworkEntry();
+                    entry.requestId = requestId;
+                    entry.method = params.path("request").path("method").asText();
+                    entry.url = params.path("request").path("url").asText();
+                    entry.resourceType = params.path("type").asText("Other");
+                    entry.startTimestamp = params.path("timestamp").asDouble();
+                    entry.startedAtMillis = (long) (params.path("wallTime").asDouble() * 1000);
+                    open.put(requestId, entry);
+                    break;
+                }
+                case "Network.responseReceived": {
+                    NetworkEntry entry = open.get(requestId);
+                    if (entry != null) {
+                        applyResponse(entry, params.path("response"));
+                    }
+                    break;
+                }
+                case "Network.requestServedFromCache": {
+                    NetworkEntry entry = open.get(requestId);
+                    if (entry != null) {
+                        entry.fromCache = true;
+                    }
+                    break;
+                }
+                case "Network.loadingFinished":
+                case "Network.loadingFailed": {
+                    NetworkEntry entry = open.remove(requestId);
+                    if (entry != null) {
+                        entry.durationMillis = (params.path("timestamp").asDouble() - entry.startTimestamp) * 1000;
+                        if (params.has("encodedDataLength")) {
+                            entry.encodedBytes = params.path("encodedDataLength").asLong();
+                        }
+                        if ("Network.loadingFailed".equals(method)) {
+                            entry.failure = params.path("canceled").asBoolean() ? "canceled"
+                                : params.path("errorText").asText();
+                        }
+                        if (entry.receive < 0 && entry.wait >= 0) {
+                            double headersAt = entry.blocked + Math.max(entry.dns, 0) + Math.max(entry.connect, 0)
+                                + Math.max(entry.send, 0) + entry.wait;
+                            entry.receive = Math.max(0, entry.durationMillis - headersAt);
+                        }
+                        done.add(entry);
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        // Requests still in flight when the test ended (e.g. long polls) are kept without a duration
+        done.addAll(open.values());
+        done.sort((a, b) -> Double.compare(a.startTimestamp, b.startTimestamp));
+        return done;
+    }
+
+    private static void applyResponse(NetworkEntry entry, JsonNode response) {
+        entry.status = response.path("status").asInt();
+        entry.mimeType = response.path("mimeType").asText(null);
+        entry.protocol = response.path("protocol").asText(null);
+        entry.fromCache |= response.path("fromDiskCache").asBoolean() || response.path("fromPrefetchCache").asBoolean()
+            || response.path("fromServiceWorker").asBoolean();
+
+        JsonNode timing = response.path("timing");
+        if (timing.isMissingNode()) {
+            return;
+        }
+        double dnsStart = timing.path("dnsStart").asDouble(-1);
+        double dnsEnd = timing.path("dnsEnd").asDouble(-1);
+        double connectStart = timing.path("connectStart").asDouble(-1);
+        double connectEnd = timing.path("connectEnd").asDouble(-1);
+        double sslStart = timing.path("sslStart").asDouble(-1);
+        double sslEnd = timing.path("sslEnd").asDouble(-1);
+        double sendStart = timing.path("sendStart").asDouble(-1);
+        double sendEnd = timing.path("sendEnd").asDouble(-1);
+        double headersEnd = timing.path("receiveHeadersEnd").asDouble(-1);
+
+        // Offsets are relative to requestTime, which can trail the requestWillBeSent timestamp by queueing
+        double queued = (timing.path("requestTime").asDouble() - entry.startTimestamp) * 1000;
+        double firstPhase = dnsStart >= 0 ? dnsStart : connectStart >= 0 ? connectStart : Math.max(sendStart, 0);
+        entry.blocked = Math.max(0, queued) + firstPhase;
+        entry.dns = dnsStart >= 0 && dnsEnd >= 0 ? dnsEnd - dnsStart : -1;
+        entry.connect = connectStart >= 0 && connectEnd >= 0 ? connectEnd - connectStart : -1;
+        entry.ssl = sslStart >= 0 && sslEnd >= 0 ? sslEnd - sslStart : -1;
+        entry.send = sendStart >= 0 && sendEnd >= 0 ? sendEnd - sendStart : -1;
+        entry.wait = sendEnd >= 0 && headersEnd >= 0 ? headersEnd - sendEnd : -1;
+    }
+
+    /**
+     * Charge each request to the last action that issued a driver command at or before the request started
+     */
+    private static void attribute(List<NetworkEntry> entries, List<Mark> marks) {
+        for (NetworkEntry entry : entries) {
+            String action = marks.isEmpty() ? "unattributed" : "before " + marks.get(0).action;
+            for (Mark mark : marks) {
+                if (mark.atMillis > entry.startedAtMillis) {
+                    break;
+                }
+                action = mark.action;
+            }
+            entry.action = action;
+        }
+    }
+
+    private static void writeHar(String testName, List<NetworkEntry> entries) throws IOException {
+        List<Map<String, Object>> harEntries = new ArrayList<>();
+        for (NetworkEntry entry : entries) {
+            harEntries.add(entry.toHar());
+        }
+        Map<String, Object> creator = new LinkedHashMap<>();
+        creator.put("name", "vagent-selenium-tests");
+        creator.put("version", "1.0");
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("creator", creator);
+        log.put("pages", Collections.emptyList());
+        log.put("entries", harEntries);
+
+        File file = new File(NetworkReport.outputDirectory(), testName.replaceAll("[^A-Za-z0-9._-]", "_") + ".har");
+        file.getParentFile().mkdirs();
+        MAPPER.writeValue(file, Collections.singletonMap("log", log));
+    }
+
+    private static final class Mark {
+        private final String action;
+        private final long atMillis;
+
+        Mark(String action, long atMillis) {
+            this.action = action;
+            this.atMillis = atMillis;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.vagent.network;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One request observed through the browser's network events, with its timing phases and triggering action
+ */
+public class NetworkEntry {
+
+    String requestId;
+    String method;
+    String url;
+    String resourceType;
+    long startedAtMillis;
+    double startTimestamp;
+    int status;
+    String mimeType;
+    String protocol;
+    boolean fromCache;
+    long encodedBytes;
+    double durationMillis = -1;
+    String failure;
+    String action = "unattributed";
+
+    double blocked = -1;
+    double dns = -1;
+    double connect = -1;
+    double ssl = -1;
+    double send = -1;
+    double wait = -1;
+    double receive = -1;
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Page-object action that issued the driver command preceding this request, e.g. HomePage#createProject
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * Page object part of the action, used as the screen the request belongs to
+     */
+    public String getScreen() {
+        int hash = action.indexOf('#');
+        return hash > 0 ? action.substring(0, hash) : action;
+    }
+
+    public String getResourceType() {
+        return resourceType;
+    }
+
+    /**
+     * HAR 1.2 entry; headers and bodies are left out to keep files small, extras use the _ prefix
+     */
+    Map<String, Object> toHar() {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("method", method);
+        request.put("url", url);
+        request.put("httpVersion", protocol != null ? protocol : "");
+        request.put("headers", Collections.emptyList());
+        request.put("queryString", Collections.emptyList());
+        request.put("cookies", Collections.emptyList());
+        request.put("headersSize", -1);
+        request.put("bodySize", -1);
+
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("size", encodedBytes);
+        content.put("mimeType", mimeType != null ? mimeType : "");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", status);
+        response.put("statusText", "");
+        response.put("httpVersion", protocol != null ? protocol : "");
+        response.put("headers", Collections.emptyList());
+        response.put("cookies", Collections.emptyList());
+        response.put("content", content);
+        response.put("redirectURL", "");
+        response.put("headersSize", -1);
+        response.put("bodySize", encodedBytes);
+
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("blocked", round(blocked));
+        timings.put("dns", round(dns));
+        timings.put("connect", round(connect));
+        timings.put("ssl", round(ssl));
+        timings.put("send", round(Math.max(send, 0)));
+        timings.put("wait", round(Math.max(wait, 0)));
+        timings.put("receive", round(Math.max(receive, 0)));
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("startedDateTime", Instant.ofEpochMilli(startedAtMillis).toString());
+        entry.put("time", round(Math.max(durationMillis, 0)));
+        entry.put("request", request);
+        entry.put("response", response);
+        entry.put("cache", Collections.emptyMap());
+        entry.put("timings", timings);
+        entry.put("_action", action);
+        entry.put("_resourceType", resourceType);
+        entry.put("_fromCache", fromCache);
+        if (failure != null) {
+            entry.put("_error", failure);
+        }
+        return entry;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
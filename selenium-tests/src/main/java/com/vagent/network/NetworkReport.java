@@ -0,0 +1,201 @@
+package com.vagent.network;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aggregates captured requests across tests: slowest backend calls, per-endpoint latency and
+ * duplicate fetches a screen makes within one test. Written to network-report.json when the JVM exits.
+ */
+public class NetworkReport {
+
+    private static final List<TestEntry> captured = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicBoolean reportRegistered = new AtomicBoolean();
+
+    private NetworkReport() {
+    }
+
+    static File outputDirectory() {
+        return new File(ConfigManager.getProperty("network.output.dir", "target/network"));
+    }
+
+    static void add(String testName, List<NetworkEntry> entries) {
+        captured.add(new TestEntry(testName, entries));
+        if (reportRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(NetworkReport::writeOnExit, "network-report"));
+        }
+    }
+
+    /**
+     * Build the aggregated report as plain maps
+     */
+    public static Map<String, Object> build() {
+        String backendHost = URI.create(ConfigManager.getApiUrl()).getHost();
+        int slowestLimit = ConfigManager.getIntProperty("network.report.slowest", 10);
+
+        List<TestEntry> tests;
+        synchronized (captured) {
+            tests = new ArrayList<>(captured);
+        }
+
+        long requests = 0;
+        long bytes = 0;
+        long cached = 0;
+        long failed = 0;
+        List<Map<String, Object>> backendCalls = new ArrayList<>();
+        Map<String, List<Double>> byEndpoint = new TreeMap<>();
+        List<Map<String, Object>> duplicates = new ArrayList<>();
+
+        for (TestEntry test : tests) {
+            Map<String, Integer> fetchesPerScreen = new LinkedHashMap<>();
+            for (NetworkEntry entry : test.entries) {
+                requests++;
+                bytes += entry.getEncodedBytes();
+                cached += entry.isFromCache() ? 1 : 0;
+                failed += entry.getFailure() != null ? 1 : 0;
+
+                if (backendHost != null && backendHost.equals(hostOf(entry.getUrl())) && entry.getDurationMillis() >= 0) {
+                    backendCalls.add(describe(test.testName, entry));
+                    byEndpoint.computeIfAbsent(entry.getMethod() + " " + normalizePath(entry.getUrl()),
+                        k -> new ArrayList<>()).add(entry.getDurationMillis());
+                }
+                if (!entry.isFromCache() && !"Preflight".equals(entry.getResourceType())) {
+                    fetchesPerScreen.merge(entry.getScreen() + "\n" + entry.getMethod() + " " + entry.getUrl(), 1,
+                        Integer::sum);
+                }
+            }
+            for (Map.Entry<String, Integer> fetch : fetchesPerScreen.entrySet()) {
+                if (fetch.getValue() > 1) {
+                    String[] parts = fetch.getKey().split("\n", 2);
+                    Map<String, Object> duplicate = new LinkedHashMap<>();
+                    duplicate.put("test", test.testName);
+                    duplicate.put("screen", parts[0]);
+                    duplicate.put("request", parts[1]);
+                    duplicate.put("count", fetch.getValue());
+                    duplicates.add(duplicate);
+                }
+            }
+        }
+
+        backendCalls.sort((a, b) -> Double.compare((Double) b.get("durationMs"), (Double) a.get("durationMs")));
+        duplicates.sort((a, b) -> Integer.compare((Integer) b.get("count"), (Integer) a.get("count")));
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Map.Entry<String, List<Double>> endpoint : byEndpoint.entrySet()) {
+            List<Double> durations = endpoint.getValue();
+            Collections.sort(durations);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint.getKey());
+            row.put("count", durations.size());
+            row.put("p50Ms", round(percentile(durations, 50)));
+            row.put("p95Ms", round(percentile(durations, 95)));
+            row.put("maxMs", round(durations.get(durations.size() - 1)));
+            endpoints.add(row);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tests", tests.size());
+        report.put("requests", requests);
+        report.put("encodedBytes", bytes);
+        report.put("fromCache", cached);
+        report.put("failed", failed);
+        report.put("slowestBackendCalls", backendCalls.subList(0, Math.min(slowestLimit, backendCalls.size())));
+        report.put("backendEndpoints", endpoints);
+        report.put("duplicateFetches", duplicates);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeOnExit() {
+        Map<String, Object> report = build();
+        File file = new File(outputDirectory(), "network-report.json");
+        try {
+            file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        } catch (IOException e) {
+            System.err.println("Failed to write network report: " + e.getMessage());
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder(String.format(
+            "Network capture: %s requests across %s tests, %s from cache, %s failed%n",
+            report.get("requests"), report.get("tests"), report.get("fromCache"), report.get("failed")));
+        summary.append("  Slowest backend calls:\n");
+        for (Map<String, Object> call : (List<Map<String, Object>>) report.get("slowestBackendCalls")) {
+            summary.append(String.format("    %8.0fms  %s %s  (%s, %s)%n", call.get("durationMs"), call.get("method"),
+                call.get("url"), call.get("test"), call.get("action")));
+        }
+        List<Map<String, Object>> duplicates = (List<Map<String, Object>>) report.get("duplicateFetches");
+        summary.append("  Duplicate fetches per screen: ").append(duplicates.size()).append('\n');
+        for (Map<String, Object> duplicate : duplicates.subList(0, Math.min(10, duplicates.size()))) {
+            summary.append(String.format("    %dx %s on %s (%s)%n", duplicate.get("count"), duplicate.get("request"),
+                duplicate.get("screen"), duplicate.get("test")));
+        }
+        summary.append("  Report written to ").append(file.getPath());
+        System.out.println(summary);
+    }
+
+    private static Map<String, Object> describe(String testName, NetworkEntry entry) {
+        Map<String, Object> call = new LinkedHashMap<>();
+        call.put("test", testName);
+        call.put("action", entry.getAction());
+        call.put("method", entry.getMethod());
+        call.put("url", entry.getUrl());
+        call.put("status", entry.getStatus());
+        call.put("durationMs", round(entry.getDurationMillis()));
+        call.put("waitMs", round(Math.max(entry.wait, 0)));
+        call.put("bytes", entry.getEncodedBytes());
+        return call;
+    }
+
+    /**
+     * Collapse Mongo ObjectIds in paths so /projects/get-project/:id calls aggregate together
+     */
+    private static String normalizePath(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            return path.replaceAll("/[0-9a-fA-F]{24}(?=/|$)", "/:id");
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double percentile(List<Double> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    private static final class TestEntry {
+        private final String testName;
+        private final List<NetworkEntry> entries;
+
+        TestEntry(String testName, List<NetworkEntry> entries) {
+            this.testName = testName;
+            this.entries = entries;
+        }
+    }
+}
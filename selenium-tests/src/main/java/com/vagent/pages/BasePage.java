@@ -1,7 +1,13 @@
 package com.vagent.pages;
 
 import com.vagent.config.ConfigManager;
+import com.vagent.metrics.MetricsRegistry;
+import com.vagent.perf.PerfBudget;
+import com.vagent.perf.WebVitals;
+import com.vagent.wait.WaitEngine;
+import com.vagent.warmup.WarmUpService;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
@@ -9,19 +15,34 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.support.PageFactory;
 
 import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Base page class with common functionality for all page objects
  */
 public abstract class BasePage {
+    private static final Pattern HOST = Pattern.compile("://([^/:?#]+)");
+
     protected WebDriver driver;
     protected WebDriverWait wait;
     protected JavascriptExecutor jsExecutor;
+    protected WaitEngine waits;
 
     public BasePage(WebDriver driver) {
         this.driver = driver;
+        if (PageRegistry.isEnabled()) {
+            PageRegistry.DriverContext context = PageRegistry.context(driver);
+            this.wait = context.getWait();
+            this.jsExecutor = context.getJsExecutor();
+            this.waits = context.getWaits();
+            PageRegistry.initElements(driver, this);
+            return;
+        }
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(ConfigManager.getExplicitWait()));
         this.jsExecutor = (JavascriptExecutor) driver;
+        this.waits = new WaitEngine(driver);
         PageFactory.initElements(driver, this);
     }
 
@@ -29,14 +50,14 @@ public abstract class BasePage {
      * Wait for element to be visible
      */
     protected void waitForElementToBeVisible(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
+        timed("waitForElementToBeVisible", () -> wait.until(ExpectedConditions.visibilityOf(element)));
     }
 
     /**
      * Wait for element to be clickable
      */
     protected void waitForElementToBeClickable(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element));
+        timed("waitForElementToBeClickable", () -> wait.until(ExpectedConditions.elementToBeClickable(element)));
     }
 
     /**
@@ -57,34 +78,53 @@ public abstract class BasePage {
      * Wait for page to load completely
      */
     protected void waitForPageToLoad() {
-        // Extended wait for Render free tier
-        WebDriverWait longWait = new WebDriverWait(driver, Duration.ofSeconds(120));
-        longWait.until(webDriver -> jsExecutor.executeScript("return document.readyState").equals("complete"));
+        waitForPageToLoad(ConfigManager.getPageLoadTimeout());
     }
 
     /**
      * Wait for page to load with custom timeout
      */
     protected void waitForPageToLoad(int timeoutSeconds) {
-        WebDriverWait customWait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        customWait.until(webDriver -> jsExecutor.executeScript("return document.readyState").equals("complete"));
+        timed("waitForPageToLoad", () -> waits.withTimeout(Duration.ofSeconds(timeoutSeconds)).untilDocumentReady());
+    }
+
+    /**
+     * Wait for an SPA route change away from the given URL, then for the new screen's requests to settle
+     */
+    protected void waitForNavigationFrom(String fromUrl, int timeoutSeconds) {
+        timed("waitForNavigation", () -> {
+            WaitEngine navigationWait = waits.withTimeout(Duration.ofSeconds(timeoutSeconds));
+            navigationWait.untilUrlChanges(fromUrl);
+            navigationWait.untilNetworkIdle();
+        });
+    }
+
+    /**
+     * Get the wait engine for signal-driven waits
+     */
+    public WaitEngine waits() {
+        return waits;
     }
 
     /**
      * Send text to element with clear
      */
     protected void sendTextToElement(WebElement element, String text) {
-        waitForElementToBeVisible(element);
-        element.clear();
-        element.sendKeys(text);
+        timed("sendTextToElement", () -> {
+            waitForElementToBeVisible(element);
+            element.clear();
+            element.sendKeys(text);
+        });
     }
 
     /**
      * Click element with wait
      */
     protected void clickElement(WebElement element) {
-        waitForElementToBeClickable(element);
-        element.click();
+        timed("clickElement", () -> {
+            waitForElementToBeClickable(element);
+            element.click();
+        });
     }
 
     /**
@@ -102,34 +142,84 @@ public abstract class BasePage {
     }
 
     /**
-     * Navigate to URL
+     * Whether the URL is on the host of base.url (the deployed app or the local stub backend)
+     */
+    protected boolean isOnApplication(String url) {
+        Matcher expected = HOST.matcher(ConfigManager.getBaseUrl());
+        Matcher actual = HOST.matcher(url);
+        return expected.find() && actual.find() && expected.group(1).equalsIgnoreCase(actual.group(1));
+    }
+
+    /**
+     * Navigate to URL once the suite warm-up has woken the application
      */
     public void navigateToUrl(String url) {
-        driver.get(url);
-        waitForPageToLoad();
-    }
-
-    /**
-     * Navigate to URL with extended wait for Render cold start
-     */
-    public void navigateToUrlWithRetry(String url) {
-        int maxRetries = 3;
-        for (int i = 0; i < maxRetries; i++) {
-            try {
-                driver.get(url);
-                waitForPageToLoad(120); // 2 minutes for cold start
-                return;
-            } catch (Exception e) {
-                if (i == maxRetries - 1) {
-                    throw new RuntimeException("Failed to load page after " + maxRetries + " attempts", e);
-                }
-                // Wait before retry
-                try {
-                    Thread.sleep(10000); // 10 seconds
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+        // Outside the timing: waiting out a cold start is not the page's navigation time
+        WarmUpService.awaitReady();
+        timed("navigateToUrl", () -> {
+            driver.get(url);
+            waitForPageToLoad();
+            checkPageLoad();
+        });
+    }
+
+    /**
+     * Time a page-object action, recorded under this page's class name
+     */
+    protected void timed(String action, Runnable body) {
+        MetricsRegistry.time(getClass().getSimpleName(), action, body);
+    }
+
+    protected <T> T timed(String action, Supplier<T> body) {
+        return MetricsRegistry.time(getClass().getSimpleName(), action, body);
+    }
+
+    /**
+     * Read the query's selectors in one round trip; assert against the returned snapshot
+     */
+    protected DomSnapshot snapshot(DomSnapshot.Query query) {
+        return timed("snapshot", () -> DomSnapshot.take(driver, query));
+    }
+
+    /**
+     * Start a Web Vitals interaction window; pair with checkPerformance once the UI has settled
+     */
+    protected void markInteraction() {
+        if (!WebVitals.isEnabled()) {
+            return;
+        }
+        try {
+            WebVitals.mark(driver);
+        } catch (WebDriverException e) {
+            System.out.println("Skipping Web Vitals mark: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check the interaction since markInteraction against this page's performance budgets
+     */
+    protected void checkPerformance(String interaction) {
+        if (!WebVitals.isEnabled()) {
+            return;
+        }
+        try {
+            PerfBudget.checkInteraction(driver, getClass().getSimpleName(), interaction);
+        } catch (WebDriverException e) {
+            System.out.println("Skipping Web Vitals for " + interaction + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check the current document's load (TTFB, FCP, LCP, CLS, long tasks) against this page's budgets
+     */
+    protected void checkPageLoad() {
+        if (!WebVitals.isEnabled()) {
+            return;
+        }
+        try {
+            PerfBudget.checkLoad(driver, getClass().getSimpleName());
+        } catch (WebDriverException e) {
+            System.out.println("Skipping Web Vitals for page load: " + e.getMessage());
         }
     }
 
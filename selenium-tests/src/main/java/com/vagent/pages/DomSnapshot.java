@@ -0,0 +1,169 @@
+package com.vagent.pages;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structured view of a page region read in one executeScript call: for each named selector, the text,
+ * classes and visibility of every match. Bulk assertions read from the snapshot instead of issuing
+ * several WebDriver commands per element.
+ */
+public class DomSnapshot {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String SNAPSHOT_SCRIPT =
+        "var out = {};"
+        + "function visible(el) {"
+        + "  var style = window.getComputedStyle(el);"
+        + "  return el.getClientRects().length > 0 && style.visibility !== 'hidden' && style.opacity !== '0';"
+        + "}"
+        + "arguments[0].forEach(function (q) {"
+        + "  var nodes = [];"
+        + "  document.querySelectorAll(q[1]).forEach(function (el) {"
+        + "    var source = q[2] ? el.querySelector(q[2]) : el;"
+        + "    nodes.push({"
+        + "      text: source ? (source.innerText || source.textContent || '').trim() : '',"
+        + "      classes: Array.prototype.slice.call(el.classList),"
+        + "      visible: visible(el)"
+        + "    });"
+        + "  });"
+        + "  out[q[0]] = nodes;"
+        + "});"
+        + "return JSON.stringify(out);";
+
+    private final Map<String, List<Node>> regions;
+
+    private DomSnapshot(Map<String, List<Node>> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * Read every selector of the query in a single round trip
+     */
+    public static DomSnapshot take(WebDriver driver, Query query) {
+        Object json = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, query.selectors);
+        try {
+            return new DomSnapshot(MAPPER.readValue((String) json, new TypeReference<Map<String, List<Node>>>() {
+            }));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable DOM snapshot: " + json, e);
+        }
+    }
+
+    public List<Node> nodes(String name) {
+        List<Node> nodes = regions.get(name);
+        if (nodes == null) {
+            throw new IllegalArgumentException("Snapshot has no selector named " + name);
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public int count(String name) {
+        return nodes(name).size();
+    }
+
+    public List<String> texts(String name) {
+        List<String> texts = new ArrayList<>();
+        for (Node node : nodes(name)) {
+            texts.add(node.text);
+        }
+        return texts;
+    }
+
+    /**
+     * Text of the first match, or "" when nothing matched
+     */
+    public String text(String name) {
+        List<Node> nodes = nodes(name);
+        return nodes.isEmpty() ? "" : nodes.get(0).text;
+    }
+
+    /**
+     * Text of the last match, or "" when nothing matched
+     */
+    public String lastText(String name) {
+        List<Node> nodes = nodes(name);
+        return nodes.isEmpty() ? "" : nodes.get(nodes.size() - 1).text;
+    }
+
+    /**
+     * Whether the first match exists and is rendered
+     */
+    public boolean isVisible(String name) {
+        List<Node> nodes = nodes(name);
+        return !nodes.isEmpty() && nodes.get(0).visible;
+    }
+
+    /**
+     * Whether the first match exists and carries the class
+     */
+    public boolean hasClass(String name, String className) {
+        List<Node> nodes = nodes(name);
+        return !nodes.isEmpty() && nodes.get(0).hasClass(className);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return MAPPER.writeValueAsString(regions);
+        } catch (IOException e) {
+            return regions.toString();
+        }
+    }
+
+    /**
+     * Named CSS selectors making up a snapshot
+     */
+    public static class Query {
+        private final List<List<String>> selectors = new ArrayList<>();
+
+        public Query select(String name, String cssSelector) {
+            return select(name, cssSelector, null);
+        }
+
+        /**
+         * Select matches of cssSelector, taking each one's text from its first descendant matching textSelector
+         */
+        public Query select(String name, String cssSelector, String textSelector) {
+            selectors.add(Arrays.asList(name, cssSelector, textSelector));
+            return this;
+        }
+    }
+
+    /**
+     * One matched element
+     */
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+    public static class Node {
+        private String text;
+        private List<String> classes = Collections.emptyList();
+        private boolean visible;
+
+        public String getText() {
+            return text;
+        }
+
+        public List<String> getClasses() {
+            return classes;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public boolean hasClass(String className) {
+            return classes.contains(className);
+        }
+    }
+}
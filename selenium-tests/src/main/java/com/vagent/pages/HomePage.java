@@ -1,9 +1,12 @@
 package com.vagent.pages;
 
+import com.vagent.session.SessionCache;
+import com.vagent.wait.WaitEngine;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.By;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -42,8 +45,15 @@ public class HomePage extends BasePage {
     @FindBy(css = "button:contains('Create')")
     private WebElement createButton;
 
+    private final RowLocator projectRows;
+
     public HomePage(WebDriver driver) {
         super(driver);
+        projectRows = new RowLocator(driver, ".project", "h2")
+            .part("open", ".open-btn")
+            .part("edit", ".edit-btn")
+            .part("delete", ".delete-btn")
+            .part("collaborators", "span.font-bold.text-purple-500");
     }
 
     /**
@@ -54,9 +64,9 @@ public class HomePage extends BasePage {
             // Wait for page to load completely first
             waitForPageToLoad();
             
-            // Check current URL contains the expected path
+            // Check we are on the application under test, off the auth screens
             String currentUrl = getCurrentUrl();
-            if (!currentUrl.contains("vagent.onrender.com") || currentUrl.contains("/login") || currentUrl.contains("/register")) {
+            if (!isOnApplication(currentUrl) || currentUrl.contains("/login") || currentUrl.contains("/register")) {
                 return false;
             }
             
@@ -82,6 +92,7 @@ public class HomePage extends BasePage {
      * Click logout button
      */
     public LoginPage logout() {
+        SessionCache.invalidateCurrent(driver);
         clickElement(logoutButton);
         return new LoginPage(driver);
     }
@@ -128,7 +139,21 @@ public class HomePage extends BasePage {
     public HomePage createProject(String projectName) {
         clickNewProjectButton();
         enterProjectName(projectName);
+        markInteraction();
         clickCreateButton();
+        waitForProjectListUpdate();
+        checkPerformance("createProject");
+        return this;
+    }
+
+    /**
+     * Wait for a create/update/delete request to finish and the project list to re-render
+     */
+    public HomePage waitForProjectListUpdate() {
+        WaitEngine settle = waits.as("HomePage.projectListUpdate", 2000);
+        settle.untilNetworkIdle();
+        waits.as("HomePage.projectListUpdate").untilDomStable();
+        projectRows.invalidate();
         return this;
     }
 
@@ -156,19 +181,28 @@ public class HomePage extends BasePage {
      */
     public boolean isProjectExists(String projectName) {
         try {
-            WebElement project = driver.findElement(By.xpath("//h2[contains(text(), '" + projectName + "')]"));
-            return project.isDisplayed();
+            return projectRows.exists(projectName);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Names of all project cards, read in one round trip
+     */
+    public List<String> getProjectNames() {
+        List<String> names = new ArrayList<>();
+        for (RowLocator.Row row : projectRows.snapshot()) {
+            names.add(row.getKey());
+        }
+        return names;
+    }
+
     /**
      * Open project by name
      */
     public ProjectPage openProject(String projectName) {
-        WebElement project = driver.findElement(By.xpath("//h2[contains(text(), '" + projectName + "')]/following-sibling::div//button[contains(@class, 'open-btn')]"));
-        clickElement(project);
+        projectRows.withPart(projectName, "open", this::clickElement);
         return new ProjectPage(driver);
     }
 
@@ -176,8 +210,7 @@ public class HomePage extends BasePage {
      * Edit project by name
      */
     public HomePage editProject(String projectName) {
-        WebElement editBtn = driver.findElement(By.xpath("//h2[contains(text(), '" + projectName + "')]/following-sibling::div//button[contains(@class, 'edit-btn')]"));
-        clickElement(editBtn);
+        projectRows.withPart(projectName, "edit", this::clickElement);
         return this;
     }
 
@@ -185,19 +218,17 @@ public class HomePage extends BasePage {
      * Delete project by name
      */
     public HomePage deleteProject(String projectName) {
-        WebElement deleteBtn = driver.findElement(By.xpath("//h2[contains(text(), '" + projectName + "')]/following-sibling::div//button[contains(@class, 'delete-btn')]"));
-        clickElement(deleteBtn);
+        projectRows.withPart(projectName, "delete", this::clickElement);
         // Handle confirmation dialog
         driver.switchTo().alert().accept();
-        return this;
+        return waitForProjectListUpdate();
     }
 
     /**
      * Get collaborators count for a project
      */
     public int getCollaboratorsCount(String projectName) {
-        WebElement collaboratorsSpan = driver.findElement(By.xpath("//h2[contains(text(), '" + projectName + "')]/following-sibling::div//span[@class='font-bold text-purple-500']"));
-        return Integer.parseInt(collaboratorsSpan.getText());
+        return Integer.parseInt(projectRows.find(projectName).text("collaborators"));
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.vagent.pages;
 
+import com.vagent.session.SessionCache;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
@@ -73,10 +75,18 @@ public class LoginPage extends BasePage {
     public HomePage login(String email, String password) {
         enterEmail(email);
         enterPassword(password);
+        String loginUrl = getCurrentUrl();
+        markInteraction();
         clickElement(loginButton);
         
-        // Wait for navigation to complete
-        waitForPageToLoad(60);
+        // Wait for the SPA to route away from the login screen; rejected credentials keep it there
+        try {
+            waitForNavigationFrom(loginUrl, 60);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Login as " + email + " did not leave " + loginUrl, e);
+        }
+        checkPerformance("login");
+        SessionCache.capture(driver, email);
         
         return new HomePage(driver);
     }
@@ -0,0 +1,144 @@
+package com.vagent.pages;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.wait.WaitEngine;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.CacheLookup;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.DefaultElementLocatorFactory;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+import org.openqa.selenium.support.pagefactory.FieldDecorator;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Page-object wiring shared across navigations. The element fields of each page class are found once,
+ * and each driver keeps one wait, executor and WaitEngine plus one element proxy per field, created the
+ * first time a page with that field is built for the driver. Later page objects for the same driver only
+ * have those proxies assigned, instead of PageFactory parsing annotations and building proxies again.
+ * Proxies locate their element on every call, so sharing them across page instances is safe; fields
+ * marked @CacheLookup still get a proxy of their own per page. pages.registry=false restores the eager
+ * PageFactory wiring on every construction.
+ */
+public final class PageRegistry {
+
+    private static final Map<Class<?>, List<Field>> elementFields = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, DriverContext> contexts = new ConcurrentHashMap<>();
+
+    private PageRegistry() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("pages.registry", true);
+    }
+
+    /**
+     * The driver's shared wait objects, rebuilt when the explicit wait in effect has changed
+     */
+    public static DriverContext context(WebDriver driver) {
+        int waitSeconds = ConfigManager.getExplicitWait();
+        DriverContext context = contexts.get(driver);
+        if (context == null || context.waitSeconds != waitSeconds) {
+            DriverContext replacement = new DriverContext(driver, waitSeconds,
+                context != null ? context.proxies : new ConcurrentHashMap<>());
+            contexts.put(driver, replacement);
+            return replacement;
+        }
+        return context;
+    }
+
+    /**
+     * Assign the page's element fields from the driver's shared proxies
+     */
+    public static void initElements(WebDriver driver, Object page) {
+        DriverContext context = context(driver);
+        try {
+            for (Field field : elementFields(page.getClass())) {
+                Object proxy = field.isAnnotationPresent(CacheLookup.class)
+                    ? context.decorator.decorate(page.getClass().getClassLoader(), field)
+                    : context.proxies.computeIfAbsent(field,
+                        f -> context.decorator.decorate(page.getClass().getClassLoader(), f));
+                field.set(page, proxy);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to initialise elements of " + page.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Forget a driver that has been quit
+     */
+    public static void release(WebDriver driver) {
+        contexts.remove(driver);
+    }
+
+    /**
+     * The fields PageFactory would decorate: WebElements, and element lists with a locator annotation,
+     * declared on the class or its superclasses
+     */
+    static List<Field> elementFields(Class<?> pageClass) {
+        return elementFields.computeIfAbsent(pageClass, type -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class;
+                 current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                        continue;
+                    }
+                    boolean annotated = field.isAnnotationPresent(FindBy.class)
+                        || field.isAnnotationPresent(FindBys.class) || field.isAnnotationPresent(FindAll.class);
+                    if (field.getType() == WebElement.class || (field.getType() == List.class && annotated)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(fields);
+        });
+    }
+
+    /**
+     * Objects a page needs that depend only on the driver
+     */
+    public static final class DriverContext {
+        private final int waitSeconds;
+        private final WebDriverWait wait;
+        private final JavascriptExecutor jsExecutor;
+        private final WaitEngine waits;
+        private final FieldDecorator decorator;
+        private final Map<Field, Object> proxies;
+
+        private DriverContext(WebDriver driver, int waitSeconds, Map<Field, Object> proxies) {
+            this.waitSeconds = waitSeconds;
+            this.wait = new WebDriverWait(driver, Duration.ofSeconds(waitSeconds));
+            this.jsExecutor = (JavascriptExecutor) driver;
+            this.waits = new WaitEngine(driver);
+            this.decorator = new DefaultFieldDecorator(new DefaultElementLocatorFactory(driver));
+            this.proxies = proxies;
+        }
+
+        public WebDriverWait getWait() {
+            return wait;
+        }
+
+        public JavascriptExecutor getJsExecutor() {
+            return jsExecutor;
+        }
+
+        public WaitEngine getWaits() {
+            return waits;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.vagent.pages;
 
+import com.vagent.wait.WaitEngine;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.By;
-import java.util.List;
 
 /**
  * Page Object Model for Project page
@@ -45,17 +45,30 @@ public class ProjectPage extends BasePage {
     @FindBy(css = ".code-editor")
     private WebElement codeEditor;
 
-    @FindBy(css = ".message")
-    private List<WebElement> messages;
+    // Region read by snapshot(): one round trip for counts, texts and panel state
+    private static final DomSnapshot.Query REGION = new DomSnapshot.Query()
+        .select("title", "h1")
+        .select("messages", ".message", "p")
+        .select("collaborators", ".user")
+        .select("files", ".tree-element")
+        .select("sidePanel", ".sidePanel");
 
-    @FindBy(css = ".user")
-    private List<WebElement> collaborators;
+    // Whether a message with the given text is rendered, searching from the newest
+    private static final String RENDERED_SCRIPT =
+        "var texts = document.querySelectorAll('.message p');"
+        + "for (var i = texts.length - 1; i >= 0; i--) {"
+        + "  if (texts[i].textContent.trim() === arguments[0]) { return true; }"
+        + "}"
+        + "return false;";
 
-    @FindBy(css = ".tree-element")
-    private List<WebElement> files;
+    // AI replies are the only messages rendered at the wider max-w-80
+    private static final String AI_MESSAGE = ".message.max-w-80";
+
+    private final RowLocator fileRows;
 
     public ProjectPage(WebDriver driver) {
         super(driver);
+        fileRows = new RowLocator(driver, ".file-tree .tree-element", "p");
     }
 
     /**
@@ -90,50 +103,86 @@ public class ProjectPage extends BasePage {
      * Toggle collaborators side panel
      */
     public ProjectPage toggleCollaboratorsPanel() {
+        markInteraction();
         clickElement(collaboratorsToggleButton);
+        waits.as("ProjectPage.sidePanelTransition", 500).untilTransitionEnd(sidePanel);
+        checkPerformance("toggleCollaboratorsPanel");
         return this;
     }
 
     /**
-     * Send a message
+     * Send a message. The sender's own message is rendered locally (the backend only broadcasts it to the
+     * rest of the room), so that waits for the DOM to settle; an "@ai" prompt also waits for the reply to
+     * arrive over the socket, or on browsers without early page hooks to render, before it settles.
      */
     public ProjectPage sendMessage(String message) {
+        boolean aiPrompt = message.contains("@ai");
+        // Only Chromium hooks the socket before the page opens it; elsewhere wait for the reply to render
+        boolean bySocket = aiPrompt && WaitEngine.hasEarlyHooks(driver);
+        long socketMessages = bySocket ? waits.socketMessageCount() : 0;
+        int aiMessages = aiPrompt && !bySocket ? driver.findElements(By.cssSelector(AI_MESSAGE)).size() : 0;
+        sendTextToElement(messageInput, message);
+        markInteraction();
+        clickElement(sendMessageButton);
+        if (bySocket) {
+            waits.as("ProjectPage.aiReply").untilSocketMessage(socketMessages);
+        } else if (aiPrompt) {
+            waits.as("ProjectPage.aiReply").untilElementCountAbove(AI_MESSAGE, aiMessages);
+        }
+        waits.as("ProjectPage.sendMessage", 500).untilDomStable();
+        fileRows.invalidate();
+        checkPerformance("sendMessage");
+        return this;
+    }
+
+    /**
+     * Send a message and wait only for it to render in the sender's own list. Unlike sendMessage this does
+     * not wait for the whole page to settle, which never happens while other users keep posting; for
+     * concurrent chat such as CollaborationScenario. The text should be unique, e.g. carry a tag.
+     */
+    public ProjectPage postMessage(String message) {
         sendTextToElement(messageInput, message);
+        markInteraction();
         clickElement(sendMessageButton);
+        waits.as("ProjectPage.postMessage")
+            .until(d -> Boolean.TRUE.equals(jsExecutor.executeScript(RENDERED_SCRIPT, message.trim())));
         return this;
     }
 
+    /**
+     * Messages, collaborators, files, title and side panel state read in one round trip
+     */
+    public DomSnapshot snapshot() {
+        return snapshot(REGION);
+    }
+
     /**
      * Check if side panel is open
      */
     public boolean isSidePanelOpen() {
-        try {
-            return sidePanel.isDisplayed() && 
-                   !sidePanel.getAttribute("class").contains("-translate-x-full");
-        } catch (Exception e) {
-            return false;
-        }
+        DomSnapshot view = snapshot();
+        return view.isVisible("sidePanel") && !view.hasClass("sidePanel", "-translate-x-full");
     }
 
     /**
      * Get number of messages
      */
     public int getMessageCount() {
-        return messages.size();
+        return snapshot().count("messages");
     }
 
     /**
      * Get number of collaborators
      */
     public int getCollaboratorCount() {
-        return collaborators.size();
+        return snapshot().count("collaborators");
     }
 
     /**
      * Get number of files
      */
     public int getFileCount() {
-        return files.size();
+        return snapshot().count("files");
     }
 
     /**
@@ -141,8 +190,7 @@ public class ProjectPage extends BasePage {
      */
     public boolean isFileExists(String fileName) {
         try {
-            WebElement file = driver.findElement(By.xpath("//p[contains(text(), '" + fileName + "')]"));
-            return file.isDisplayed();
+            return fileRows.exists(fileName);
         } catch (Exception e) {
             return false;
         }
@@ -152,8 +200,10 @@ public class ProjectPage extends BasePage {
      * Open file by name
      */
     public ProjectPage openFile(String fileName) {
-        WebElement file = driver.findElement(By.xpath("//p[contains(text(), '" + fileName + "')]/ancestor::button"));
-        clickElement(file);
+        // The tree is keyed by index, so React relabels the same nodes when any user's AI reply replaces it:
+        // cached handles never go stale but can point at another file, so always read the rows afresh
+        fileRows.invalidate();
+        fileRows.withRow(fileName, this::clickElement);
         return this;
     }
 
@@ -225,11 +275,7 @@ public class ProjectPage extends BasePage {
      * Get last message text
      */
     public String getLastMessage() {
-        if (!messages.isEmpty()) {
-            WebElement lastMessage = messages.get(messages.size() - 1);
-            return lastMessage.findElement(By.cssSelector("p")).getText();
-        }
-        return "";
+        return snapshot().lastText("messages");
     }
 
     /**
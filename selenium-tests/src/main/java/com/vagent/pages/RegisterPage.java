@@ -1,5 +1,7 @@
 package com.vagent.pages;
 
+import com.vagent.session.SessionCache;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
@@ -73,10 +75,15 @@ public class RegisterPage extends BasePage {
     public HomePage register(String email, String password) {
         enterEmail(email);
         enterPassword(password);
+        String registerUrl = getCurrentUrl();
         clickElement(registerButton);
         
         // Wait for navigation to complete - could go to home or login page
-        waitForPageToLoad(60);
+        try {
+            waitForNavigationFrom(registerUrl, 60);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Registration of " + email + " did not leave " + registerUrl, e);
+        }
         
         // Check if we're redirected to login page (common behavior)
         String currentUrl = getCurrentUrl();
@@ -87,6 +94,7 @@ public class RegisterPage extends BasePage {
         }
         
         // Otherwise, we should be on home page
+        SessionCache.capture(driver, email);
         return new HomePage(driver);
     }
 
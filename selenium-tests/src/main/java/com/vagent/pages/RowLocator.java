@@ -0,0 +1,208 @@
+package com.vagent.pages;
+
+import com.vagent.config.ConfigManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Resolves repeated rows such as project cards or file-tree entries in one executeScript call: each row's
+ * key text, visibility and named child elements. Element handles are cached until invalidated or found
+ * stale, so several actions on the same list cost one lookup instead of a full-DOM XPath scan each.
+ */
+public class RowLocator {
+
+    private static final String SNAPSHOT_SCRIPT =
+        "var rows = document.querySelectorAll(arguments[0]), keySelector = arguments[1], parts = arguments[2], out = [];"
+        + "for (var i = 0; i < rows.length; i++) {"
+        + "  var row = rows[i], key = row.querySelector(keySelector);"
+        + "  if (!key) { continue; }"
+        + "  var elements = [], texts = [];"
+        + "  for (var j = 0; j < parts.length; j++) {"
+        + "    var part = row.querySelector(parts[j]);"
+        + "    elements.push(part);"
+        + "    texts.push(part ? part.textContent.trim() : null);"
+        + "  }"
+        + "  out.push([row, key.textContent.trim(), key.getClientRects().length > 0, elements, texts]);"
+        + "}"
+        + "return out;";
+
+    private final WebDriver driver;
+    private final String rowSelector;
+    private final String keySelector;
+    private final List<String> partNames = new ArrayList<>();
+    private final List<String> partSelectors = new ArrayList<>();
+    private List<Row> cached;
+
+    public RowLocator(WebDriver driver, String rowSelector, String keySelector) {
+        this.driver = driver;
+        this.rowSelector = rowSelector;
+        this.keySelector = keySelector;
+    }
+
+    /**
+     * Register a child element resolved with every row, e.g. part("open", ".open-btn")
+     */
+    public RowLocator part(String name, String cssSelector) {
+        partNames.add(name);
+        partSelectors.add(cssSelector);
+        return this;
+    }
+
+    /**
+     * Read every row in one round trip and replace the cached handles
+     */
+    @SuppressWarnings("unchecked")
+    public List<Row> snapshot() {
+        Object result = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, rowSelector, keySelector,
+            partSelectors);
+        List<Row> rows = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object item : (List<Object>) result) {
+                List<Object> values = (List<Object>) item;
+                rows.add(new Row((WebElement) values.get(0), (String) values.get(1),
+                    Boolean.TRUE.equals(values.get(2)), (List<Object>) values.get(3), (List<Object>) values.get(4)));
+            }
+        }
+        cached = Collections.unmodifiableList(rows);
+        return cached;
+    }
+
+    /**
+     * Drop the cached handles; call after anything that re-renders the list
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    /**
+     * Current row whose key matches, re-reading the list until it shows up or the implicit wait runs out
+     */
+    public Row find(String key) {
+        try {
+            return new WebDriverWait(driver, Duration.ofSeconds(ConfigManager.getImplicitWait()))
+                .ignoring(StaleElementReferenceException.class)
+                .until(d -> match(snapshot(), key));
+        } catch (TimeoutException e) {
+            throw new NoSuchElementException("No row matching '" + key + "' in " + rowSelector);
+        }
+    }
+
+    /**
+     * Whether a visible row matches the key, waiting up to the implicit wait for it to appear
+     */
+    public boolean exists(String key) {
+        try {
+            return find(key).isDisplayed();
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run an action on a row element, from cached handles when possible
+     */
+    public void withRow(String key, Consumer<WebElement> action) {
+        withPart(key, null, action);
+    }
+
+    /**
+     * Run an action on a row's child element, from cached handles when possible. A stale handle
+     * re-reads the list once and retries.
+     */
+    public void withPart(String key, String part, Consumer<WebElement> action) {
+        Row row = cached != null ? match(cached, key) : null;
+        if (row == null) {
+            row = find(key);
+        }
+        try {
+            action.accept(row.element(part));
+        } catch (StaleElementReferenceException e) {
+            invalidate();
+            action.accept(find(key).element(part));
+        }
+    }
+
+    /**
+     * Exact key match first, then the first key containing the text (the old XPath contains() behaviour)
+     */
+    private static Row match(List<Row> rows, String key) {
+        for (Row row : rows) {
+            if (row.key.equals(key)) {
+                return row;
+            }
+        }
+        for (Row row : rows) {
+            if (row.key.contains(key)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One row as read by a snapshot
+     */
+    public final class Row {
+        private final WebElement element;
+        private final String key;
+        private final boolean displayed;
+        private final List<Object> parts;
+        private final List<Object> texts;
+
+        Row(WebElement element, String key, boolean displayed, List<Object> parts, List<Object> texts) {
+            this.element = element;
+            this.key = key;
+            this.displayed = displayed;
+            this.parts = parts;
+            this.texts = texts;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        /**
+         * The row itself when part is null, otherwise the named child element
+         */
+        public WebElement element(String part) {
+            if (part == null) {
+                return element;
+            }
+            WebElement child = (WebElement) parts.get(indexOf(part));
+            if (child == null) {
+                throw new NoSuchElementException("Row '" + key + "' has no " + part + " element");
+            }
+            return child;
+        }
+
+        /**
+         * Trimmed text of the named child element at snapshot time, or null when it is missing
+         */
+        public String text(String part) {
+            return (String) texts.get(indexOf(part));
+        }
+
+        private int indexOf(String part) {
+            int index = partNames.indexOf(part);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown row part: " + part);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vagent.perf;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks collected Web Vitals against per-page budgets from config. A budget is looked up as
+ * perf.budget.&lt;Page&gt;.&lt;interaction&gt;.&lt;metric&gt;, then perf.budget.&lt;Page&gt;.&lt;metric&gt;, then
+ * perf.budget.default.&lt;metric&gt;. perf.budget.mode decides whether a breach warns (default), fails the test or is ignored.
+ */
+public class PerfBudget {
+
+    private static final Map<Object, String> deferred = new ConcurrentHashMap<>();
+
+    private PerfBudget() {
+    }
+
+    public static String getMode() {
+        return ConfigManager.getProperty("perf.budget.mode", "warn").trim().toLowerCase();
+    }
+
+    /**
+     * Collect metrics for the page's initial load and check them
+     */
+    public static Map<String, Double> checkLoad(WebDriver driver, String page) {
+        return check(page, "load", WebVitals.collect(driver, true));
+    }
+
+    /**
+     * Check the initial load from test setup. A breach in fail mode is held for the owner (the test instance)
+     * instead of thrown, so it fails the owner's next test method rather than skipping its class as a
+     * configuration failure; see {@link #takeDeferred}.
+     */
+    public static Map<String, Double> checkLoadDeferred(WebDriver driver, String page, Object owner) {
+        try {
+            return checkLoad(driver, page);
+        } catch (AssertionError e) {
+            deferred.merge(owner, e.getMessage(), (earlier, later) -> earlier + "; " + later);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * The breach held for the owner by checkLoadDeferred, if any, clearing it
+     */
+    public static String takeDeferred(Object owner) {
+        return owner == null ? null : deferred.remove(owner);
+    }
+
+    /**
+     * Collect metrics for the interaction since the last mark and check them
+     */
+    public static Map<String, Double> checkInteraction(WebDriver driver, String page, String interaction) {
+        return check(page, interaction, WebVitals.collect(driver, false));
+    }
+
+    static Map<String, Double> check(String page, String interaction, Map<String, Double> metrics) {
+        String mode = getMode();
+        List<String> violations = new ArrayList<>();
+        if (!"off".equals(mode)) {
+            for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+                Double budget = budgetFor(page, interaction, metric.getKey());
+                if (budget != null && metric.getValue() > budget) {
+                    violations.add(String.format("%s %.3f > %.3f", metric.getKey(), metric.getValue(), budget));
+                }
+            }
+        }
+        PerfReport.record(TestContext.currentTestName(), page, interaction, metrics, violations);
+
+        if (!violations.isEmpty()) {
+            String message = "Performance budget exceeded on " + page + "." + interaction + ": "
+                + String.join(", ", violations);
+            if ("fail".equals(mode)) {
+                throw new AssertionError(message);
+            }
+            System.out.println("WARN " + message);
+        }
+        return metrics;
+    }
+
+    private static Double budgetFor(String page, String interaction, String metric) {
+        String[] keys = {
+            "perf.budget." + page + "." + interaction + "." + metric,
+            "perf.budget." + page + "." + metric,
+            "perf.budget.default." + metric
+        };
+        for (String key : keys) {
+            String value = ConfigManager.getProperty(key, null);
+            if (value != null && !value.trim().isEmpty()) {
+                return Double.parseDouble(value.trim());
+            }
+        }
+        return null;
+    }
+}
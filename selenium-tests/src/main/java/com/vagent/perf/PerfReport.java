@@ -0,0 +1,105 @@
+package com.vagent.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aggregates Web Vitals samples per page interaction and lists budget violations; written on JVM exit
+ */
+public class PerfReport {
+
+    private static final List<Map<String, Object>> samples = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicBoolean reportRegistered = new AtomicBoolean();
+
+    private PerfReport() {
+    }
+
+    static void record(String testName, String page, String interaction, Map<String, Double> metrics,
+                       List<String> violations) {
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("test", testName);
+        sample.put("page", page);
+        sample.put("interaction", interaction);
+        sample.put("metrics", metrics);
+        sample.put("violations", violations);
+        samples.add(sample);
+        if (reportRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(PerfReport::writeOnExit, "perf-report"));
+        }
+    }
+
+    /**
+     * Per page.interaction p50/p95 of each metric, plus every sample that breached a budget
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> build() {
+        List<Map<String, Object>> copy;
+        synchronized (samples) {
+            copy = new ArrayList<>(samples);
+        }
+
+        Map<String, Map<String, List<Double>>> grouped = new TreeMap<>();
+        List<Map<String, Object>> violations = new ArrayList<>();
+        for (Map<String, Object> sample : copy) {
+            String key = sample.get("page") + "." + sample.get("interaction");
+            Map<String, List<Double>> byMetric = grouped.computeIfAbsent(key, k -> new TreeMap<>());
+            for (Map.Entry<String, Double> metric : ((Map<String, Double>) sample.get("metrics")).entrySet()) {
+                byMetric.computeIfAbsent(metric.getKey(), k -> new ArrayList<>()).add(metric.getValue());
+            }
+            if (!((List<String>) sample.get("violations")).isEmpty()) {
+                violations.add(sample);
+            }
+        }
+
+        Map<String, Object> interactions = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, List<Double>>> group : grouped.entrySet()) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Double>> metric : group.getValue().entrySet()) {
+                List<Double> values = metric.getValue();
+                Collections.sort(values);
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("samples", values.size());
+                stats.put("p50", percentile(values, 50));
+                stats.put("p95", percentile(values, 95));
+                stats.put("max", values.get(values.size() - 1));
+                metrics.put(metric.getKey(), stats);
+            }
+            interactions.put(group.getKey(), metrics);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("budgetMode", PerfBudget.getMode());
+        report.put("interactions", interactions);
+        report.put("violations", violations);
+        return report;
+    }
+
+    private static void writeOnExit() {
+        Map<String, Object> report = build();
+        File file = new File(ConfigManager.getProperty("perf.output.dir", "target/perf"), "web-vitals.json");
+        try {
+            file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+            System.out.println("Web Vitals: " + ((List<?>) report.get("violations")).size()
+                + " budget violations, report written to " + file.getPath());
+        } catch (IOException e) {
+            System.err.println("Failed to write Web Vitals report: " + e.getMessage());
+        }
+    }
+
+    private static double percentile(List<Double> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.vagent.perf;
+
+import com.vagent.config.ConfigManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects Navigation Timing, paint, LCP, CLS, interaction (INP) and long-task data from buffered
+ * PerformanceObservers, plus React commit timestamps from a stub React DevTools hook that React reports
+ * every commit to. Installed at document start where CDP is available, lazily otherwise (without React timings).
+ */
+public class WebVitals {
+
+    private static final boolean enabled = ConfigManager.getBooleanProperty("perf.enabled", true);
+
+    static final String INSTALL_SCRIPT =
+        "(function () {"
+        + "  if (window.__vagentPerf) { return; }"
+        + "  var p = window.__vagentPerf = { lcp: 0, fcp: 0, shifts: [], longTasks: [], events: [], commits: [], markAt: 0 };"
+        + "  function push(list, item) { list.push(item); if (list.length > 1000) { list.shift(); } }"
+        + "  function observe(type, onEntry, extra) {"
+        + "    try {"
+        + "      var options = { type: type, buffered: true };"
+        + "      for (var k in extra || {}) { options[k] = extra[k]; }"
+        + "      new PerformanceObserver(function (list) { list.getEntries().forEach(onEntry); }).observe(options);"
+        + "    } catch (e) { }"
+        + "  }"
+        + "  observe('largest-contentful-paint', function (e) { p.lcp = e.startTime; });"
+        + "  observe('paint', function (e) { if (e.name === 'first-contentful-paint') { p.fcp = e.startTime; } });"
+        + "  observe('layout-shift', function (e) { if (!e.hadRecentInput) { push(p.shifts, [e.startTime, e.value]); } });"
+        + "  observe('longtask', function (e) { push(p.longTasks, [e.startTime, e.duration]); });"
+        + "  observe('event', function (e) { if (e.interactionId) { push(p.events, [e.startTime, e.duration]); } },"
+        + "    { durationThreshold: 16 });"
+        + "  if (!window.__REACT_DEVTOOLS_GLOBAL_HOOK__) {"
+        + "    var ids = 0;"
+        + "    window.__REACT_DEVTOOLS_GLOBAL_HOOK__ = {"
+        + "      renderers: new Map(), supportsFiber: true,"
+        + "      inject: function (renderer) { ids++; this.renderers.set(ids, renderer); return ids; },"
+        + "      onCommitFiberRoot: function () { push(p.commits, performance.now()); },"
+        + "      onCommitFiberUnmount: function () { }, onPostCommitFiberRoot: function () { },"
+        + "      onScheduleFiberRoot: function () { }, checkDCE: function () { }"
+        + "    };"
+        + "  }"
+        + "})();";
+
+    private static final String MARK_SCRIPT =
+        INSTALL_SCRIPT + "window.__vagentPerf.markAt = performance.now();";
+
+    private static final String COLLECT_SCRIPT =
+        INSTALL_SCRIPT
+        + "var p = window.__vagentPerf, fromStart = arguments[0], since = fromStart ? 0 : p.markAt, r = {};"
+        + "if (fromStart) {"
+        + "  var nav = performance.getEntriesByType('navigation')[0];"
+        + "  if (nav) { r.ttfb = nav.responseStart; r.domContentLoaded = nav.domContentLoadedEventEnd;"
+        + "    r.loadEvent = nav.loadEventEnd; }"
+        + "  if (p.fcp) { r.fcp = p.fcp; }"
+        + "  if (p.lcp) { r.lcp = p.lcp; }"
+        + "}"
+        // CLS: largest session window of shifts less than 1s apart and at most 5s long
+        + "var cls = 0, windowValue = 0, windowStart = -1, last = -1;"
+        + "p.shifts.forEach(function (s) {"
+        + "  if (s[0] < since) { return; }"
+        + "  if (windowStart < 0 || s[0] - last > 1000 || s[0] - windowStart > 5000) { windowStart = s[0]; windowValue = 0; }"
+        + "  windowValue += s[1]; last = s[0]; cls = Math.max(cls, windowValue);"
+        + "});"
+        + "r.cls = cls;"
+        + "var inp = 0; p.events.forEach(function (e) { if (e[0] >= since) { inp = Math.max(inp, e[1]); } });"
+        + "r.inp = inp;"
+        + "var tasks = 0, blocking = 0;"
+        + "p.longTasks.forEach(function (t) { if (t[0] >= since) { tasks++; blocking += Math.max(0, t[1] - 50); } });"
+        + "r.longTasks = tasks; r.totalBlockingTime = blocking;"
+        + "var commits = p.commits.filter(function (c) { return c >= since; });"
+        + "r.reactCommits = commits.length;"
+        + "if (commits.length) { r.reactCommitMs = commits[commits.length - 1] - since; }"
+        + "return r;";
+
+    private WebVitals() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Register the observers and React hook to run before any page script in every new document
+     */
+    public static void install(WebDriver driver) {
+        if (enabled && driver instanceof HasCdp) {
+            ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                Collections.singletonMap("source", INSTALL_SCRIPT));
+        }
+    }
+
+    /**
+     * Start a new interaction window; later collections only count entries after this point
+     */
+    public static void mark(WebDriver driver) {
+        if (enabled) {
+            ((JavascriptExecutor) driver).executeScript(MARK_SCRIPT);
+        }
+    }
+
+    /**
+     * Collect metrics for the current document (fromStart) or for the interaction since the last mark
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Double> collect(WebDriver driver, boolean fromStart) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        Object result = ((JavascriptExecutor) driver).executeScript(COLLECT_SCRIPT, fromStart);
+        if (result instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) result).entrySet()) {
+                if (entry.getValue() instanceof Number) {
+                    metrics.put(entry.getKey(), ((Number) entry.getValue()).doubleValue());
+                }
+            }
+        }
+        return metrics;
+    }
+}
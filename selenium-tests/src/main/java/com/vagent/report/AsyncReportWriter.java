@@ -0,0 +1,321 @@
+package com.vagent.report;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vagent.config.ConfigManager;
+import com.vagent.utils.TestDataGenerator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes report events on one background thread, so test threads only pay for a queue insert.
+ * Events are taken in batches; each batch is appended to events.jsonl and flushed, so partial results
+ * can be followed while the suite runs, and the Spark HTML is re-rendered at most every
+ * report.html.flush.seconds. Screenshots are written by ScreenshotService and linked by path. To keep
+ * memory bounded on long suites the HTML is split into parts of report.tests.per.file tests (index.html,
+ * index-2.html, ...); a finished part is written once its last open test ends and then dropped.
+ * Steps, logs and screenshots are dropped rather than queued once report.queue.capacity events are
+ * pending; test start and end events are always kept.
+ */
+public class AsyncReportWriter implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final File dir;
+    private final int capacity;
+    private final int batchSize;
+    private final long pollMillis;
+    private final long htmlFlushMillis;
+    private final int testsPerPart;
+
+    private final BlockingQueue<ReportEvent> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+
+    // Owned by the writer thread
+    private final Map<Long, OpenTest> open = new HashMap<>();
+    private BufferedWriter events;
+    private Part part;
+    private int partCount;
+    private int testCount;
+    private long lastHtmlFlush;
+
+    public AsyncReportWriter(File dir, int capacity, int batchSize, long pollMillis, long htmlFlushMillis,
+                             int testsPerPart) {
+        this.dir = dir;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+        this.htmlFlushMillis = htmlFlushMillis;
+        this.testsPerPart = testsPerPart;
+        this.thread = new Thread(this::run, "report-writer");
+        this.thread.setDaemon(true);
+    }
+
+    public static AsyncReportWriter fromConfig() {
+        return new AsyncReportWriter(
+            new File(ConfigManager.getProperty("extent.report.path", "test-output/extent-reports/")),
+            ConfigManager.getIntProperty("report.queue.capacity", 10000),
+            ConfigManager.getIntProperty("report.batch.size", 200),
+            ConfigManager.getIntProperty("report.flush.interval.ms", 500),
+            ConfigManager.getIntProperty("report.html.flush.seconds", 10) * 1000L,
+            ConfigManager.getIntProperty("report.tests.per.file", 500));
+    }
+
+    public AsyncReportWriter start() throws IOException {
+        dir.mkdirs();
+        events = Files.newBufferedWriter(new File(dir, "events.jsonl").toPath(), StandardCharsets.UTF_8);
+        thread.start();
+        return this;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getTestCount() {
+        return testCount;
+    }
+
+    /**
+     * Queue an event without blocking; returns false when a droppable event was dropped
+     */
+    boolean submit(ReportEvent event) {
+        boolean droppable = event.kind == ReportEvent.Kind.STEP || event.kind == ReportEvent.Kind.LOG
+            || event.kind == ReportEvent.Kind.SCREENSHOT;
+        if (droppable && pending.get() >= capacity) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        pending.incrementAndGet();
+        queue.add(event);
+        return true;
+    }
+
+    /**
+     * Write everything still queued and the final HTML, waiting up to report.close.timeout.seconds
+     */
+    @Override
+    public void close() {
+        queue.add(new ReportEvent(ReportEvent.Kind.CLOSE, 0));
+        try {
+            thread.join(ConfigManager.getIntProperty("report.close.timeout.seconds", 60) * 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.err.println("Report writer still busy after the close timeout; the report may be incomplete");
+        }
+    }
+
+    private void run() {
+        List<ReportEvent> batch = new ArrayList<>(batchSize);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                ReportEvent first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+            for (ReportEvent event : batch) {
+                if (event.kind == ReportEvent.Kind.CLOSE) {
+                    closing = true;
+                    continue;
+                }
+                pending.decrementAndGet();
+                try {
+                    apply(event);
+                } catch (RuntimeException | IOException e) {
+                    System.err.println("Failed to report " + event.kind + " for test " + event.testId + ": " + e);
+                }
+            }
+            batch.clear();
+            try {
+                events.flush();
+            } catch (IOException e) {
+                System.err.println("Failed to write report events: " + e.getMessage());
+            }
+            boolean due = closing || System.currentTimeMillis() - lastHtmlFlush >= htmlFlushMillis;
+            if (part != null && part.dirty && due) {
+                part.flush();
+                lastHtmlFlush = System.currentTimeMillis();
+            }
+        }
+        // Tests that never ended may still hold earlier parts
+        for (OpenTest test : open.values()) {
+            if (test.part.dirty) {
+                test.part.flush();
+            }
+        }
+        try {
+            events.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close report events: " + e.getMessage());
+        }
+    }
+
+    private void apply(ReportEvent event) throws IOException {
+        String screenshotPath = null;
+        if (event.kind == ReportEvent.Kind.SCREENSHOT) {
+            screenshotPath = relativePath(event.file);
+            if (screenshotPath == null) {
+                return;
+            }
+        }
+        events.write(MAPPER.writeValueAsString(event.toJson(screenshotPath)));
+        events.newLine();
+
+        OpenTest test = event.kind == ReportEvent.Kind.TEST_START ? null : open.get(event.testId);
+        if (test == null && event.kind != ReportEvent.Kind.TEST_START && event.kind != ReportEvent.Kind.TEST_END) {
+            return;
+        }
+        if (test == null) {
+            test = startTest(event);
+        }
+        test.part.dirty = true;
+        switch (event.kind) {
+            case STEP:
+                test.extent.log("FAIL".equals(event.status) ? Status.WARNING : Status.INFO,
+                    String.format("%s: %,d ms", event.name, event.durationMillis));
+                break;
+            case LOG:
+                test.extent.info(event.detail);
+                break;
+            case SCREENSHOT:
+                test.extent.info(event.detail, MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build());
+                break;
+            case TEST_END:
+                endTest(test, event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Wait for a screenshot's write and return its path relative to the report, or null if it failed
+     */
+    private String relativePath(CompletableFuture<File> file) {
+        try {
+            return dir.getAbsoluteFile().toPath().relativize(file.get(30, TimeUnit.SECONDS).getAbsoluteFile()
+                .toPath()).toString().replace(File.separatorChar, '/');
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private OpenTest startTest(ReportEvent event) {
+        if (part == null || part.tests >= testsPerPart) {
+            if (part != null) {
+                part.rolled = true;
+                if (part.open == 0) {
+                    part.flush();
+                }
+            }
+            partCount++;
+            part = new Part(new File(dir, partCount == 1 ? "index.html" : "index-" + partCount + ".html"));
+        }
+        ExtentTest extent = part.extent.createTest(event.name, event.className);
+        extent.assignCategory(event.className.substring(event.className.lastIndexOf('.') + 1));
+        extent.getModel().setStartTime(new Date(event.timeMillis));
+        OpenTest test = new OpenTest(extent, part);
+        part.tests++;
+        part.open++;
+        testCount++;
+        open.put(event.testId, test);
+        return test;
+    }
+
+    private void endTest(OpenTest test, ReportEvent event) {
+        if (event.detail != null) {
+            test.extent.info(event.detail);
+        }
+        String duration = String.format("after %.1fs", event.durationMillis / 1000.0);
+        if ("FAIL".equals(event.status)) {
+            if (event.error != null) {
+                test.extent.fail(event.error);
+            }
+            test.extent.fail("Failed " + duration);
+        } else if ("SKIP".equals(event.status)) {
+            test.extent.skip(event.error != null ? "Skipped: " + event.error.getMessage() : "Skipped");
+        } else {
+            test.extent.pass("Passed " + duration);
+        }
+        test.extent.getModel().setEndTime(new Date(event.timeMillis));
+        open.remove(event.testId);
+        test.part.open--;
+        if (test.part.rolled && test.part.open == 0) {
+            test.part.flush();
+        }
+    }
+
+    private static final class OpenTest {
+        private final ExtentTest extent;
+        private final Part part;
+
+        OpenTest(ExtentTest extent, Part part) {
+            this.extent = extent;
+            this.part = part;
+        }
+    }
+
+    /**
+     * One HTML file of the report and the Extent model behind it
+     */
+    private static final class Part {
+        private final ExtentReports extent = new ExtentReports();
+        private int tests;
+        private int open;
+        private boolean rolled;
+        private boolean dirty;
+
+        Part(File file) {
+            ExtentSparkReporter spark = new ExtentSparkReporter(file);
+            spark.config().setReportName("V-Agent Selenium Tests");
+            extent.attachReporter(spark);
+            extent.setReportUsesManualConfiguration(true);
+            extent.setSystemInfo("Browser", String.valueOf(ConfigManager.getBrowser()));
+            extent.setSystemInfo("Base URL", ConfigManager.getBaseUrl());
+            extent.setSystemInfo("Test data seed", TestDataGenerator.getSeed() + " (replay with -Ddata.seed="
+                + TestDataGenerator.getSeed() + ")");
+        }
+
+        void flush() {
+            extent.flush();
+            dirty = false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.vagent.report;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One test event queued for the report writer. Screenshots refer to the file ScreenshotService is writing.
+ */
+class ReportEvent {
+
+    enum Kind { TEST_START, STEP, LOG, SCREENSHOT, TEST_END, CLOSE }
+
+    final Kind kind;
+    final long testId;
+    final long timeMillis;
+    String name;
+    String className;
+    String status;
+    String detail;
+    Throwable error;
+    long durationMillis;
+    CompletableFuture<File> file;
+
+    ReportEvent(Kind kind, long testId) {
+        this.kind = kind;
+        this.testId = testId;
+        this.timeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * The event as one line of the streamed events.jsonl, with the screenshot as a path
+     */
+    Map<String, Object> toJson(String screenshotPath) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("event", kind.name().toLowerCase());
+        json.put("test", testId);
+        json.put("time", timeMillis);
+        if (name != null) {
+            json.put("name", name);
+        }
+        if (className != null) {
+            json.put("class", className);
+        }
+        if (status != null) {
+            json.put("status", status);
+        }
+        if (kind == Kind.STEP || kind == Kind.TEST_END) {
+            json.put("ms", durationMillis);
+        }
+        if (detail != null) {
+            json.put("detail", detail);
+        }
+        if (error != null) {
+            json.put("error", String.valueOf(error));
+        }
+        if (screenshotPath != null) {
+            json.put("screenshot", screenshotPath);
+        }
+        return json;
+    }
+}
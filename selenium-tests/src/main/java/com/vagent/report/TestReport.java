@@ -0,0 +1,144 @@
+package com.vagent.report;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.metrics.MetricsRegistry;
+import com.vagent.utils.ScreenshotService;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entry point for the test report. ExtentReportListener opens it for the run and reports test starts
+ * and ends; page-object actions become timed steps of whichever test is running on the calling thread,
+ * and tests can add their own log lines and screenshots. Every call only queues an event for the
+ * AsyncReportWriter and returns; outside a test, or with report.enabled=false, calls do nothing.
+ */
+public final class TestReport {
+
+    private static final AtomicLong ids = new AtomicLong();
+    private static final ThreadLocal<Long> current = new ThreadLocal<>();
+    private static final MetricsRegistry.Observer stepObserver = TestReport::step;
+    private static volatile AsyncReportWriter writer;
+
+    private TestReport() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("report.enabled", true);
+    }
+
+    /**
+     * Start the background writer; later calls while it is open do nothing
+     */
+    public static synchronized void open() {
+        if (writer != null || !isEnabled()) {
+            return;
+        }
+        try {
+            writer = AsyncReportWriter.fromConfig().start();
+            MetricsRegistry.addObserver(stepObserver);
+        } catch (IOException e) {
+            System.err.println("Test report disabled, could not open the report directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write out everything queued and stop the writer
+     */
+    public static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        MetricsRegistry.removeObserver(stepObserver);
+        writer.close();
+        System.out.printf("Test report: %s (%d tests%s)%n", writer.getDir().getPath(), writer.getTestCount(),
+            writer.getDropped() > 0 ? ", " + writer.getDropped() + " steps or screenshots dropped under load" : "");
+        writer = null;
+    }
+
+    /**
+     * Begin a test on the calling thread and return its report id
+     */
+    public static long startTest(String name, String className) {
+        long id = ids.incrementAndGet();
+        current.set(id);
+        ReportEvent event = new ReportEvent(ReportEvent.Kind.TEST_START, id);
+        event.name = name;
+        event.className = className;
+        submit(event);
+        return id;
+    }
+
+    /**
+     * End a test with PASS, FAIL or SKIP. A test that was never started (skipped by a failed dependency)
+     * is reported as well.
+     */
+    public static void endTest(long id, String name, String className, String status, long durationMillis,
+                               Throwable error, String detail) {
+        if (id == 0) {
+            id = ids.incrementAndGet();
+        }
+        ReportEvent event = new ReportEvent(ReportEvent.Kind.TEST_END, id);
+        event.name = name;
+        event.className = className;
+        event.status = status;
+        event.durationMillis = durationMillis;
+        event.error = error;
+        event.detail = detail;
+        submit(event);
+        if (current.get() != null && current.get() == id) {
+            current.remove();
+        }
+    }
+
+    public static void log(String message) {
+        Long id = current.get();
+        if (id != null) {
+            ReportEvent event = new ReportEvent(ReportEvent.Kind.LOG, id);
+            event.detail = message;
+            submit(event);
+        }
+    }
+
+    /**
+     * Attach a PNG to the current test; ScreenshotService writes it in the background
+     */
+    public static void screenshot(String title, byte[] png) {
+        if (current.get() != null && png != null && writer != null) {
+            attach(title, ScreenshotService.get().write(title, png));
+        }
+    }
+
+    /**
+     * Attach a screenshot that is being written, linked once the write completes
+     */
+    public static void attach(String title, CompletableFuture<File> file) {
+        Long id = current.get();
+        if (id != null) {
+            ReportEvent event = new ReportEvent(ReportEvent.Kind.SCREENSHOT, id);
+            event.detail = title;
+            event.file = file;
+            submit(event);
+        }
+    }
+
+    private static void step(String family, String operation, String page, long elapsedNanos, boolean failed) {
+        Long id = current.get();
+        if (id != null && MetricsRegistry.PAGE_ACTION.equals(family)) {
+            ReportEvent event = new ReportEvent(ReportEvent.Kind.STEP, id);
+            event.name = page + "." + operation;
+            event.status = failed ? "FAIL" : "PASS";
+            event.durationMillis = elapsedNanos / 1_000_000;
+            submit(event);
+        }
+    }
+
+    private static void submit(ReportEvent event) {
+        AsyncReportWriter target = writer;
+        if (target != null) {
+            target.submit(event);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.vagent.scenario;
+
+import com.vagent.driver.DriverFactory;
+import com.vagent.fixtures.BrowserSession;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.pages.ProjectPage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user in a real browser on the project page. Messages are sent through the chat input and received by
+ * reading the .message list, so a message counts as delivered only once it is rendered; arrival times are
+ * as precise as the polling interval allows. Sending waits only for the user's own message to render, not for
+ * the page to settle, so the sender goes back to reading promptly while others keep posting. The browser is
+ * leased on the thread that opens the user.
+ */
+public class BrowserUser implements ScenarioUser {
+
+    private final UserFixture fixture;
+    private ProjectPage projectPage;
+    private int seen;
+
+    public BrowserUser(UserFixture fixture) {
+        this.fixture = fixture;
+    }
+
+    @Override
+    public UserFixture getFixture() {
+        return fixture;
+    }
+
+    @Override
+    public void open(ProjectFixture project) {
+        projectPage = BrowserSession.openProject(DriverFactory.createDriver(), fixture, project);
+        seen = projectPage.getMessageCount();
+    }
+
+    @Override
+    public void sendMessage(String text) {
+        projectPage.postMessage(text);
+    }
+
+    /**
+     * Messages rendered since the last call; the list only grows while the page stays open
+     */
+    @Override
+    public List<Received> poll() {
+        List<String> texts = projectPage.snapshot().texts("messages");
+        long now = System.nanoTime();
+        List<Received> received = new ArrayList<>();
+        for (int i = seen; i < texts.size(); i++) {
+            received.add(new Received(texts.get(i), now));
+        }
+        seen = Math.max(seen, texts.size());
+        return received;
+    }
+
+    @Override
+    public void close() {
+        DriverFactory.quitDriver();
+    }
+}
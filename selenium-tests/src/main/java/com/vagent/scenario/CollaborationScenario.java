@@ -0,0 +1,370 @@
+package com.vagent.scenario;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.load.LatencyRecorder;
+import com.vagent.stub.StubBackend;
+import com.vagent.utils.DatasetGenerator;
+import com.vagent.utils.TestDataGenerator;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives several users against one project at the same time: the first collab.browser.users in real browsers,
+ * the rest over Socket.IO. Every user sends chat messages and edits the file tree, and the owner adds and
+ * removes spare collaborators, in a seeded random mix (collab.mix) with collab.think.ms between actions.
+ * All users start together and keep reading their chat while acting.
+ *
+ * Checked afterwards (see DeliveryTracker): every message reaches every other user exactly once, messages
+ * from one sender keep their order (with collab.ordering=total, all users also agree on the order of
+ * everyone else's messages), and the file tree and collaborator list converge to the last writes. File tree
+ * and collaborator changes go through the REST API for both kinds of user, since the backend only pushes
+ * chat messages in real time.
+ *
+ * Usage: mvn compile exec:java -Dexec.mainClass=com.vagent.scenario.CollaborationScenario
+ *            [-Dcollab.users=8] [-Dcollab.browser.users=0] [-Dcollab.actions.per.user=50] [-Dapi.url=...]
+ */
+public class CollaborationScenario {
+
+    private static final String[] ACTIONS = {"message", "file", "collaborator"};
+
+    private final int userCount = ConfigManager.getIntProperty("collab.users", 4);
+    private final int browserUsers = Math.min(userCount, ConfigManager.getIntProperty("collab.browser.users", 1));
+    private final int spareCount = ConfigManager.getIntProperty("collab.spare.users", 2);
+    private final int actionsPerUser = ConfigManager.getIntProperty("collab.actions.per.user", 20);
+    private final int thinkMillis = ConfigManager.getIntProperty("collab.think.ms", 250);
+    private final int pollMillis = ConfigManager.getIntProperty("collab.poll.ms", 20);
+    private final int settleMillis = ConfigManager.getIntProperty("collab.settle.ms", 1000);
+    private final int drainSeconds = ConfigManager.getIntProperty("collab.drain.seconds", 15);
+    private final boolean totalOrder = "total".equals(ConfigManager.getProperty("collab.ordering", "fifo"));
+    private final int[] weights = weights(ConfigManager.getProperty("collab.mix", "message:8,file:1,collaborator:1"));
+    private final String serverUrl = ConfigManager.getApiUrl();
+    private final boolean polling = StubBackend.isRunning()
+        || "polling".equals(ConfigManager.getProperty("collab.transport", "websocket"));
+
+    private final FixtureClient fixtures = new FixtureClient();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<String, LatencyRecorder> actionLatency = new ConcurrentHashMap<>();
+    private final List<FileWrite> fileWrites = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong actionFailures = new AtomicLong();
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    // Whether each spare user should be a collaborator, as the owner last changed it
+    private final Map<String, Boolean> spareMembers = new ConcurrentHashMap<>();
+
+    private UserFixture owner;
+    private ProjectFixture project;
+    private List<UserFixture> spares;
+
+    public static void main(String[] args) throws Exception {
+        ScenarioResult result = new CollaborationScenario().run();
+        result.print();
+        result.write();
+        System.exit(result.getViolations().isEmpty() ? 0 : 1);
+    }
+
+    public ScenarioResult run() throws Exception {
+        System.out.printf("Collaboration scenario: %s (%s), %d users (%d in browsers), %d actions each%n", serverUrl,
+            polling ? "polling" : "websocket", userCount, browserUsers, actionsPerUser);
+        List<ScenarioUser> users = seed();
+        DeliveryTracker tracker = new DeliveryTracker(users.size());
+        CyclicBarrier ready = new CyclicBarrier(users.size(), () -> sleep(settleMillis));
+        CountDownLatch sending = new CountDownLatch(users.size());
+        ExecutorService executor = Executors.newFixedThreadPool(users.size(), runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName("collab-user-" + thread.getId());
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            int index = i;
+            workers.add(executor.submit(() -> {
+                act(index, users.get(index), tracker, ready, sending);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        List<String> found = new ArrayList<>(tracker.getViolations());
+        found.addAll(tracker.missing());
+        long disagreements = tracker.orderDisagreements();
+        if (totalOrder && disagreements > 0) {
+            found.add(disagreements + " message pair(s) seen in different orders by different users");
+        }
+        found.addAll(violations);
+        found.addAll(checkConvergence(users));
+        return new ScenarioResult(serverUrl, users.size(), browserUsers, seconds, tracker, disagreements,
+            actionLatency, actionFailures.get(), found);
+    }
+
+    /**
+     * Register the users, create the project as user 0 and add everyone else as collaborators
+     */
+    private List<ScenarioUser> seed() {
+        List<UserFixture> registered = fixtures.registerRandomUsers(userCount + spareCount);
+        owner = registered.get(0);
+        spares = new ArrayList<>(registered.subList(userCount, registered.size()));
+        project = fixtures.createProject(owner, TestDataGenerator.generateRandomProjectName());
+        if (userCount > 1) {
+            project = fixtures.addUsers(owner, project, registered.subList(1, userCount));
+        }
+        List<ScenarioUser> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            users.add(i < browserUsers ? new BrowserUser(registered.get(i))
+                : new ProtocolUser(registered.get(i), httpClient, serverUrl, polling));
+        }
+        return users;
+    }
+
+    /**
+     * One user's thread: join, wait for everyone, act, then keep reading until every message has arrived
+     */
+    private void act(int index, ScenarioUser user, DeliveryTracker tracker, CyclicBarrier ready,
+                     CountDownLatch sending) throws Exception {
+        SplittableRandom random = new SplittableRandom(TestDataGenerator.seedFor("collab:u" + index));
+        Iterator<String> texts = new DatasetGenerator("collab:u" + index).messages(12);
+        boolean sent = false;
+        try {
+            try {
+                user.open(project);
+            } catch (RuntimeException e) {
+                // Release the users already waiting to start
+                ready.reset();
+                throw e;
+            }
+            ready.await(60, TimeUnit.SECONDS);
+            for (long sequence = 0; sequence < actionsPerUser; sequence++) {
+                String action = pick(random);
+                if ("collaborator".equals(action) && index != 0) {
+                    // Only the owner may remove collaborators
+                    action = "message";
+                }
+                try {
+                    perform(action, index, sequence, user, tracker, random, texts);
+                } catch (RuntimeException e) {
+                    actionFailures.incrementAndGet();
+                    System.err.println("u" + index + " " + action + " failed: " + e.getMessage());
+                }
+                readFor(index, user, tracker, thinkMillis / 2 + random.nextInt(thinkMillis + 1));
+            }
+            sent = true;
+            sending.countDown();
+            sending.await();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+            while (!tracker.isComplete(index) && System.nanoTime() < deadline) {
+                readFor(index, user, tracker, pollMillis);
+            }
+        } finally {
+            if (!sent) {
+                sending.countDown();
+            }
+            user.close();
+        }
+    }
+
+    private void perform(String action, int index, long sequence, ScenarioUser user, DeliveryTracker tracker,
+                         SplittableRandom random, Iterator<String> texts) {
+        long started = System.nanoTime();
+        if ("message".equals(action)) {
+            tracker.sending(index, sequence);
+            try {
+                user.sendMessage(DeliveryTracker.tag(index, sequence) + " " + texts.next());
+            } catch (RuntimeException e) {
+                // The click may have reached the server before the wait gave up
+                tracker.unconfirmed(index, sequence);
+                throw e;
+            }
+        } else if ("file".equals(action)) {
+            editFileTree(index, sequence, user.getFixture(), random);
+        } else {
+            changeCollaborator(random);
+        }
+        actionLatency.computeIfAbsent(action, key -> new LatencyRecorder()).record(System.nanoTime() - started);
+    }
+
+    /**
+     * Replace the file tree with one naming its writer, so the final tree shows whose write won
+     */
+    private void editFileTree(int index, long sequence, UserFixture writer, SplittableRandom random) {
+        String name = "scenario-u" + index + "-" + sequence + ".js";
+        Map<String, Object> contents = new LinkedHashMap<>();
+        contents.put("contents", "// " + DeliveryTracker.tag(index, sequence) + "\nconsole.log(" + random.nextInt()
+            + ");\n");
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("file", contents);
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put(name, file);
+        long started = System.nanoTime();
+        fixtures.updateFileTree(writer, project, tree);
+        fileWrites.add(new FileWrite(name, started, System.nanoTime()));
+    }
+
+    /**
+     * Add or remove a spare user, then check the owner reads the change back
+     */
+    private void changeCollaborator(SplittableRandom random) {
+        UserFixture spare = spares.get(random.nextInt(spares.size()));
+        boolean member = Boolean.TRUE.equals(spareMembers.get(spare.getId()));
+        if (member) {
+            fixtures.removeUser(owner, project, spare);
+        } else {
+            fixtures.addUsers(owner, project, Collections.singletonList(spare));
+        }
+        spareMembers.put(spare.getId(), !member);
+        boolean listed = fixtures.getProject(owner, project).getUserIds().contains(spare.getId());
+        if (listed == member) {
+            violations.add("Owner does not read back " + (member ? "removing " : "adding ") + spare.getEmail());
+        }
+    }
+
+    /**
+     * After the run every user must read the same file tree, written by a write no other write started after,
+     * and the same collaborators: all scenario users plus the spares the owner left added
+     */
+    private List<String> checkConvergence(List<ScenarioUser> users) {
+        List<String> found = new ArrayList<>();
+        Map<String, Object> expectedTree = null;
+        List<String> expectedUsers = null;
+        for (ScenarioUser user : users) {
+            ProjectFixture view = fixtures.getProject(user.getFixture(), project);
+            if (expectedTree == null) {
+                expectedTree = view.getFileTree();
+                expectedUsers = view.getUserIds();
+            } else if (!expectedTree.equals(view.getFileTree())) {
+                found.add(user.getFixture().getEmail() + " reads a different file tree than the owner");
+            } else if (!expectedUsers.containsAll(view.getUserIds()) || !view.getUserIds().containsAll(expectedUsers)) {
+                found.add(user.getFixture().getEmail() + " reads different collaborators than the owner");
+            }
+        }
+        if (expectedTree != null && !fileWrites.isEmpty()) {
+            String winner = expectedTree.keySet().stream().findFirst().orElse("(empty)");
+            FileWrite won = null;
+            synchronized (fileWrites) {
+                for (FileWrite write : fileWrites) {
+                    if (write.name.equals(winner)) {
+                        won = write;
+                    }
+                }
+                for (FileWrite write : fileWrites) {
+                    if (won != null && write.started > won.finished) {
+                        found.add("File tree kept " + winner + " although " + write.name + " was written after it");
+                        break;
+                    }
+                }
+            }
+            if (won == null) {
+                found.add("File tree holds " + winner + ", which no scenario user wrote");
+            }
+        }
+        if (expectedUsers != null) {
+            for (ScenarioUser user : users) {
+                if (!expectedUsers.contains(user.getFixture().getId())) {
+                    found.add(user.getFixture().getEmail() + " is no longer a collaborator");
+                }
+            }
+            for (UserFixture spare : spares) {
+                boolean member = Boolean.TRUE.equals(spareMembers.get(spare.getId()));
+                if (member != expectedUsers.contains(spare.getId())) {
+                    found.add(spare.getEmail() + " should " + (member ? "" : "not ") + "be a collaborator");
+                }
+            }
+        }
+        return found;
+    }
+
+    private void readFor(int index, ScenarioUser user, DeliveryTracker tracker, long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        do {
+            tracker.observed(index, user.poll());
+            long left = until - System.nanoTime();
+            if (left > 0) {
+                sleep(Math.min(pollMillis, TimeUnit.NANOSECONDS.toMillis(left) + 1));
+            }
+        } while (System.nanoTime() < until);
+    }
+
+    private String pick(SplittableRandom random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return ACTIONS[i];
+            }
+        }
+        return ACTIONS[0];
+    }
+
+    /**
+     * Parse collab.mix, e.g. message:8,file:1,collaborator:1
+     */
+    private static int[] weights(String mix) {
+        int[] weights = new int[ACTIONS.length];
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int action = -1;
+            for (int i = 0; i < ACTIONS.length; i++) {
+                if (ACTIONS[i].equals(pair[0].trim())) {
+                    action = i;
+                }
+            }
+            if (action < 0 || pair.length != 2) {
+                throw new IllegalArgumentException("Invalid collab.mix entry '" + part + "' (expected "
+                    + String.join("|", ACTIONS) + ":weight)");
+            }
+            weights[action] = Integer.parseInt(pair[1].trim());
+        }
+        if (weights[0] + weights[1] + weights[2] <= 0) {
+            throw new IllegalArgumentException("collab.mix needs at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FileWrite {
+        private final String name;
+        private final long started;
+        private final long finished;
+
+        FileWrite(String name, long started, long finished) {
+            this.name = name;
+            this.started = started;
+            this.finished = finished;
+        }
+    }
+}
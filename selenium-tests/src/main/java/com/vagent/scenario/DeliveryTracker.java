@@ -0,0 +1,223 @@
+package com.vagent.scenario;
+
+import com.vagent.load.LatencyRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Follows every scenario message from its sender to each other user. Message texts start with a
+ * [u<sender>#<sequence>] tag, which is how deliveries are matched, and which lets the tracker check that each
+ * user sees every message exactly once, that messages from one sender arrive in the order they were sent,
+ * and that nothing arrives which nobody sent. Propagation latency runs from just before the sender's
+ * sendMessage to the moment the receiving user first sees the message.
+ */
+public class DeliveryTracker {
+
+    private static final Pattern TAG = Pattern.compile("^\\[u(\\d+)#(\\d+)]");
+
+    private final int users;
+    private final Map<String, Sent> sent = new ConcurrentHashMap<>();
+    private final Observer[] observers;
+    private final LatencyRecorder propagation = new LatencyRecorder();
+    private final AtomicLong expected = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong unconfirmed = new AtomicLong();
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    public DeliveryTracker(int users) {
+        this.users = users;
+        this.observers = new Observer[users];
+        for (int i = 0; i < users; i++) {
+            observers[i] = new Observer();
+        }
+    }
+
+    public static String tag(int sender, long sequence) {
+        return "[u" + sender + "#" + sequence + "]";
+    }
+
+    /**
+     * Record a message before it is sent, so a fast delivery is never taken for an unknown message
+     */
+    public void sending(int sender, long sequence) {
+        sent.put(tag(sender, sequence), new Sent(sender, System.nanoTime()));
+        expected.addAndGet(users - 1);
+    }
+
+    /**
+     * The send failed after it may already have reached the server. Nobody is required to receive the message,
+     * but it stays known, so users who do receive it are not reported as seeing a message nobody sent.
+     */
+    public void unconfirmed(int sender, long sequence) {
+        Sent message = sent.get(tag(sender, sequence));
+        if (message != null && !message.unconfirmed) {
+            message.unconfirmed = true;
+            unconfirmed.incrementAndGet();
+            expected.addAndGet(-(users - 1));
+        }
+    }
+
+    /**
+     * Messages the user saw; untagged ones (history, AI replies) are ignored, as is the user's own echo
+     */
+    public void observed(int user, List<ScenarioUser.Received> received) {
+        Observer observer = observers[user];
+        for (ScenarioUser.Received message : received) {
+            Matcher matcher = TAG.matcher(message.getText());
+            if (!matcher.find()) {
+                continue;
+            }
+            int sender = Integer.parseInt(matcher.group(1));
+            long sequence = Long.parseLong(matcher.group(2));
+            if (sender == user) {
+                continue;
+            }
+            String tag = matcher.group();
+            Sent origin = sent.get(tag);
+            if (origin == null) {
+                violations.add("u" + user + " received " + tag + ", which was never sent");
+                continue;
+            }
+            if (!observer.seen.add(tag)) {
+                violations.add("u" + user + " received " + tag + " more than once");
+                continue;
+            }
+            Long last = observer.lastSequence.get(sender);
+            if (last != null && sequence < last) {
+                violations.add("u" + user + " received " + tag + " after " + tag(sender, last)
+                    + " (messages from one sender out of order)");
+            } else {
+                observer.lastSequence.put(sender, sequence);
+            }
+            observer.order.add(tag);
+            if (!origin.unconfirmed) {
+                propagation.record(Math.max(0, message.getNanos() - origin.nanos));
+                delivered.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Whether the user has seen every message the others sent so far
+     */
+    public boolean isComplete(int user) {
+        for (Map.Entry<String, Sent> message : sent.entrySet()) {
+            if (message.getValue().sender != user && !message.getValue().unconfirmed
+                && !observers[user].seen.contains(message.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Messages each user never received, once the scenario has drained
+     */
+    public List<String> missing() {
+        List<String> missing = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            int count = 0;
+            String example = null;
+            for (Map.Entry<String, Sent> message : sent.entrySet()) {
+                if (message.getValue().sender != user && !message.getValue().unconfirmed
+                    && !observers[user].seen.contains(message.getKey())) {
+                    count++;
+                    example = example == null ? message.getKey() : example;
+                }
+            }
+            if (count > 0) {
+                missing.add("u" + user + " never received " + count + " message(s), e.g. " + example);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Pairs of messages two users saw in opposite orders, excluding messages either of them sent (a user's own
+     * message is shown as soon as it is sent). A single server broadcasts a room in one order, so any
+     * disagreement means the backend reordered or delayed fan-out for some connections.
+     */
+    public long orderDisagreements() {
+        long disagreements = 0;
+        for (int a = 0; a < users; a++) {
+            for (int b = a + 1; b < users; b++) {
+                Map<String, Integer> positions = new HashMap<>();
+                List<String> first = observers[a].order;
+                for (int i = 0; i < first.size(); i++) {
+                    positions.put(first.get(i), i);
+                }
+                // Neither order holds its user's own messages, so only messages both received are compared
+                List<Integer> common = new ArrayList<>();
+                for (String tag : observers[b].order) {
+                    Integer position = positions.get(tag);
+                    if (position != null) {
+                        common.add(position);
+                    }
+                }
+                for (int i = 0; i < common.size(); i++) {
+                    for (int j = i + 1; j < common.size(); j++) {
+                        if (common.get(i) > common.get(j)) {
+                            disagreements++;
+                        }
+                    }
+                }
+            }
+        }
+        return disagreements;
+    }
+
+    public LatencyRecorder getPropagation() {
+        return propagation;
+    }
+
+    public long getExpected() {
+        return expected.get();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * Messages whose send failed without telling whether the server got them
+     */
+    public long getUnconfirmed() {
+        return unconfirmed.get();
+    }
+
+    public List<String> getViolations() {
+        synchronized (violations) {
+            return new ArrayList<>(violations);
+        }
+    }
+
+    private static final class Sent {
+        private final int sender;
+        private final long nanos;
+        private volatile boolean unconfirmed;
+
+        Sent(int sender, long nanos) {
+            this.sender = sender;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * What one user has seen; only touched by that user's thread
+     */
+    private static final class Observer {
+        private final Set<String> seen = new HashSet<>();
+        private final Map<Integer, Long> lastSequence = new HashMap<>();
+        private final List<String> order = new ArrayList<>();
+    }
+}
@@ -0,0 +1,96 @@
+package com.vagent.scenario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.load.SocketIoClient;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A user joined over a raw Socket.IO connection, as the frontend would be. Messages are timestamped as the
+ * event arrives, so propagation latency is exact rather than limited by how often the user is polled.
+ */
+public class ProtocolUser implements ScenarioUser {
+
+    private static final String EVENT = "project-message";
+
+    private final UserFixture fixture;
+    private final HttpClient httpClient;
+    private final String serverUrl;
+    private final boolean polling;
+    private final Queue<Received> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<String, Object> sender = new HashMap<>();
+    private SocketIoClient client;
+
+    public ProtocolUser(UserFixture fixture, HttpClient httpClient, String serverUrl, boolean polling) {
+        this.fixture = fixture;
+        this.httpClient = httpClient;
+        this.serverUrl = serverUrl;
+        this.polling = polling;
+        sender.put("_id", fixture.getId());
+        sender.put("email", fixture.getEmail());
+    }
+
+    @Override
+    public UserFixture getFixture() {
+        return fixture;
+    }
+
+    @Override
+    public void open(ProjectFixture project) {
+        String id = "collab-" + fixture.getEmail();
+        try {
+            client = (polling
+                ? SocketIoClient.connectPolling(httpClient, serverUrl, fixture.getToken(), project.getId(), id,
+                    this::onEvent)
+                : SocketIoClient.connect(httpClient, serverUrl, fixture.getToken(), project.getId(), id,
+                    this::onEvent))
+                .get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to connect " + fixture.getEmail() + " to " + serverUrl, e);
+        }
+    }
+
+    @Override
+    public void sendMessage(String text) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("message", text);
+        payload.put("sender", sender);
+        try {
+            client.emit(EVENT, payload).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to send as " + fixture.getEmail(), e);
+        }
+    }
+
+    @Override
+    public List<Received> poll() {
+        List<Received> received = new ArrayList<>();
+        Received next;
+        while ((next = inbox.poll()) != null) {
+            received.add(next);
+        }
+        return received;
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void onEvent(String event, JsonNode payload) {
+        if (EVENT.equals(event) && payload != null && payload.has("message")) {
+            inbox.add(new Received(payload.get("message").asText(), System.nanoTime()));
+        }
+    }
+}
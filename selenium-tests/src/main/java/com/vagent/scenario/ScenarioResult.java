@@ -0,0 +1,139 @@
+package com.vagent.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vagent.load.LatencyRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a collaboration scenario: deliveries, propagation and action latencies, and every guarantee
+ * that was broken
+ */
+public class ScenarioResult {
+
+    private static final String RESULTS_FILE = "target/scenario/collaboration.json";
+
+    private final String serverUrl;
+    private final int users;
+    private final int browserUsers;
+    private final double seconds;
+    private final long expected;
+    private final long delivered;
+    private final long unconfirmed;
+    private final long orderDisagreements;
+    private final LatencyRecorder propagation;
+    private final Map<String, LatencyRecorder> actionLatency;
+    private final long actionFailures;
+    private final List<String> violations;
+
+    ScenarioResult(String serverUrl, int users, int browserUsers, double seconds, DeliveryTracker tracker,
+                   long orderDisagreements, Map<String, LatencyRecorder> actionLatency, long actionFailures,
+                   List<String> violations) {
+        this.serverUrl = serverUrl;
+        this.users = users;
+        this.browserUsers = browserUsers;
+        this.seconds = seconds;
+        this.expected = tracker.getExpected();
+        this.delivered = tracker.getDelivered();
+        this.unconfirmed = tracker.getUnconfirmed();
+        this.orderDisagreements = orderDisagreements;
+        this.propagation = tracker.getPropagation();
+        this.actionLatency = new TreeMap<>(actionLatency);
+        this.actionFailures = actionFailures;
+        this.violations = Collections.unmodifiableList(new ArrayList<>(violations));
+    }
+
+    public long getExpectedDeliveries() {
+        return expected;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Messages whose send failed without telling whether the server got them; not counted as expected
+     */
+    public long getUnconfirmed() {
+        return unconfirmed;
+    }
+
+    public long getOrderDisagreements() {
+        return orderDisagreements;
+    }
+
+    public long getActionFailures() {
+        return actionFailures;
+    }
+
+    /**
+     * Time from a sendMessage call to the message reaching each other user
+     */
+    public LatencyRecorder getPropagation() {
+        return propagation;
+    }
+
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    public void print() {
+        System.out.printf("Collaboration: %d users (%d in browsers) for %.1fs against %s%n", users, browserUsers,
+            seconds, serverUrl);
+        System.out.printf("Deliveries: %d of %d expected, %d order disagreements between users, %d failed actions"
+            + " (%d unconfirmed messages)%n", delivered, expected, orderDisagreements, actionFailures, unconfirmed);
+        System.out.printf("Propagation: p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+            propagation.percentileMillis(50), propagation.percentileMillis(90), propagation.percentileMillis(99),
+            propagation.percentileMillis(100));
+        for (Map.Entry<String, LatencyRecorder> action : actionLatency.entrySet()) {
+            System.out.printf("  %-13s %5d x  p50=%.1fms p99=%.1fms%n", action.getKey(), action.getValue().count(),
+                action.getValue().percentileMillis(50), action.getValue().percentileMillis(99));
+        }
+        if (violations.isEmpty()) {
+            System.out.println("All delivery, ordering and convergence checks passed");
+        }
+        for (String violation : violations) {
+            System.out.println("  VIOLATION " + violation);
+        }
+    }
+
+    public void write() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("serverUrl", serverUrl);
+        result.put("users", users);
+        result.put("browserUsers", browserUsers);
+        result.put("seconds", seconds);
+        result.put("expectedDeliveries", expected);
+        result.put("delivered", delivered);
+        result.put("unconfirmedMessages", unconfirmed);
+        result.put("orderDisagreements", orderDisagreements);
+        result.put("actionFailures", actionFailures);
+        result.put("propagationP50Ms", propagation.percentileMillis(50));
+        result.put("propagationP90Ms", propagation.percentileMillis(90));
+        result.put("propagationP99Ms", propagation.percentileMillis(99));
+        result.put("propagationMaxMs", propagation.percentileMillis(100));
+        Map<String, Object> actions = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyRecorder> action : actionLatency.entrySet()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", action.getValue().count());
+            row.put("p50Ms", action.getValue().percentileMillis(50));
+            row.put("p99Ms", action.getValue().percentileMillis(99));
+            actions.put(action.getKey(), row);
+        }
+        result.put("actions", actions);
+        result.put("violations", violations);
+
+        File file = new File(RESULTS_FILE);
+        file.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        System.out.println("Results written to " + RESULTS_FILE);
+    }
+}
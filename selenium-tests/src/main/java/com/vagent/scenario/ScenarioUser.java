@@ -0,0 +1,50 @@
+package com.vagent.scenario;
+
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+
+import java.util.List;
+
+/**
+ * One participant in a collaboration scenario, joined to the project's chat either through a real browser
+ * (BrowserUser) or at the Socket.IO protocol level (ProtocolUser). Each user is driven by a single thread.
+ */
+public interface ScenarioUser {
+
+    UserFixture getFixture();
+
+    /**
+     * Join the project's chat; returns once the user can send and receive
+     */
+    void open(ProjectFixture project);
+
+    void sendMessage(String text);
+
+    /**
+     * Messages that arrived since the last call, oldest first
+     */
+    List<Received> poll();
+
+    void close();
+
+    /**
+     * A message text and when the user first saw it (System.nanoTime)
+     */
+    final class Received {
+        private final String text;
+        private final long nanos;
+
+        public Received(String text, long nanos) {
+            this.text = text;
+            this.nanos = nanos;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.vagent.session;
+
+import com.vagent.config.ConfigManager;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suite-wide cache of authenticated sessions keyed by email. A session is captured once per user after a
+ * login, then restored into any fresh or pooled driver with one script that writes localStorage, sets the
+ * React UserContext and routes client-side. Entries are dropped on logout and when the JWT expires.
+ */
+public final class SessionCache {
+
+    private static final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private static final String FIND_PROVIDER =
+        "function provider() {"
+        + "  var container = document.getElementById('root');"
+        + "  var key = Object.keys(container).find(function (k) { return k.indexOf('__reactContainer$') === 0; });"
+        + "  var stack = key ? [container[key]] : [];"
+        + "  while (stack.length) {"
+        + "    var fiber = stack.pop();"
+        + "    if (!fiber) { continue; }"
+        + "    var value = fiber.memoizedProps && fiber.memoizedProps.value;"
+        + "    if (value && typeof value.setUser === 'function') { return value; }"
+        + "    stack.push(fiber.sibling, fiber.child);"
+        + "  }"
+        + "  return null;"
+        + "}";
+
+    private static final String CAPTURE_SCRIPT =
+        FIND_PROVIDER
+        + "var storage = {};"
+        + "for (var i = 0; i < localStorage.length; i++) {"
+        + "  var key = localStorage.key(i); storage[key] = localStorage.getItem(key);"
+        + "}"
+        + "var context = provider();"
+        + "return { storage: storage, user: context && context.user ? JSON.parse(JSON.stringify(context.user)) : null };";
+
+    private static final String APPLY_SCRIPT =
+        FIND_PROVIDER
+        + "var storage = arguments[0], user = arguments[1], path = arguments[2], state = arguments[3];"
+        + "Object.keys(storage).forEach(function (key) { localStorage.setItem(key, storage[key]); });"
+        + "var context = provider();"
+        + "if (!context) { return false; }"
+        + "context.setUser(user);"
+        + "if (path) {"
+        + "  var idx = (window.history.state && window.history.state.idx || 0) + 1;"
+        + "  window.history.pushState({ usr: state, key: Math.random().toString(36).slice(2, 10), idx: idx }, '', path);"
+        + "  window.dispatchEvent(new PopStateEvent('popstate', { state: window.history.state }));"
+        + "}"
+        + "return true;";
+
+    private SessionCache() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.getBooleanProperty("session.cache.enabled", true);
+    }
+
+    /**
+     * Cache an API-issued login, for fixtures that never went through the login form
+     */
+    public static SessionState remember(String email, Map<String, Object> user, String token) {
+        SessionState state = new SessionState(email, user, Collections.singletonMap("token", token),
+            Collections.emptyList(), ttlMillis());
+        if (isEnabled()) {
+            sessions.put(state.getEmail(), state);
+        }
+        return state;
+    }
+
+    /**
+     * Capture the browser's authenticated state for the user, or return null when it is not signed in
+     */
+    @SuppressWarnings("unchecked")
+    public static SessionState capture(WebDriver driver, String email) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Map<String, Object> captured;
+        try {
+            captured = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+        } catch (WebDriverException e) {
+            return null;
+        }
+        Map<String, String> storage = new LinkedHashMap<>();
+        ((Map<String, Object>) captured.get("storage")).forEach((key, value) -> storage.put(key, String.valueOf(value)));
+        Object user = captured.get("user");
+        if (!storage.containsKey("token") || !(user instanceof Map)) {
+            return null;
+        }
+        SessionState state = new SessionState(email, (Map<String, Object>) user, storage,
+            driver.manage().getCookies(), ttlMillis());
+        sessions.put(state.getEmail(), state);
+        return state;
+    }
+
+    /**
+     * The live session cached for the email, or null when there is none or it has expired
+     */
+    public static SessionState get(String email) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String key = email.trim().toLowerCase();
+        SessionState state = sessions.get(key);
+        if (state != null && state.isExpired()) {
+            sessions.remove(key, state);
+            return null;
+        }
+        return state;
+    }
+
+    /**
+     * Apply a session to a driver that has the application's root mounted, then route to path (null stays put)
+     */
+    public static void apply(WebDriver driver, SessionState state, String path, Map<String, Object> routeState) {
+        for (Cookie cookie : state.getCookies()) {
+            try {
+                driver.manage().addCookie(cookie);
+            } catch (WebDriverException e) {
+                // Cookies for another domain cannot be set from this origin; the JWT lives in localStorage anyway
+            }
+        }
+        Object applied = ((JavascriptExecutor) driver).executeScript(APPLY_SCRIPT, state.getLocalStorage(),
+            state.getUser(), path, routeState);
+        if (!Boolean.TRUE.equals(applied)) {
+            throw new IllegalStateException("Could not find the React UserContext provider to sign in "
+                + state.getEmail());
+        }
+    }
+
+    public static void invalidate(String email) {
+        sessions.remove(email.trim().toLowerCase());
+    }
+
+    /**
+     * Drop whichever cached session holds the browser's current token; called before logging out
+     */
+    public static void invalidateCurrent(WebDriver driver) {
+        Object token;
+        try {
+            token = ((JavascriptExecutor) driver).executeScript("return localStorage.getItem('token');");
+        } catch (WebDriverException e) {
+            return;
+        }
+        if (token != null) {
+            sessions.values().removeIf(state -> token.equals(state.getToken()));
+        }
+    }
+
+    public static void clear() {
+        sessions.clear();
+    }
+
+    private static long ttlMillis() {
+        return TimeUnit.MINUTES.toMillis(ConfigManager.getIntProperty("session.cache.ttl.minutes", 60));
+    }
+}
@@ -0,0 +1,83 @@
+package com.vagent.session;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Cookie;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authenticated browser state for one user: the application origin's cookies and localStorage (which holds
+ * the JWT) and the user object the frontend keeps in its UserContext. Expires with the JWT's exp claim,
+ * or after the cache TTL when the token carries none.
+ */
+public class SessionState {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long EXPIRY_SKEW_MILLIS = 60_000;
+
+    private final String email;
+    private final Map<String, Object> user;
+    private final Map<String, String> localStorage;
+    private final List<Cookie> cookies;
+    private final long expiresAtMillis;
+
+    public SessionState(String email, Map<String, Object> user, Map<String, String> localStorage,
+                        Collection<Cookie> cookies, long ttlMillis) {
+        this.email = email.trim().toLowerCase();
+        this.user = Collections.unmodifiableMap(new LinkedHashMap<>(user));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.cookies = Collections.unmodifiableList(new ArrayList<>(cookies));
+
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        long tokenExpiry = tokenExpiryMillis(getToken());
+        this.expiresAtMillis = tokenExpiry > 0 ? Math.min(expiresAt, tokenExpiry - EXPIRY_SKEW_MILLIS) : expiresAt;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Map<String, Object> getUser() {
+        return user;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public List<Cookie> getCookies() {
+        return cookies;
+    }
+
+    public String getToken() {
+        return localStorage.get("token");
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAtMillis;
+    }
+
+    /**
+     * The exp claim of a JWT in milliseconds, or 0 when the token is not a readable JWT
+     */
+    private static long tokenExpiryMillis(String token) {
+        String[] parts = token != null ? token.split("\\.") : new String[0];
+        if (parts.length != 3) {
+            return 0;
+        }
+        try {
+            JsonNode claims = MAPPER.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            return claims.path("exp").asLong(0) * 1000;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
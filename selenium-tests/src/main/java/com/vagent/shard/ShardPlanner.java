@@ -0,0 +1,218 @@
+package com.vagent.shard;
+
+import com.vagent.listeners.TestClasses;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Splits TestNG suites into shards of about equal expected duration. Classes that chain methods with
+ * dependsOnMethods are kept whole, since their methods share a browser and page objects; other classes
+ * are split per method. Units are assigned longest first to the least loaded shard (LPT), with ties
+ * broken by name so every shard JVM computes the same plan.
+ */
+public class ShardPlanner {
+
+    private final TestDurations durations;
+
+    public ShardPlanner(TestDurations durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Schedulable units of every test block in the suites
+     */
+    public List<Unit> units(List<XmlSuite> suites) {
+        List<Unit> units = new ArrayList<>();
+        for (XmlSuite suite : suites) {
+            for (XmlTest test : suite.getTests()) {
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    Class<?> testClass = xmlClass.getSupportClass();
+                    List<String> methods = methodsOf(xmlClass, testClass);
+                    if (TestClasses.hasDependentMethods(testClass)) {
+                        units.add(new Unit(suite.getName(), test.getName(), xmlClass, methods, estimate(testClass, methods)));
+                    } else {
+                        for (String method : methods) {
+                            List<String> single = Collections.singletonList(method);
+                            units.add(new Unit(suite.getName(), test.getName(), xmlClass, single,
+                                estimate(testClass, single)));
+                        }
+                    }
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Assign units to shardCount shards, longest processing time first
+     */
+    public List<Shard> plan(List<Unit> units, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shard.total must be at least 1, got " + shardCount);
+        }
+        List<Unit> ordered = new ArrayList<>(units);
+        ordered.sort(Comparator.comparingLong(Unit::getEstimateMillis).reversed().thenComparing(Unit::getKey));
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i));
+        }
+        for (Unit unit : ordered) {
+            Shard lightest = shards.get(0);
+            for (Shard shard : shards) {
+                if (shard.estimateMillis < lightest.estimateMillis) {
+                    lightest = shard;
+                }
+            }
+            lightest.units.add(unit);
+            lightest.estimateMillis += unit.estimateMillis;
+        }
+        return shards;
+    }
+
+    /**
+     * Narrow the suites in place to the units of one shard, dropping test blocks left empty
+     */
+    public static void retain(List<XmlSuite> suites, Shard shard) {
+        for (XmlSuite suite : suites) {
+            List<XmlTest> kept = new ArrayList<>();
+            for (XmlTest test : suite.getTests()) {
+                Map<String, XmlClass> classes = new LinkedHashMap<>();
+                for (Unit unit : shard.units) {
+                    if (!unit.suiteName.equals(suite.getName()) || !unit.testName.equals(test.getName())) {
+                        continue;
+                    }
+                    XmlClass xmlClass = classes.computeIfAbsent(unit.xmlClass.getName(), name -> {
+                        XmlClass copy = (XmlClass) unit.xmlClass.clone();
+                        copy.setIncludedMethods(new ArrayList<>());
+                        copy.setXmlTest(test);
+                        return copy;
+                    });
+                    for (String method : unit.methods) {
+                        xmlClass.getIncludedMethods().add(new XmlInclude(method));
+                    }
+                }
+                if (!classes.isEmpty()) {
+                    // Keep the suite file's class order so preserve-order still holds within a shard
+                    List<XmlClass> ordered = new ArrayList<>();
+                    for (XmlClass original : test.getXmlClasses()) {
+                        XmlClass retained = classes.get(original.getName());
+                        if (retained != null) {
+                            ordered.add(retained);
+                        }
+                    }
+                    test.setXmlClasses(ordered);
+                    kept.add(test);
+                }
+            }
+            suite.setTests(kept);
+        }
+    }
+
+    private long estimate(Class<?> testClass, List<String> methods) {
+        long total = 0;
+        for (String method : methods) {
+            total += durations.estimate(testClass.getName(), method);
+        }
+        return total;
+    }
+
+    /**
+     * The class's included methods, or all of its @Test methods not excluded, in name order
+     */
+    private static List<String> methodsOf(XmlClass xmlClass, Class<?> testClass) {
+        List<String> methods = new ArrayList<>();
+        if (!xmlClass.getIncludedMethods().isEmpty()) {
+            for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                methods.add(include.getName());
+            }
+            return methods;
+        }
+        Set<String> names = new TreeSet<>();
+        for (Method method : testClass.getMethods()) {
+            if (method.isAnnotationPresent(Test.class) && !xmlClass.getExcludedMethods().contains(method.getName())) {
+                names.add(method.getName());
+            }
+        }
+        methods.addAll(names);
+        return methods;
+    }
+
+    /**
+     * Methods of one class that must run in the same shard
+     */
+    public static class Unit {
+        private final String suiteName;
+        private final String testName;
+        private final XmlClass xmlClass;
+        private final List<String> methods;
+        private final long estimateMillis;
+
+        Unit(String suiteName, String testName, XmlClass xmlClass, List<String> methods, long estimateMillis) {
+            this.suiteName = suiteName;
+            this.testName = testName;
+            this.xmlClass = xmlClass;
+            this.methods = methods;
+            this.estimateMillis = estimateMillis;
+        }
+
+        public String getKey() {
+            return suiteName + "/" + testName + "/" + xmlClass.getName()
+                + (methods.size() == 1 ? "#" + methods.get(0) : "");
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public long getEstimateMillis() {
+            return estimateMillis;
+        }
+    }
+
+    /**
+     * Units assigned to one shard and their summed estimate
+     */
+    public static class Shard {
+        private final int index;
+        private final List<Unit> units = new ArrayList<>();
+        private long estimateMillis;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<Unit> getUnits() {
+            return units;
+        }
+
+        public long getEstimateMillis() {
+            return estimateMillis;
+        }
+
+        public int getMethodCount() {
+            int count = 0;
+            for (Unit unit : units) {
+                count += unit.methods.size();
+            }
+            return count;
+        }
+    }
+}
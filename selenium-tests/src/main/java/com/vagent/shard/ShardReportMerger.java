@@ -0,0 +1,235 @@
+package com.vagent.shard;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.history.DurationStore;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merges the JUnit XML reports of several shards into one directory, as if the suite had run in one JVM.
+ * Reports with the same file name (a class split across shards) are combined into one testsuite with
+ * summed counts. With shard.update.durations=true the merged test case times are appended to the duration
+ * history as one run, for CI where each shard ran on its own runner. Extent reports are not mergeable, so
+ * extent/index.html in the merged directory links each shard's report instead.
+ *
+ * Usage: mvn compile exec:java -Dexec.mainClass=com.vagent.shard.ShardReportMerger
+ *            -Dexec.args="reports/shard-0 reports/shard-1" [-Dshard.merged.dir=target/shards/merged]
+ *            [-Dshard.update.durations=true]
+ */
+public class ShardReportMerger {
+
+    private static final String[] COUNTS = {"tests", "failures", "errors", "skipped"};
+
+    public static void main(String[] args) throws Exception {
+        List<File> dirs = new ArrayList<>();
+        for (String arg : args) {
+            dirs.add(new File(arg));
+        }
+        if (dirs.isEmpty()) {
+            File[] shardDirs = new File("target/shards").listFiles(file -> file.getName().startsWith("shard-"));
+            dirs.addAll(shardDirs != null ? Arrays.asList(shardDirs) : new ArrayList<>());
+        }
+        File out = new File(ConfigManager.getProperty("shard.merged.dir", "target/shards/merged"));
+        Map<String, Long> totals = merge(dirs, out);
+        System.out.printf("Merged %d shard report directories into %s: %d tests, %d failures, %d errors, %d skipped%n",
+            dirs.size(), out, totals.get("tests"), totals.get("failures"), totals.get("errors"), totals.get("skipped"));
+        File index = linkExtentReports(dirs, new File(out, "extent"));
+        if (index != null) {
+            System.out.println("Shard Extent reports linked from " + index);
+        }
+    }
+
+    /**
+     * Merge every TEST-*.xml under the directories into out, returning the summed counts
+     */
+    public static Map<String, Long> merge(List<File> dirs, File out) throws Exception {
+        Map<String, List<Path>> byName = new TreeMap<>();
+        for (File dir : dirs) {
+            if (!dir.isDirectory()) {
+                System.err.println("Skipping missing shard report directory " + dir);
+                continue;
+            }
+            List<Path> reports;
+            try (Stream<Path> files = Files.walk(dir.toPath())) {
+                reports = files.filter(ShardReportMerger::isJUnitReport).collect(Collectors.toList());
+            }
+            // Surefire's TEST-TestSuite.xml repeats TestNG's per-class junitreports, so keep only the latter
+            if (reports.stream().anyMatch(ShardReportMerger::isPerClassReport)) {
+                reports.removeIf(file -> !isPerClassReport(file));
+            }
+            for (Path file : reports) {
+                byName.computeIfAbsent(file.getFileName().toString(), name -> new ArrayList<>()).add(file);
+            }
+        }
+
+        out.mkdirs();
+        Map<String, Long> totals = new HashMap<>();
+        for (String count : COUNTS) {
+            totals.put(count, 0L);
+        }
+        List<DurationStore.Sample> durations = new ArrayList<>();
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+        for (Map.Entry<String, List<Path>> entry : byName.entrySet()) {
+            Document merged = null;
+            Element mergedSuite = null;
+            for (Path file : entry.getValue()) {
+                Document document = factory.newDocumentBuilder().parse(file.toFile());
+                Element suite = document.getDocumentElement();
+                if (merged == null) {
+                    merged = document;
+                    mergedSuite = suite;
+                    continue;
+                }
+                for (String count : COUNTS) {
+                    mergedSuite.setAttribute(count, String.valueOf(longAttribute(mergedSuite, count)
+                        + longAttribute(suite, count)));
+                }
+                mergedSuite.setAttribute("time", String.valueOf(doubleAttribute(mergedSuite, "time")
+                    + doubleAttribute(suite, "time")));
+                NodeList cases = suite.getElementsByTagName("testcase");
+                for (int i = 0; i < cases.getLength(); i++) {
+                    mergedSuite.appendChild(merged.importNode(cases.item(i), true));
+                }
+            }
+            for (String count : COUNTS) {
+                totals.merge(count, longAttribute(mergedSuite, count), Long::sum);
+            }
+            collectDurations(mergedSuite, durations);
+            write(merged, new File(out, entry.getKey()));
+        }
+
+        if (ConfigManager.getBooleanProperty("shard.update.durations", false)) {
+            DurationStore.open().append(DurationStore.currentRunLabel(), durations);
+        }
+        return totals;
+    }
+
+    /**
+     * Write an index page linking every Extent report part found under the directories, returning it, or
+     * null if no shard wrote a report. A report is recognised by the events.jsonl written beside its HTML.
+     */
+    public static File linkExtentReports(List<File> dirs, File out) throws IOException {
+        StringBuilder links = new StringBuilder();
+        for (File dir : dirs) {
+            if (!dir.isDirectory()) {
+                continue;
+            }
+            List<Path> reportDirs;
+            try (Stream<Path> files = Files.walk(dir.toPath())) {
+                reportDirs = files.filter(file -> file.getFileName().toString().equals("events.jsonl"))
+                    .map(Path::getParent).sorted().collect(Collectors.toList());
+            }
+            for (Path reportDir : reportDirs) {
+                List<Path> parts;
+                try (Stream<Path> files = Files.list(reportDir)) {
+                    parts = files.filter(ShardReportMerger::isExtentPart).sorted(ShardReportMerger::comparePart)
+                        .collect(Collectors.toList());
+                }
+                links.append("<li>").append(escape(dir.getName()));
+                for (Path part : parts) {
+                    String href = out.getAbsoluteFile().toPath().relativize(part.toAbsolutePath()).toString()
+                        .replace(File.separatorChar, '/');
+                    links.append(" <a href=\"").append(escape(href)).append("\">")
+                        .append(escape(part.getFileName().toString())).append("</a>");
+                }
+                links.append("</li>\n");
+            }
+        }
+        if (links.length() == 0) {
+            return null;
+        }
+        out.mkdirs();
+        File index = new File(out, "index.html");
+        Files.write(index.toPath(), ("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\">"
+            + "<title>Shard reports</title></head><body>\n<h1>Shard reports</h1>\n<ul>\n" + links
+            + "</ul>\n</body></html>\n").getBytes(StandardCharsets.UTF_8));
+        return index;
+    }
+
+    private static boolean isExtentPart(Path file) {
+        return file.getFileName().toString().matches("index(-\\d+)?\\.html");
+    }
+
+    /**
+     * index.html, then index-2.html, index-3.html, ... in numeric order
+     */
+    private static int comparePart(Path a, Path b) {
+        return Integer.compare(partNumber(a), partNumber(b));
+    }
+
+    private static int partNumber(Path part) {
+        String name = part.getFileName().toString();
+        return name.equals("index.html") ? 1 : Integer.parseInt(name.substring(6, name.length() - 5));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static boolean isJUnitReport(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("TEST-") && name.endsWith(".xml");
+    }
+
+    private static boolean isPerClassReport(Path file) {
+        return file.getParent() != null && "junitreports".equals(file.getParent().getFileName().toString());
+    }
+
+    private static void collectDurations(Element suite, List<DurationStore.Sample> durations) {
+        NodeList cases = suite.getElementsByTagName("testcase");
+        for (int i = 0; i < cases.getLength(); i++) {
+            Element testCase = (Element) cases.item(i);
+            if (testCase.getElementsByTagName("skipped").getLength() > 0) {
+                continue;
+            }
+            boolean failed = testCase.getElementsByTagName("failure").getLength() > 0
+                || testCase.getElementsByTagName("error").getLength() > 0;
+            durations.add(new DurationStore.Sample(DurationStore.TEST + TestDurations.key(
+                testCase.getAttribute("classname"), testCase.getAttribute("name")),
+                Math.round(doubleAttribute(testCase, "time") * 1000), failed));
+        }
+    }
+
+    private static long longAttribute(Node element, String name) {
+        String value = ((Element) element).getAttribute(name);
+        return value.isEmpty() ? 0 : Long.parseLong(value.trim());
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name).replace(",", "");
+        return value.isEmpty() ? 0 : Double.parseDouble(value.trim());
+    }
+
+    private static void write(Document document, File file) throws IOException {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(document), new StreamResult(file));
+        } catch (Exception e) {
+            throw new IOException("Failed to write merged report " + file, e);
+        }
+    }
+}
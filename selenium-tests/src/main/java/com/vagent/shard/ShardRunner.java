@@ -0,0 +1,130 @@
+package com.vagent.shard;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.history.DurationStore;
+import org.testng.xml.SuiteXmlParser;
+import org.testng.xml.XmlSuite;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a suite as shard.total parallel JVMs on this machine, each running the shard ShardListener selects
+ * for its shard.index, then merges their JUnit reports into target/shards/merged. All shards append to
+ * the duration history under one run label. Each shard's console output goes to
+ * target/shards/shard-N/console.log, and its Extent report and screenshots to extent/ and screenshots/
+ * beside it; the per-shard planned and actual times are printed at the end so the balance can be checked.
+ *
+ * Usage: mvn -Psharded verify [-Dshard.total=4] [-Dshard.suite=src/test/resources/testng.xml]
+ */
+public class ShardRunner {
+
+    private static final String OUTPUT_DIR = "target/shards";
+
+    public static void main(String[] args) throws Exception {
+        int total = ConfigManager.getIntProperty("shard.total", 2);
+        String suiteFile = ConfigManager.getProperty("shard.suite", "src/test/resources/testng.xml");
+
+        ShardPlanner planner = new ShardPlanner(TestDurations.load());
+        List<XmlSuite> suites = new ArrayList<>();
+        suites.add(parseSuite(suiteFile));
+        List<ShardPlanner.Shard> plan = planner.plan(planner.units(suites), total);
+
+        String classpath = testClasspath();
+        String runLabel = DurationStore.currentRunLabel();
+        List<CompletableFuture<Long>> finished = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int index = 0; index < total; index++) {
+            File dir = new File(OUTPUT_DIR, "shard-" + index);
+            dir.mkdirs();
+            processes.add(new ProcessBuilder(command(classpath, suiteFile, index, total, runLabel, dir))
+                .redirectErrorStream(true)
+                .redirectOutput(new File(dir, "console.log"))
+                .start());
+            finished.add(processes.get(index).onExit().thenApply(process -> System.nanoTime()));
+            System.out.printf("Started shard %d/%d: %d methods, estimated %.0fs (log: %s)%n", index + 1, total,
+                plan.get(index).getMethodCount(), plan.get(index).getEstimateMillis() / 1000.0,
+                new File(dir, "console.log").getPath());
+        }
+
+        boolean failed = false;
+        List<File> reportDirs = new ArrayList<>();
+        System.out.println();
+        System.out.println("shard  estimated(s)  actual(s)  exit");
+        for (int index = 0; index < total; index++) {
+            int exitCode = processes.get(index).waitFor();
+            failed |= exitCode != 0;
+            reportDirs.add(new File(OUTPUT_DIR, "shard-" + index));
+            System.out.printf("%5d  %12.0f  %9.0f  %4d%n", index + 1, plan.get(index).getEstimateMillis() / 1000.0,
+                (finished.get(index).join() - start) / 1_000_000_000.0, exitCode);
+        }
+
+        ShardReportMerger.main(reportDirs.stream().map(File::getPath).toArray(String[]::new));
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A TestNG JVM for one shard, forwarding -D overrides of configured keys such as browser or stub.enabled
+     */
+    private static List<String> command(String classpath, String suiteFile, int index, int total, String runLabel,
+                                        File dir) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(classpath);
+        for (Map.Entry<String, String> property : ConfigManager.getCommandLineOverrides().entrySet()) {
+            String key = property.getKey();
+            if (!key.equals("shard.index") && !key.equals("shard.total") && !key.equals("history.run.label")
+                && !key.equals("extent.report.path") && !key.equals("screenshot.dir")) {
+                command.add("-D" + key + "=" + property.getValue());
+            }
+        }
+        command.add("-Dshard.index=" + index);
+        command.add("-Dshard.total=" + total);
+        command.add("-Dhistory.run.label=" + runLabel);
+        // Shards share a working directory, so each writes its Extent report and screenshots under its own
+        command.add("-Dextent.report.path=" + new File(dir, "extent").getPath() + File.separator);
+        command.add("-Dscreenshot.dir=" + new File(dir, "screenshots").getPath() + File.separator);
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(dir.getPath());
+        command.add(suiteFile);
+        return command;
+    }
+
+    /**
+     * Parse a suite file; the suites sharded here list their classes directly rather than through suite-files
+     */
+    private static XmlSuite parseSuite(String suiteFile) throws IOException {
+        try (InputStream in = new FileInputStream(suiteFile)) {
+            return new SuiteXmlParser().parse(suiteFile, in, true);
+        }
+    }
+
+    /**
+     * Resolve the test classpath, which exec:java exposes through the context class loader
+     */
+    private static String testClasspath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            StringJoiner joiner = new StringJoiner(File.pathSeparator);
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                joiner.add(new File(url.getPath()).getAbsolutePath());
+            }
+            return joiner.toString();
+        }
+        return System.getProperty("java.class.path");
+    }
+}
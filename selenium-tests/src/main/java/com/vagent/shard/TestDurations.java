@@ -0,0 +1,73 @@
+package com.vagent.shard;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.history.DurationStore;
+import com.vagent.history.RegressionDetector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-method durations from earlier runs, keyed "class#method", used to balance shards. Each estimate is
+ * the median of the method's passing runs among the last history.baseline.runs runs in the duration
+ * history, so one slow outlier does not move a method to another shard.
+ */
+public class TestDurations {
+
+    private final Map<String, Long> millis;
+    private final long defaultMillis;
+
+    private TestDurations(Map<String, Long> millis) {
+        this.millis = millis;
+        this.defaultMillis = millis.isEmpty()
+            ? ConfigManager.getIntProperty("shard.default.duration.seconds", 30) * 1000L
+            : median(new ArrayList<>(millis.values()));
+    }
+
+    public static TestDurations load() {
+        return load(DurationStore.open());
+    }
+
+    public static TestDurations load(DurationStore store) {
+        Map<String, Long> millis = new TreeMap<>();
+        try {
+            Map<String, List<Long>> recent = RegressionDetector.series(RegressionDetector.lastRuns(store.runs(),
+                ConfigManager.getIntProperty("history.baseline.runs", 10)).values(), DurationStore.TEST);
+            for (Map.Entry<String, List<Long>> entry : recent.entrySet()) {
+                millis.put(entry.getKey().substring(DurationStore.TEST.length()), median(entry.getValue()));
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable duration history " + store.getDir() + ": " + e.getMessage());
+        }
+        return new TestDurations(millis);
+    }
+
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    /**
+     * Expected duration of a method, or the median of known methods when it has never run
+     */
+    public long estimate(String className, String methodName) {
+        return millis.getOrDefault(key(className, methodName), defaultMillis);
+    }
+
+    public boolean isEmpty() {
+        return millis.isEmpty();
+    }
+
+    public Map<String, Long> asMap() {
+        return Collections.unmodifiableMap(millis);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,276 @@
+package com.vagent.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vagent.config.ConfigManager;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic stand-in for Gemini behind the stub backend. Answers follow the ai.service.js examples:
+ * prompts naming python, java or express get a fileTree with buildCommand and startCommand, anything else
+ * gets a chat-only text. Latency and payload size come from config and can be overridden per prompt with
+ * tokens such as "files=500 bytes=2048 latency=lognormal:2000,0.5", so benchmarks can ask for large trees.
+ * The same prompt and seed always produce the same payload and the same delay.
+ */
+public class AiSimulator implements Function<String, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern OPTION = Pattern.compile("\\b(files|bytes|latency)=(\\S+)");
+    private static final long MAX_DELAY_MILLIS = 120_000;
+
+    private static final Map<String, String> PROFILES = new LinkedHashMap<>();
+
+    static {
+        PROFILES.put("instant", "fixed:0");
+        PROFILES.put("fast", "uniform:100-400");
+        PROFILES.put("typical", "lognormal:2500,0.5");
+        PROFILES.put("slow", "lognormal:9000,0.4");
+        PROFILES.put("heavy-tail", "pareto:800,1.5");
+    }
+
+    private final String latency;
+    private final long seed;
+    private final int files;
+    private final int fileBytes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong calls = new AtomicLong();
+
+    /**
+     * @param latency   latency profile name or spec, see {@link #sampleDelayMillis(String, Random)}
+     * @param files     minimum number of files in generated trees, 0 for the template's own files
+     * @param fileBytes approximate size of each generated file, 0 for the template's contents
+     */
+    public AiSimulator(String latency, long seed, int files, int fileBytes) {
+        sampleDelayMillis(latency, new Random(seed));
+        this.latency = latency;
+        this.seed = seed;
+        this.files = files;
+        this.fileBytes = fileBytes;
+    }
+
+    public static AiSimulator fromConfig() {
+        return new AiSimulator(
+            ConfigManager.getProperty("ai.sim.latency", "instant"),
+            Long.parseLong(ConfigManager.getProperty("ai.sim.seed", "42")),
+            ConfigManager.getIntProperty("ai.sim.files", 0),
+            ConfigManager.getIntProperty("ai.sim.file.bytes", 0));
+    }
+
+    /**
+     * Wait out the sampled latency, then answer with the JSON string generateResult would return
+     */
+    @Override
+    public String apply(String prompt) {
+        Map<String, String> options = options(prompt);
+        int fileCount = intOption(options, "files", files);
+        int bytes = intOption(options, "bytes", fileBytes);
+        Random random = new Random(seed * 31 + prompt.hashCode());
+        long delay = sampleDelayMillis(options.getOrDefault("latency", latency), random);
+
+        calls.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            return MAPPER.writeValueAsString(respond(prompt, fileCount, bytes, random));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("AI simulation interrupted", e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Sample a delay from a profile name or a spec: fixed:MS, uniform:MIN-MAX, lognormal:MEDIAN,SIGMA or
+     * pareto:MIN,ALPHA. Samples are capped at two minutes.
+     */
+    static long sampleDelayMillis(String spec, Random random) {
+        String resolved = PROFILES.getOrDefault(spec.trim(), spec.trim());
+        int colon = resolved.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Unknown AI latency profile '" + spec + "', expected one of "
+                + PROFILES.keySet() + " or a fixed:, uniform:, lognormal: or pareto: spec");
+        }
+        String kind = resolved.substring(0, colon);
+        String[] args = resolved.substring(colon + 1).split("[,-]");
+        double delay;
+        try {
+            switch (kind) {
+                case "fixed":
+                    delay = Double.parseDouble(args[0]);
+                    break;
+                case "uniform":
+                    double min = Double.parseDouble(args[0]);
+                    delay = min + random.nextDouble() * (Double.parseDouble(args[1]) - min);
+                    break;
+                case "lognormal":
+                    delay = Double.parseDouble(args[0]) * Math.exp(Double.parseDouble(args[1]) * random.nextGaussian());
+                    break;
+                case "pareto":
+                    delay = Double.parseDouble(args[0]) / Math.pow(1 - random.nextDouble(), 1 / Double.parseDouble(args[1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown AI latency distribution '" + kind + "' in " + spec);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed AI latency spec '" + spec + "'", e);
+        }
+        return Math.max(0, Math.min(MAX_DELAY_MILLIS, Math.round(delay)));
+    }
+
+    private static Map<String, String> options(String prompt) {
+        Map<String, String> options = new LinkedHashMap<>();
+        Matcher matcher = OPTION.matcher(prompt);
+        while (matcher.find()) {
+            options.put(matcher.group(1), matcher.group(2));
+        }
+        return options;
+    }
+
+    /**
+     * A non-negative integer prompt option such as files=100, or the default when the prompt has none
+     */
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Malformed AI prompt option " + name + "='" + value
+            + "', expected a non-negative integer");
+    }
+
+    private Map<String, Object> respond(String prompt, int fileCount, int bytes, Random random) {
+        String lower = prompt.toLowerCase();
+        Map<String, Object> response = new LinkedHashMap<>();
+
+        Template template = Template.forPrompt(lower);
+        if (template == null && fileCount == 0) {
+            response.put("text", "Simulated answer to: " + prompt);
+            return response;
+        }
+        if (template == null) {
+            template = Template.EXPRESS;
+        }
+
+        Map<String, Object> fileTree = new LinkedHashMap<>();
+        for (int i = 0; i < template.files.length; i += 2) {
+            fileTree.put(template.files[i], file(bytes > 0 ? filler(template.files[i + 1], bytes, random)
+                : template.files[i + 1]));
+        }
+        for (int i = fileTree.size(); i < fileCount; i++) {
+            String name = String.format("module%04d.%s", i, template.extension);
+            fileTree.put(name, file(filler("// " + name + "\n", Math.max(bytes, 64), random)));
+        }
+
+        response.put("text", "Here is the file tree structure for " + template.description + ".");
+        response.put("fileTree", fileTree);
+        response.put("buildCommand", command(template.build[0], template.build[1]));
+        response.put("startCommand", command(template.start[0], template.start[1]));
+        return response;
+    }
+
+    private static Map<String, Object> file(String contents) {
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("contents", contents);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("file", file);
+        return entry;
+    }
+
+    private static Map<String, Object> command(String mainItem, String command) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("mainItem", mainItem);
+        json.put("commands", new String[] {command});
+        return json;
+    }
+
+    /**
+     * Pad contents with seeded pseudo-code lines up to roughly the requested size
+     */
+    private static String filler(String head, int bytes, Random random) {
+        StringBuilder contents = new StringBuilder(head);
+        while (contents.length() < bytes) {
+            contents.append("\nconst value").append(Integer.toHexString(random.nextInt(1 << 20)))
+                .append(" = ").append(random.nextInt(100_000)).append(";");
+        }
+        return contents.toString();
+    }
+
+    private enum Template {
+        PYTHON("a Python application", "py", new String[] {"pip", "install -r requirements.txt"},
+            new String[] {"python", "app.py"},
+            "app.py", "def main():\n    print('Hello, World!')\n\nif __name__ == '__main__':\n    main()",
+            "requirements.txt", "flask\nrequests"),
+        JAVA("a Java application", "java", new String[] {"mvn", "package"},
+            new String[] {"java", "-cp target/myapp.jar Main"},
+            "Main.java", "public class Main {\n    public static void main(String[] args) {\n"
+                + "        System.out.println(\"Hello, World!\");\n    }\n}",
+            "pom.xml", "<project>...</project>"),
+        EXPRESS("an Express server", "js", new String[] {"npm", "install"}, new String[] {"node", "app.js"},
+            "app.js", "const express = require('express');\nconst app = express();\n\n"
+                + "app.get('/', (req, res) => {\n    res.send('Hello World!');\n});\n\n"
+                + "app.listen(3000, () => {\n    console.log('Server is running on port 3000');\n});",
+            "package.json", "{\n    \"name\": \"express-server\",\n    \"version\": \"1.0.0\",\n"
+                + "    \"main\": \"app.js\",\n    \"dependencies\": {\n        \"express\": \"^4.17.1\"\n    }\n}");
+
+        private final String description;
+        private final String extension;
+        private final String[] build;
+        private final String[] start;
+        private final String[] files;
+
+        Template(String description, String extension, String[] build, String[] start, String... files) {
+            this.description = description;
+            this.extension = extension;
+            this.build = build;
+            this.start = start;
+            this.files = files;
+        }
+
+        static Template forPrompt(String lowerPrompt) {
+            if (lowerPrompt.contains("python")) {
+                return PYTHON;
+            } else if (lowerPrompt.contains("java") && !lowerPrompt.contains("javascript")) {
+                return JAVA;
+            } else if (lowerPrompt.contains("express") || lowerPrompt.contains("node")
+                || lowerPrompt.contains("server")) {
+                return EXPRESS;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.vagent.stub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vagent.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * In-JVM stand-in for the VAgent backend: the /users, /projects and /ai/get-result REST contracts, the
+ * Socket.IO project-message events and, when a built frontend is available, the frontend bundle itself.
+ * Served from one local origin, UI suites run without network access or Render cold starts.
+ * The bundle's hard-coded backend origin is rewritten to the stub's as the JavaScript is served.
+ */
+public class StubBackend {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static StubBackend shared;
+
+    private final HttpServer server;
+    private final StubStore store = new StubStore();
+    private final StubSocketServer sockets;
+    private final File frontendDir;
+    private final List<String> rewrittenOrigins;
+    private final Map<String, byte[]> rewrittenAssets = new ConcurrentHashMap<>();
+    private final AiSimulator aiSimulator = AiSimulator.fromConfig();
+    private volatile Function<String, String> aiResponder = aiSimulator;
+
+    public StubBackend(int port, File frontendDir, List<String> rewrittenOrigins) throws IOException {
+        this.frontendDir = frontendDir;
+        this.rewrittenOrigins = rewrittenOrigins;
+        this.sockets = new StubSocketServer(store, prompt -> aiResponder.apply(prompt));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        // Long polls park a thread each, so the pool has to grow with connected sockets
+        server.setExecutor(Executors.newCachedThreadPool(StubSocketServer.daemon("stub-http")));
+        server.start();
+    }
+
+    /**
+     * Start the shared stub when stub.enabled is set, and point base.url and api.url at it
+     */
+    public static synchronized StubBackend startIfEnabled() {
+        if (shared != null || !ConfigManager.getBooleanProperty("stub.enabled", false)) {
+            return shared;
+        }
+        List<String> origins = new ArrayList<>();
+        for (String origin : ConfigManager.getProperty("stub.rewrite.origins", "").split(",")) {
+            if (!origin.trim().isEmpty()) {
+                origins.add(origin.trim());
+            }
+        }
+        File frontendDir = new File(ConfigManager.getProperty("stub.frontend.dir", "../frontend/dist"));
+        if (!new File(frontendDir, "index.html").isFile()) {
+            // The deployed frontend has the real backend's origin baked in, so it would never reach the stub
+            throw new IllegalStateException("stub.enabled=true but there is no frontend bundle in "
+                + frontendDir.getPath() + "; run npm run build in frontend/ or set stub.frontend.dir");
+        }
+        try {
+            shared = new StubBackend(ConfigManager.getIntProperty("stub.port", 0), frontendDir, origins);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start stub backend", e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(shared::stop, "stub-backend-stop"));
+
+        ConfigManager.override("api.url", shared.getUrl());
+        ConfigManager.override("base.url", shared.getUrl());
+        System.out.println("Stub backend listening on " + shared.getUrl());
+        return shared;
+    }
+
+    public static synchronized boolean isRunning() {
+        return shared != null;
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public StubStore getStore() {
+        return store;
+    }
+
+    /**
+     * The default AI responder, configured by the ai.sim.* properties
+     */
+    public AiSimulator getAiSimulator() {
+        return aiSimulator;
+    }
+
+    /**
+     * Replace the answer to "@ai" chat prompts and /ai/get-result
+     */
+    public void setAiResponder(Function<String, String> aiResponder) {
+        this.aiResponder = aiResponder;
+    }
+
+    public void stop() {
+        server.stop(0);
+        sockets.stop();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String origin = exchange.getRequestHeaders().getFirst("Origin");
+            if (origin != null) {
+                exchange.getResponseHeaders().set("Access-Control-Allow-Origin", origin);
+                exchange.getResponseHeaders().set("Access-Control-Allow-Credentials", "true");
+            }
+            if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
+                exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Authorization,Content-Type");
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/socket.io/")) {
+                sockets.handle(exchange, query(exchange));
+            } else if (path.startsWith("/users/")) {
+                users(exchange, path.substring("/users/".length()));
+            } else if (path.startsWith("/projects/")) {
+                projects(exchange, path.substring("/projects/".length()));
+            } else if (path.equals("/ai/get-result")) {
+                ai(exchange);
+            } else {
+                frontend(exchange, path);
+            }
+        } catch (IllegalArgumentException e) {
+            sendJson(exchange, 400, Collections.singletonMap("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Stub backend failed on " + exchange.getRequestURI() + ": " + e);
+            sendJson(exchange, 500, Collections.singletonMap("error", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void users(HttpExchange exchange, String route) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("POST".equals(method) && ("register".equals(route) || "login".equals(route))) {
+            Map<String, Object> body = body(exchange);
+            String email = stringField(body, "email");
+            String password = stringField(body, "password");
+            List<Object> errors = new ArrayList<>();
+            if (email == null || !email.matches("[^@\\s]+@[^@\\s]+\\.[^@\\s]+")) {
+                errors.add(validationError("email", email, "Email must be a valid email address"));
+            }
+            if (password == null || password.length() < 3) {
+                errors.add(validationError("password", password, "Password must be atleast 3 characters long"));
+            }
+            if (!errors.isEmpty()) {
+                sendJson(exchange, 400, Collections.singletonMap("errors", errors));
+                return;
+            }
+            StubStore.User user = "register".equals(route) ? store.register(email, password) : store.login(email, password);
+            if (user == null) {
+                sendJson(exchange, 401, Collections.singletonMap("errors", "Invalid Credentials"));
+                return;
+            }
+            Map<String, Object> reply = new LinkedHashMap<>();
+            reply.put("user", user.toJson());
+            reply.put("token", store.issueToken(user));
+            sendJson(exchange, "register".equals(route) ? 201 : 200, reply);
+            return;
+        }
+
+        StubStore.User user = authenticate(exchange);
+        if (user == null) {
+            return;
+        }
+        if ("GET".equals(method) && "profile".equals(route)) {
+            sendJson(exchange, 200, Collections.singletonMap("user", Collections.singletonMap("email", user.getEmail())));
+        } else if ("GET".equals(method) && "logout".equals(route)) {
+            store.revoke(token(exchange));
+            sendText(exchange, 200, "Logged out successfully");
+        } else if ("GET".equals(method) && "all".equals(route)) {
+            List<Object> users = new ArrayList<>();
+            for (StubStore.User other : store.otherUsers(user)) {
+                users.add(other.toJson());
+            }
+            sendJson(exchange, 200, Collections.singletonMap("users", users));
+        } else {
+            sendText(exchange, 404, "Cannot " + method + " /users/" + route);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void projects(HttpExchange exchange, String route) throws IOException {
+        StubStore.User user = authenticate(exchange);
+        if (user == null) {
+            return;
+        }
+        String method = exchange.getRequestMethod();
+        if ("POST".equals(method) && "create".equals(route)) {
+            String name = stringField(body(exchange), "name");
+            if (name == null) {
+                sendValidationError(exchange, "name", "Name is required");
+                return;
+            }
+            sendJson(exchange, 201, store.toJson(store.createProject(name, user), false));
+        } else if ("GET".equals(method) && "all".equals(route)) {
+            List<Object> projects = new ArrayList<>();
+            for (StubStore.Project project : store.projectsOf(user)) {
+                projects.add(store.toJson(project, false));
+            }
+            sendJson(exchange, 200, Collections.singletonMap("projects", projects));
+        } else if ("GET".equals(method) && route.startsWith("get-project/")) {
+            StubStore.Project project = store.project(route.substring("get-project/".length()));
+            sendJson(exchange, 200, Collections.singletonMap("project",
+                project != null ? store.toJson(project, true) : null));
+        } else if ("DELETE".equals(method) && route.startsWith("delete/")) {
+            StubStore.Project project = store.deleteProject(route.substring("delete/".length()), user);
+            Map<String, Object> reply = new LinkedHashMap<>();
+            reply.put("message", "Project deleted successfully");
+            reply.put("project", store.toJson(project, false));
+            sendJson(exchange, 200, reply);
+        } else if ("PUT".equals(method)) {
+            Map<String, Object> body = body(exchange);
+            String projectId = stringField(body, "projectId");
+            if (projectId == null) {
+                sendValidationError(exchange, "projectId", "Project ID is required");
+                return;
+            }
+            StubStore.Project project;
+            Map<String, Object> reply = new LinkedHashMap<>();
+            switch (route) {
+                case "add-user":
+                    if (!(body.get("users") instanceof List) || ((List<Object>) body.get("users")).isEmpty()) {
+                        sendValidationError(exchange, "users", "Users must be an array of strings");
+                        return;
+                    }
+                    List<String> userIds = new ArrayList<>();
+                    for (Object id : (List<Object>) body.get("users")) {
+                        userIds.add(String.valueOf(id));
+                    }
+                    project = store.addUsers(projectId, userIds, user);
+                    reply.put("project", store.toJson(project, false));
+                    break;
+                case "update-file-tree":
+                    if (!(body.get("fileTree") instanceof Map)) {
+                        sendValidationError(exchange, "fileTree", "File tree is required");
+                        return;
+                    }
+                    project = store.updateFileTree(projectId, (Map<String, Object>) body.get("fileTree"));
+                    reply.put("project", project != null ? store.toJson(project, false) : null);
+                    break;
+                case "update-name":
+                    String name = stringField(body, "name");
+                    if (name == null) {
+                        sendValidationError(exchange, "name", "Name is required");
+                        return;
+                    }
+                    reply.put("message", "Project name updated successfully");
+                    reply.put("project", store.toJson(store.renameProject(projectId, name, user), false));
+                    break;
+                case "remove-user":
+                    String userToRemove = stringField(body, "userToRemove");
+                    if (userToRemove == null) {
+                        sendValidationError(exchange, "userToRemove", "User ID to remove is required");
+                        return;
+                    }
+                    reply.put("message", "User removed from project successfully");
+                    reply.put("project", store.toJson(store.removeUser(projectId, userToRemove, user), true));
+                    break;
+                case "leave-project":
+                    reply.put("message", "Left project successfully");
+                    reply.put("project", store.toJson(store.leaveProject(projectId, user), true));
+                    break;
+                default:
+                    sendText(exchange, 404, "Cannot PUT /projects/" + route);
+                    return;
+            }
+            sendJson(exchange, 200, reply);
+        } else {
+            sendText(exchange, 404, "Cannot " + method + " /projects/" + route);
+        }
+    }
+
+    private void ai(HttpExchange exchange) throws IOException {
+        String prompt = query(exchange).get("prompt");
+        if (prompt == null && "POST".equals(exchange.getRequestMethod())) {
+            prompt = stringField(body(exchange), "prompt");
+        }
+        if (prompt == null || prompt.isEmpty()) {
+            sendJson(exchange, 400, Collections.singletonMap("error", "Prompt is required."));
+            return;
+        }
+        sendText(exchange, 200, aiResponder.apply(prompt));
+    }
+
+    /**
+     * Serve the built frontend, falling back to index.html so client-side routes resolve
+     */
+    private void frontend(HttpExchange exchange, String path) throws IOException {
+        File root = frontendDir.getCanonicalFile();
+        File file = new File(root, path).getCanonicalFile();
+        if (!file.toPath().startsWith(root.toPath()) || !file.isFile()) {
+            file = new File(root, "index.html");
+        }
+        if (!file.isFile()) {
+            sendText(exchange, 404, "No frontend bundle in " + frontendDir.getPath());
+            return;
+        }
+
+        String name = file.getName();
+        byte[] bytes;
+        if (name.endsWith(".js") && !rewrittenOrigins.isEmpty()) {
+            bytes = rewrittenAssets.computeIfAbsent(file.getPath(), key -> rewriteOrigins(key));
+        } else {
+            bytes = Files.readAllBytes(file.toPath());
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType(name));
+        exchange.getResponseHeaders().set("Cache-Control", name.equals("index.html") ? "no-cache" : "max-age=3600");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private byte[] rewriteOrigins(String path) {
+        try {
+            String source = new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.UTF_8);
+            for (String origin : rewrittenOrigins) {
+                source = source.replace(origin, getUrl());
+            }
+            return source.getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + path, e);
+        }
+    }
+
+    /**
+     * The token's user, or null after answering 401 like auth.middleware.js
+     */
+    private StubStore.User authenticate(HttpExchange exchange) throws IOException {
+        StubStore.User user = store.authenticate(token(exchange));
+        if (user == null) {
+            sendJson(exchange, 401, Collections.singletonMap("error", "Unauthorized User"));
+        }
+        return user;
+    }
+
+    private static String token(HttpExchange exchange) {
+        String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+        if (cookie != null) {
+            for (String pair : cookie.split(";")) {
+                String[] parts = pair.trim().split("=", 2);
+                if (parts.length == 2 && "token".equals(parts[0]) && !parts[1].isEmpty()) {
+                    return parts[1];
+                }
+            }
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7).trim() : null;
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        byte[] bytes = exchange.getRequestBody().readAllBytes();
+        if (bytes.length == 0) {
+            return Collections.emptyMap();
+        }
+        try {
+            return MAPPER.readValue(bytes, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON body");
+        }
+    }
+
+    private static String stringField(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new LinkedHashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                String[] parts = pair.split("=", 2);
+                query.put(URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+                    parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return query;
+    }
+
+    /**
+     * express-validator's error shape
+     */
+    private static Map<String, Object> validationError(String path, Object value, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "field");
+        error.put("value", value);
+        error.put("msg", message);
+        error.put("path", path);
+        error.put("location", "body");
+        return error;
+    }
+
+    private static void sendValidationError(HttpExchange exchange, String path, String message) throws IOException {
+        sendJson(exchange, 400, Collections.singletonMap("errors",
+            Collections.singletonList(validationError(path, null, message))));
+    }
+
+    static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        send(exchange, status, MAPPER.writeValueAsBytes(body));
+    }
+
+    static void sendText(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".html")) {
+            return "text/html; charset=utf-8";
+        } else if (name.endsWith(".js") || name.endsWith(".mjs")) {
+            return "text/javascript; charset=utf-8";
+        } else if (name.endsWith(".css")) {
+            return "text/css; charset=utf-8";
+        } else if (name.endsWith(".svg")) {
+            return "image/svg+xml";
+        } else if (name.endsWith(".png")) {
+            return "image/png";
+        } else if (name.endsWith(".json")) {
+            return "application/json";
+        } else if (name.endsWith(".woff2")) {
+            return "font/woff2";
+        }
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,264 @@
+package com.vagent.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Socket.IO v4 server for the stub backend over Engine.IO HTTP long-polling. The handshake advertises
+ * no upgrades, so socket.io-client stays on polling and the JDK HTTP server needs no WebSocket support.
+ * Mirrors server.js: the handshake's projectId selects the room, the auth token must be live, and
+ * project-message is broadcast to the rest of the room, with "@ai" prompts answered to the whole room.
+ */
+class StubSocketServer {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final char SEPARATOR = '\u001e';
+    private static final long PING_INTERVAL_MILLIS = 25000;
+    private static final long PING_TIMEOUT_MILLIS = 20000;
+
+    private final StubStore store;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService aiExecutor = Executors.newCachedThreadPool(daemon("stub-ai"));
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(daemon("stub-socket-sweep"));
+    private final Function<String, String> aiResponder;
+
+    StubSocketServer(StubStore store, Function<String, String> aiResponder) {
+        this.store = store;
+        this.aiResponder = aiResponder;
+        sweeper.scheduleWithFixedDelay(this::dropIdleSessions, 5, 5, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        sweeper.shutdownNow();
+        aiExecutor.shutdownNow();
+        sessions.clear();
+    }
+
+    /**
+     * Handle one Engine.IO polling request: handshake, long-poll GET or packet POST
+     */
+    void handle(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (!"polling".equals(query.get("transport"))) {
+            StubBackend.sendText(exchange, 400, "{\"code\":0,\"message\":\"Transport unknown\"}");
+            return;
+        }
+        String sid = query.get("sid");
+        if (sid == null) {
+            handshake(exchange, query.get("projectId"));
+            return;
+        }
+        Session session = sessions.get(sid);
+        if (session == null) {
+            StubBackend.sendText(exchange, 400, "{\"code\":1,\"message\":\"Session ID unknown\"}");
+            return;
+        }
+        session.lastSeen = System.currentTimeMillis();
+        if ("POST".equals(exchange.getRequestMethod())) {
+            receive(session, readBody(exchange.getRequestBody()));
+            StubBackend.sendText(exchange, 200, "ok");
+        } else {
+            StubBackend.sendText(exchange, 200, poll(session));
+        }
+    }
+
+    private void handshake(HttpExchange exchange, String projectId) throws IOException {
+        Session session = new Session(UUID.randomUUID().toString().replace("-", ""), projectId);
+        sessions.put(session.sid, session);
+
+        Map<String, Object> open = new LinkedHashMap<>();
+        open.put("sid", session.sid);
+        open.put("upgrades", Collections.emptyList());
+        open.put("pingInterval", PING_INTERVAL_MILLIS);
+        open.put("pingTimeout", PING_TIMEOUT_MILLIS);
+        open.put("maxPayload", 1000000);
+        StubBackend.sendText(exchange, 200, "0" + MAPPER.writeValueAsString(open));
+    }
+
+    /**
+     * Wait for outgoing packets, answering with a ping when the session stays idle for a ping interval
+     */
+    private String poll(Session session) {
+        List<String> packets = new ArrayList<>();
+        try {
+            String first = session.outbox.poll(PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                packets.add(first);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        session.outbox.drainTo(packets);
+
+        long now = System.currentTimeMillis();
+        if (packets.isEmpty() || now - session.lastPingAt >= PING_INTERVAL_MILLIS) {
+            packets.add(0, "2");
+            session.lastPingAt = now;
+        }
+        session.lastSeen = now;
+        return String.join(String.valueOf(SEPARATOR), packets);
+    }
+
+    private void receive(Session session, String payload) {
+        for (String packet : payload.split(String.valueOf(SEPARATOR))) {
+            if (packet.isEmpty()) {
+                continue;
+            }
+            switch (packet.charAt(0)) {
+                case '1':
+                    close(session);
+                    break;
+                case '4':
+                    receiveSocketIo(session, packet.substring(1));
+                    break;
+                default:
+                    // '3' pong: lastSeen is already refreshed
+                    break;
+            }
+        }
+    }
+
+    private void receiveSocketIo(Session session, String packet) {
+        if (packet.startsWith("0")) {
+            connect(session, packet.substring(1));
+        } else if (packet.startsWith("1")) {
+            close(session);
+        } else if (packet.startsWith("2") && session.user != null) {
+            try {
+                JsonNode event = MAPPER.readTree(packet.substring(1));
+                if ("project-message".equals(event.path(0).asText())) {
+                    onProjectMessage(session, event.path(1));
+                }
+            } catch (IOException e) {
+                System.err.println("Stub socket ignored malformed event: " + packet);
+            }
+        }
+    }
+
+    private void connect(Session session, String authJson) {
+        String error = null;
+        try {
+            JsonNode auth = authJson.isEmpty() ? MAPPER.createObjectNode() : MAPPER.readTree(authJson);
+            if (!StubStore.isValidId(session.projectId) || store.project(session.projectId) == null) {
+                error = "Invalid ProjectId";
+            } else {
+                session.user = store.authenticate(auth.path("token").asText(null));
+                error = session.user == null ? "Authentication error" : null;
+            }
+        } catch (IOException e) {
+            error = "Authentication error";
+        }
+        if (error != null) {
+            session.outbox.add("44{\"message\":\"" + error + "\"}");
+        } else {
+            session.outbox.add("40{\"sid\":\"" + UUID.randomUUID().toString().replace("-", "") + "\"}");
+        }
+    }
+
+    private void onProjectMessage(Session sender, JsonNode data) {
+        String message = data.path("message").asText("");
+        broadcast(sender.projectId, sender, data);
+
+        if (message.contains("@ai")) {
+            String prompt = message.replace("@ai", "").trim();
+            if (!prompt.isEmpty()) {
+                aiExecutor.execute(() -> {
+                    Map<String, Object> reply = new LinkedHashMap<>();
+                    reply.put("message", answer(prompt));
+                    Map<String, Object> ai = new LinkedHashMap<>();
+                    ai.put("_id", "ai");
+                    ai.put("email", "AI");
+                    reply.put("sender", ai);
+                    broadcast(sender.projectId, null, MAPPER.valueToTree(reply));
+                });
+            }
+        }
+    }
+
+    /**
+     * The responder's reply, or a text reply naming the failure, so a bad prompt shows up in the chat
+     * instead of leaving the test waiting for a reply that never comes
+     */
+    private String answer(String prompt) {
+        try {
+            return aiResponder.apply(prompt);
+        } catch (RuntimeException e) {
+            System.err.println("Stub AI failed on '" + prompt + "': " + e);
+            try {
+                return MAPPER.writeValueAsString(Collections.singletonMap("text", "AI error: " + e.getMessage()));
+            } catch (IOException json) {
+                throw new IllegalStateException(json);
+            }
+        }
+    }
+
+    private void broadcast(String projectId, Session except, JsonNode data) {
+        String packet;
+        try {
+            packet = "42" + MAPPER.writeValueAsString(MAPPER.createArrayNode().add("project-message").add(data));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Session session : sessions.values()) {
+            if (session != except && session.user != null && projectId.equals(session.projectId)) {
+                session.outbox.add(packet);
+            }
+        }
+    }
+
+    private void close(Session session) {
+        // Queued first, so a poll already parked on this session still delivers the close
+        session.outbox.add("1");
+        sessions.remove(session.sid);
+    }
+
+    private void dropIdleSessions() {
+        long cutoff = System.currentTimeMillis() - PING_INTERVAL_MILLIS - PING_TIMEOUT_MILLIS;
+        sessions.values().removeIf(session -> session.lastSeen < cutoff);
+    }
+
+    private static String readBody(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Session {
+        private final String sid;
+        private final String projectId;
+        private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>();
+        private volatile StubStore.User user;
+        private volatile long lastSeen = System.currentTimeMillis();
+        private volatile long lastPingAt = System.currentTimeMillis();
+
+        Session(String sid, String projectId) {
+            this.sid = sid;
+            this.projectId = projectId;
+        }
+    }
+}
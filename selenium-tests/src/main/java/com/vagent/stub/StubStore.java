@@ -0,0 +1,272 @@
+package com.vagent.stub;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory users, projects and tokens behind the stub backend, mirroring the Mongo models:
+ * 24-hex ids, lower-cased unique names and emails, and the creator as the first project user.
+ * Rule violations throw IllegalArgumentException with the backend's error message.
+ */
+public class StubStore {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final AtomicLong counter = new AtomicLong(RANDOM.nextInt(1 << 20));
+
+    private final Map<String, User> usersById = new LinkedHashMap<>();
+    private final Map<String, User> usersByEmail = new LinkedHashMap<>();
+    private final Map<String, String> tokens = new LinkedHashMap<>();
+    private final Map<String, Project> projects = new LinkedHashMap<>();
+
+    /**
+     * Mongo-style ObjectId: seconds since epoch followed by a counter, 24 hex characters
+     */
+    static String newId() {
+        return String.format("%08x%016x", System.currentTimeMillis() / 1000, counter.incrementAndGet());
+    }
+
+    static boolean isValidId(String id) {
+        return id != null && id.matches("[0-9a-fA-F]{24}");
+    }
+
+    public synchronized User register(String email, String password) {
+        String normalized = email.trim().toLowerCase();
+        if (usersByEmail.containsKey(normalized)) {
+            throw new IllegalArgumentException("E11000 duplicate key error collection: users index: email_1 dup key");
+        }
+        User user = new User(newId(), normalized, password);
+        usersById.put(user.id, user);
+        usersByEmail.put(user.email, user);
+        return user;
+    }
+
+    /**
+     * The user with these credentials, or null when they do not match
+     */
+    public synchronized User login(String email, String password) {
+        User user = usersByEmail.get(email.trim().toLowerCase());
+        return user != null && user.password.equals(password) ? user : null;
+    }
+
+    public synchronized String issueToken(User user) {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        StringBuilder token = new StringBuilder("stub.");
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        tokens.put(token.toString(), user.id);
+        return token.toString();
+    }
+
+    /**
+     * The user a live token belongs to, or null
+     */
+    public synchronized User authenticate(String token) {
+        String userId = token != null ? tokens.get(token) : null;
+        return userId != null ? usersById.get(userId) : null;
+    }
+
+    public synchronized void revoke(String token) {
+        tokens.remove(token);
+    }
+
+    public synchronized List<User> otherUsers(User user) {
+        List<User> others = new ArrayList<>();
+        for (User candidate : usersById.values()) {
+            if (!candidate.id.equals(user.id)) {
+                others.add(candidate);
+            }
+        }
+        return others;
+    }
+
+    public synchronized User user(String id) {
+        return usersById.get(id);
+    }
+
+    public synchronized Project createProject(String name, User creator) {
+        String normalized = name.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        requireUniqueName(normalized, null);
+        Project project = new Project(newId(), normalized);
+        project.users.add(creator.id);
+        projects.put(project.id, project);
+        return project;
+    }
+
+    public synchronized List<Project> projectsOf(User user) {
+        List<Project> owned = new ArrayList<>();
+        for (Project project : projects.values()) {
+            if (project.users.contains(user.id)) {
+                owned.add(project);
+            }
+        }
+        return owned;
+    }
+
+    public synchronized Project project(String projectId) {
+        if (!isValidId(projectId)) {
+            throw new IllegalArgumentException("Invalid projectId");
+        }
+        return projects.get(projectId);
+    }
+
+    public synchronized Project addUsers(String projectId, List<String> userIds, User requester) {
+        for (String userId : userIds) {
+            if (!isValidId(userId)) {
+                throw new IllegalArgumentException("Invalid userId(s) in users array");
+            }
+        }
+        Project project = project(projectId);
+        if (project == null || !project.users.contains(requester.id)) {
+            throw new IllegalArgumentException("User not belong to this project");
+        }
+        for (String userId : userIds) {
+            if (!project.users.contains(userId)) {
+                project.users.add(userId);
+            }
+        }
+        return project;
+    }
+
+    public synchronized Project updateFileTree(String projectId, Map<String, Object> fileTree) {
+        Project project = project(projectId);
+        if (project != null) {
+            project.fileTree = new LinkedHashMap<>(fileTree);
+        }
+        return project;
+    }
+
+    public synchronized Project deleteProject(String projectId, User requester) {
+        Project project = requireCreator(projectId, requester, "delete the project");
+        projects.remove(project.id);
+        return project;
+    }
+
+    public synchronized Project renameProject(String projectId, String name, User requester) {
+        Project project = requireCreator(projectId, requester, "update the project name");
+        String normalized = name.trim().toLowerCase();
+        requireUniqueName(normalized, project.id);
+        project.name = normalized;
+        return project;
+    }
+
+    public synchronized Project removeUser(String projectId, String userToRemove, User requester) {
+        if (!isValidId(userToRemove)) {
+            throw new IllegalArgumentException("Invalid userToRemove");
+        }
+        Project project = requireCreator(projectId, requester, "remove collaborators");
+        if (project.users.get(0).equals(userToRemove)) {
+            throw new IllegalArgumentException("Cannot remove the project creator");
+        }
+        project.users.remove(userToRemove);
+        return project;
+    }
+
+    public synchronized Project leaveProject(String projectId, User requester) {
+        Project project = project(projectId);
+        if (project == null) {
+            throw new IllegalArgumentException("Project not found");
+        }
+        if (!project.users.contains(requester.id)) {
+            throw new IllegalArgumentException("User is not a member of this project");
+        }
+        if (project.users.get(0).equals(requester.id)) {
+            throw new IllegalArgumentException("The project creator cannot leave the project");
+        }
+        project.users.remove(requester.id);
+        return project;
+    }
+
+    private Project requireCreator(String projectId, User requester, String action) {
+        Project project = project(projectId);
+        if (project == null) {
+            throw new IllegalArgumentException("Project not found");
+        }
+        if (!project.users.get(0).equals(requester.id)) {
+            throw new IllegalArgumentException("Only the project creator can " + action);
+        }
+        return project;
+    }
+
+    private void requireUniqueName(String name, String exceptId) {
+        for (Project existing : projects.values()) {
+            if (existing.name.equals(name) && !existing.id.equals(exceptId)) {
+                throw new IllegalArgumentException("Project name already exists");
+            }
+        }
+    }
+
+    /**
+     * Project as the backend serializes it, with user ids or populated user documents
+     */
+    public synchronized Map<String, Object> toJson(Project project, boolean populateUsers) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("_id", project.id);
+        json.put("name", project.name);
+        List<Object> users = new ArrayList<>();
+        for (String userId : project.users) {
+            User user = usersById.get(userId);
+            users.add(populateUsers && user != null ? user.toJson() : userId);
+        }
+        json.put("users", users);
+        json.put("fileTree", project.fileTree);
+        json.put("__v", 0);
+        return json;
+    }
+
+    public static class User {
+        final String id;
+        final String email;
+        final String password;
+
+        User(String id, String email, String password) {
+            this.id = id;
+            this.email = email;
+            this.password = password;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("_id", id);
+            json.put("email", email);
+            json.put("__v", 0);
+            return json;
+        }
+    }
+
+    public static class Project {
+        final String id;
+        String name;
+        final List<String> users = new ArrayList<>();
+        Map<String, Object> fileTree = new LinkedHashMap<>();
+
+        Project(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.vagent.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bulk data for load and volume tests: users, project file trees and chat histories. Each generator
+ * is seeded from the run's data seed and a dataset name, so the same name gives the same data on
+ * replay. Users and messages are produced lazily as streams, so very large datasets are never
+ * held in memory at once.
+ */
+public class DatasetGenerator {
+
+    private static final String[] WORDS = {
+        "deploy", "server", "route", "review", "merge", "branch", "test", "fix", "build", "release",
+        "endpoint", "socket", "message", "project", "file", "tree", "render", "cache", "token", "user",
+        "the", "a", "we", "should", "can", "after", "before", "with", "and", "for"
+    };
+    private static final String[] EXTENSIONS = {"js", "json", "md", "css", "html", "py"};
+    private static final char[] LOWER = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private final SplittableRandom random;
+
+    public DatasetGenerator(String dataset) {
+        this.random = new SplittableRandom(TestDataGenerator.seedFor("dataset:" + dataset));
+    }
+
+    /**
+     * count users with unique emails, generated as the stream is consumed
+     */
+    public Stream<User> users(long count) {
+        SplittableRandom users = random.split();
+        return generate(count, () -> new User(
+            "load" + TestDataGenerator.randomString(users, LOWER, 6) + TestDataGenerator.uniqueSuffix() + "@test.com",
+            "Pass" + TestDataGenerator.randomString(users, LOWER, 8)));
+    }
+
+    /**
+     * A file tree in the backend's fileTree format ({"name": {"file": {"contents": ...}}}, with folders as
+     * {"name": {"directory": {...}}}), nested depth levels deep with breadth folders and filesPerFolder
+     * files of about fileBytes characters at each level
+     */
+    public Map<String, Object> fileTree(int depth, int breadth, int filesPerFolder, int fileBytes) {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (int i = 0; i < filesPerFolder; i++) {
+            String name = "file" + i + "_" + TestDataGenerator.randomString(random, LOWER, 4) + "."
+                + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+            Map<String, Object> contents = new LinkedHashMap<>();
+            contents.put("contents", text(random, fileBytes));
+            Map<String, Object> file = new LinkedHashMap<>();
+            file.put("file", contents);
+            tree.put(name, file);
+        }
+        if (depth > 1) {
+            for (int i = 0; i < breadth; i++) {
+                Map<String, Object> folder = new LinkedHashMap<>();
+                folder.put("directory", fileTree(depth - 1, breadth, filesPerFolder, fileBytes));
+                tree.put("dir" + i + "_" + TestDataGenerator.randomString(random, LOWER, 4), folder);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * count chat messages in the shape of project-message events, from senders picked at random,
+     * generated as the stream is consumed
+     */
+    public Stream<Map<String, Object>> chatHistory(long count, List<Map<String, Object>> senders, int maxWords) {
+        SplittableRandom messages = random.split();
+        return generate(count, () -> {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("message", sentence(messages, 1 + messages.nextInt(maxWords)));
+            message.put("sender", senders.get(messages.nextInt(senders.size())));
+            return message;
+        });
+    }
+
+    /**
+     * Endless message texts of up to maxWords words
+     */
+    public Iterator<String> messages(int maxWords) {
+        SplittableRandom messages = random.split();
+        return Stream.generate(() -> sentence(messages, 1 + messages.nextInt(maxWords))).iterator();
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(text.length() % 60 > 50 ? '\n' : ' ');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static <T> Stream<T> generate(long count, Supplier<T> next) {
+        Iterator<T> iterator = new Iterator<T>() {
+            private long produced;
+
+            @Override
+            public boolean hasNext() {
+                return produced < count;
+            }
+
+            @Override
+            public T next() {
+                if (produced >= count) {
+                    throw new NoSuchElementException();
+                }
+                produced++;
+                return next.get();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, count, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Credentials of a generated user
+     */
+    public static class User {
+        private final String email;
+        private final String password;
+
+        User(String email, String password) {
+            this.email = email;
+            this.password = password;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.vagent.utils;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
+import com.vagent.driver.DriverFactory;
+import com.vagent.metrics.MetricsRegistry;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Screenshots taken as raw bytes on the test thread, with encoding, deduplication and the disk write done
+ * on a small bounded executor (screenshot.threads, screenshot.queue.capacity). When the queue is full the
+ * caller writes its own screenshot rather than losing it. Identical images are written once and share
+ * a file. screenshot.format=jpg re-encodes at screenshot.jpeg.quality and screenshot.max.width scales
+ * wide images down; the default keeps the browser's PNG untouched.
+ *
+ * Each test also keeps its last screenshot.buffer.frames viewport frames in memory. Frames are added with
+ * {@link #frame}, or after every page-object action with screenshot.buffer.on.steps=true; they are only
+ * written when the test fails, and are discarded otherwise.
+ */
+public final class ScreenshotService {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
+    private static final int DEDUP_ENTRIES = 512;
+
+    private static volatile ScreenshotService instance;
+
+    private final File dir;
+    private final String format;
+    private final float jpegQuality;
+    private final int maxWidth;
+    private final int bufferFrames;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Map<String, Deque<Frame>> frames = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<File>> written = Collections.synchronizedMap(
+        new LinkedHashMap<String, CompletableFuture<File>>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<File>> eldest) {
+                return size() > DEDUP_ENTRIES;
+            }
+        });
+
+    private ScreenshotService() {
+        dir = new File(ConfigManager.getProperty("screenshot.dir", "test-output/screenshots/"));
+        format = ConfigManager.getProperty("screenshot.format", "png").toLowerCase();
+        jpegQuality = Float.parseFloat(ConfigManager.getProperty("screenshot.jpeg.quality", "0.75"));
+        maxWidth = ConfigManager.getIntProperty("screenshot.max.width", 0);
+        bufferFrames = ConfigManager.getIntProperty("screenshot.buffer.frames", 3);
+        int threads = ConfigManager.getIntProperty("screenshot.threads", 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(ConfigManager.getIntProperty("screenshot.queue.capacity", 32)), runnable -> {
+                Thread thread = new Thread(runnable, "screenshot-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        if (ConfigManager.getBooleanProperty("screenshot.buffer.on.steps", false) && bufferFrames > 0) {
+            MetricsRegistry.addObserver((family, operation, page, elapsedNanos, failed) -> {
+                if (MetricsRegistry.PAGE_ACTION.equals(family)) {
+                    frame(DriverFactory.getDriver(), page + "." + operation);
+                }
+            });
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitIdle(30), "screenshot-drain"));
+    }
+
+    public static ScreenshotService get() {
+        if (instance == null) {
+            synchronized (ScreenshotService.class) {
+                if (instance == null) {
+                    instance = new ScreenshotService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Capture the visible viewport and write it in the background
+     */
+    public CompletableFuture<File> capture(WebDriver driver, String name) {
+        return write(name, ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+    }
+
+    /**
+     * Capture only the element's bounding box and write it in the background
+     */
+    public CompletableFuture<File> captureElement(WebElement element, String name) {
+        return write(name, element.getScreenshotAs(OutputType.BYTES));
+    }
+
+    /**
+     * Encode and write PNG bytes in the background, reusing the file of an identical earlier image
+     */
+    public CompletableFuture<File> write(String name, byte[] png) {
+        CompletableFuture<File> result = new CompletableFuture<>();
+        String fileName = name.replaceAll("[^A-Za-z0-9._-]", "_") + "_" + LocalDateTime.now().format(TIMESTAMP)
+            + "_" + sequence.incrementAndGet() + "." + ("jpg".equals(format) ? "jpg" : "png");
+        executor.execute(() -> {
+            try {
+                String hash = sha256(png);
+                CompletableFuture<File> previous = written.putIfAbsent(hash, result);
+                if (previous != null) {
+                    previous.whenComplete((file, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            result.complete(file);
+                        }
+                    });
+                    return;
+                }
+                dir.mkdirs();
+                File file = new File(dir, fileName);
+                Files.write(file.toPath(), encode(png));
+                result.complete(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to write screenshot " + fileName + ": " + e.getMessage());
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keep a viewport frame in the current test's rolling buffer, without writing it
+     */
+    public void frame(WebDriver driver, String label) {
+        String test = TestContext.currentTestName();
+        if (bufferFrames <= 0 || !(driver instanceof TakesScreenshot) || "unknown".equals(test)) {
+            return;
+        }
+        byte[] png;
+        try {
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException e) {
+            return;
+        }
+        Deque<Frame> buffer = frames.computeIfAbsent(test, key -> new ArrayDeque<>());
+        synchronized (buffer) {
+            buffer.addLast(new Frame(label, png));
+            while (buffer.size() > bufferFrames) {
+                buffer.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Write the test's buffered frames, oldest first, and clear its buffer
+     */
+    public List<Labelled> flushFrames(String test) {
+        Deque<Frame> buffer = frames.remove(test);
+        List<Labelled> files = new ArrayList<>();
+        if (buffer != null) {
+            synchronized (buffer) {
+                int index = 0;
+                for (Frame frame : buffer) {
+                    files.add(new Labelled("Frame " + (++index) + ": " + frame.label,
+                        write(test + "_frame" + index, frame.png)));
+                }
+            }
+        }
+        return files;
+    }
+
+    public void discardFrames(String test) {
+        frames.remove(test);
+    }
+
+    /**
+     * Wait for queued writes to finish, for up to the given number of seconds
+     */
+    public boolean awaitIdle(int seconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] encode(byte[] png) throws IOException {
+        return encode(png, format, jpegQuality, maxWidth);
+    }
+
+    static byte[] encode(byte[] png, String format, float jpegQuality, int maxWidth) throws IOException {
+        if (!"jpg".equals(format) && maxWidth <= 0) {
+            return png;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        int width = maxWidth > 0 ? Math.min(maxWidth, image.getWidth()) : image.getWidth();
+        int height = (int) Math.round(image.getHeight() * (width / (double) image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, "jpg".equals(format)
+            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 2);
+        if (!"jpg".equals(format)) {
+            ImageIO.write(scaled, "png", out);
+            return out.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static final class Frame {
+        private final String label;
+        private final byte[] png;
+
+        Frame(String label, byte[] png) {
+            this.label = label;
+            this.png = png;
+        }
+    }
+
+    /**
+     * A screenshot being written, with the title to show for it
+     */
+    public static final class Labelled {
+        private final String title;
+        private final CompletableFuture<File> file;
+
+        Labelled(String title, CompletableFuture<File> file) {
+            this.title = title;
+            this.file = file;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public CompletableFuture<File> getFile() {
+            return file;
+        }
+    }
+}
@@ -1,51 +1,25 @@
 package com.vagent.utils;
 
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 
 import java.io.File;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.CompletionException;
 
 /**
- * Utility class for taking screenshots
+ * Utility class for taking screenshots; blocking wrappers around {@link ScreenshotService}
  */
 public class ScreenshotUtils {
     
-    private static final String SCREENSHOT_DIR = "test-output/screenshots/";
-    
     /**
-     * Take screenshot and save to file
+     * Take screenshot and wait until it is saved, returning its path or null on failure
      */
     public static String takeScreenshot(WebDriver driver, String testName) {
         try {
-            // Create screenshots directory if it doesn't exist
-            File screenshotDir = new File(SCREENSHOT_DIR);
-            if (!screenshotDir.exists()) {
-                screenshotDir.mkdirs();
-            }
-            
-            // Generate filename with timestamp
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-            String timestamp = dateFormat.format(new Date());
-            String fileName = testName + "_" + timestamp + ".png";
-            String filePath = SCREENSHOT_DIR + fileName;
-            
-            // Take screenshot
-            TakesScreenshot screenshot = (TakesScreenshot) driver;
-            File sourceFile = screenshot.getScreenshotAs(OutputType.FILE);
-            File destFile = new File(filePath);
-            
-            // Copy screenshot to destination
-            FileUtils.copyFile(sourceFile, destFile);
-            
-            System.out.println("Screenshot saved: " + filePath);
-            return filePath;
-            
-        } catch (IOException e) {
+            File file = ScreenshotService.get().capture(driver, testName).join();
+            System.out.println("Screenshot saved: " + file.getPath());
+            return file.getPath();
+        } catch (CompletionException | WebDriverException e) {
             System.err.println("Failed to take screenshot: " + e.getMessage());
             return null;
         }
@@ -1,72 +1,167 @@
 package com.vagent.utils;
 
-import java.util.Random;
+import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Utility class for generating test data
+ * Utility class for generating test data.
+ *
+ * Values are random but reproducible: each test draws from its own stream, seeded from the run's
+ * data.seed and the test name, so a test gets the same data on replay whichever thread or shard runs it.
+ * The seed is printed on first use and shown in the test report; replay with -Ddata.seed=N.
+ *
+ * Emails and project names also end in a unique suffix: the run tag (start time and process id, or
+ * data.run.tag), the shard index and a counter. This keeps them unique across threads, shards and repeated
+ * runs against the same backend, including replays, which reuse the random parts under a new run tag.
  */
 public class TestDataGenerator {
-    
-    private static final Random random = new Random();
-    
+
+    private static final char[] ALPHANUMERIC =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final char[] LOWER_ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "test.com"};
+    private static final String[] PREFIXES = {"project", "task", "work", "demo", "test"};
+    private static final String[] MESSAGES = {
+        "Hello team, how is everyone doing?",
+        "Let's work on this project together",
+        "Can we review the latest changes?",
+        "Great progress on the development!",
+        "Looking forward to the next milestone"
+    };
+
+    private static final long SEED = seed();
+    private static final String RUN_TAG = runTag();
+    private static final String SHARD = Integer.toString(ConfigManager.getIntProperty("shard.index", 0), 36);
+    private static final AtomicLong counter = new AtomicLong();
+    private static final AtomicBoolean announced = new AtomicBoolean();
+    private static final ThreadLocal<Stream> streams = new ThreadLocal<>();
+
     /**
      * Generate random email address
      */
     public static String generateRandomEmail() {
-        String[] domains = {"gmail.com", "yahoo.com", "outlook.com", "test.com"};
-        String randomString = generateRandomString(8);
-        String domain = domains[random.nextInt(domains.length)];
-        return "test" + randomString + "@" + domain;
+        SplittableRandom random = random();
+        return "test" + generateRandomString(8) + uniqueSuffix() + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
     }
-    
+
     /**
      * Generate random password
      */
     public static String generateRandomPassword() {
-        return "Pass" + generateRandomString(6) + random.nextInt(100);
+        return "Pass" + generateRandomString(6) + random().nextInt(100);
     }
-    
+
     /**
-     * Generate random project name
+     * Generate random project name, all lowercase: the backend lowercases names before storing them, so the
+     * name shown in the UI is exactly the one generated and case-sensitive lookups find it
      */
     public static String generateRandomProjectName() {
-        String[] prefixes = {"Project", "Task", "Work", "Demo", "Test"};
-        String prefix = prefixes[random.nextInt(prefixes.length)];
-        return prefix + "_" + generateRandomString(5);
+        SplittableRandom random = random();
+        String prefix = PREFIXES[random.nextInt(PREFIXES.length)];
+        return prefix + "_" + randomString(random, LOWER_ALPHANUMERIC, 5) + "_" + uniqueSuffix();
     }
-    
+
     /**
      * Generate random string
      */
     public static String generateRandomString(int length) {
-        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder result = new StringBuilder();
-        
-        for (int i = 0; i < length; i++) {
-            result.append(characters.charAt(random.nextInt(characters.length())));
-        }
-        
-        return result.toString();
+        return randomString(random(), ALPHANUMERIC, length);
     }
-    
+
     /**
      * Generate random number within range
      */
     public static int generateRandomNumber(int min, int max) {
-        return random.nextInt((max - min) + 1) + min;
+        return random().nextInt(min, max + 1);
     }
-    
+
     /**
      * Generate test message
      */
     public static String generateTestMessage() {
-        String[] messages = {
-            "Hello team, how is everyone doing?",
-            "Let's work on this project together",
-            "Can we review the latest changes?",
-            "Great progress on the development!",
-            "Looking forward to the next milestone"
-        };
-        return messages[random.nextInt(messages.length)];
+        return MESSAGES[random().nextInt(MESSAGES.length)];
+    }
+
+    /**
+     * Suffix no other call in this run, another shard or another run produces: run tag, shard, counter.
+     * The fields vary in width, so they are separated; only the run tag may itself contain a separator.
+     */
+    public static String uniqueSuffix() {
+        return RUN_TAG + "-" + SHARD + "-" + Long.toString(counter.incrementAndGet(), 36);
+    }
+
+    public static long getSeed() {
+        return SEED;
+    }
+
+    public static String getRunTag() {
+        return RUN_TAG;
+    }
+
+    /**
+     * Seed of a named stream, for generators that need their own reproducible sequence
+     */
+    public static long seedFor(String name) {
+        return mix(SEED ^ mix(name.hashCode()));
+    }
+
+    static String randomString(SplittableRandom random, char[] alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The calling thread's stream for the current test, reseeded when the thread moves to another test
+     */
+    private static SplittableRandom random() {
+        if (announced.compareAndSet(false, true)) {
+            System.out.println("Test data seed " + SEED + ", run tag " + RUN_TAG + " (replay with -Ddata.seed="
+                + SEED + ")");
+        }
+        String key = TestContext.currentTestName();
+        if ("unknown".equals(key)) {
+            key = "thread:" + Thread.currentThread().getName();
+        }
+        Stream stream = streams.get();
+        if (stream == null || !stream.key.equals(key)) {
+            stream = new Stream(key, new SplittableRandom(seedFor(key)));
+            streams.set(stream);
+        }
+        return stream.random;
+    }
+
+    private static long seed() {
+        String configured = ConfigManager.getProperty("data.seed", "");
+        return configured.isEmpty() ? System.nanoTime() ^ System.currentTimeMillis() : Long.parseLong(configured);
+    }
+
+    private static String runTag() {
+        String configured = ConfigManager.getProperty("data.run.tag", "");
+        return configured.isEmpty() ? Long.toString(System.currentTimeMillis() / 1000, 36) + "-"
+            + Long.toString(ProcessHandle.current().pid(), 36) : configured.toLowerCase();
+    }
+
+    private static long mix(long z) {
+        // SplitMix64 finalizer, so nearby seeds and similar names still give unrelated streams
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stream {
+        private final String key;
+        private final SplittableRandom random;
+
+        Stream(String key, SplittableRandom random) {
+            this.key = key;
+            this.random = random;
+        }
     }
 }
@@ -0,0 +1,315 @@
+package com.vagent.wait;
+
+import com.vagent.config.ConfigManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Event-driven waits that finish as soon as the application signals it is ready.
+ * Waits listen for DOM mutations, network idle, socket messages and CSS transitions inside the page,
+ * and fall back to adaptive polling (10ms growing to 250ms) for arbitrary conditions.
+ * Every wait is recorded in {@link WaitStats}.
+ */
+public class WaitEngine {
+
+    private static final long MIN_POLL_MILLIS = 10;
+    private static final long MAX_POLL_MILLIS = 250;
+
+    /**
+     * Page hooks that count in-flight fetch/XHR requests and socket messages, received as WebSocket frames
+     * or as Socket.IO long-polling responses carrying an event packet. Long-polling requests are not counted
+     * as in flight, since one is always pending.
+     */
+    static final String HOOK_SCRIPT =
+        "(function () {"
+        + "  if (window.__vagent) { return; }"
+        + "  var state = window.__vagent = { inflight: 0, lastNetworkAt: Date.now(), socketMessages: 0, lastSocketAt: 0 };"
+        + "  function tracked(url) { return String(url || '').indexOf('/socket.io/') === -1; }"
+        + "  function started() { state.inflight++; state.lastNetworkAt = Date.now(); }"
+        + "  function finished() { state.inflight = Math.max(0, state.inflight - 1); state.lastNetworkAt = Date.now(); }"
+        + "  if (window.fetch) {"
+        + "    var nativeFetch = window.fetch;"
+        + "    window.fetch = function (input) {"
+        + "      var url = typeof input === 'string' ? input : (input && input.url);"
+        + "      if (!tracked(url)) { return nativeFetch.apply(this, arguments); }"
+        + "      started();"
+        + "      return nativeFetch.apply(this, arguments).then("
+        + "        function (r) { finished(); return r; }, function (e) { finished(); throw e; });"
+        + "    };"
+        + "  }"
+        + "  var nativeOpen = XMLHttpRequest.prototype.open;"
+        + "  var nativeSend = XMLHttpRequest.prototype.send;"
+        + "  XMLHttpRequest.prototype.open = function (method, url) {"
+        + "    this.__vagentTracked = tracked(url);"
+        + "    return nativeOpen.apply(this, arguments);"
+        + "  };"
+        + "  XMLHttpRequest.prototype.send = function () {"
+        + "    if (this.__vagentTracked) { started(); this.addEventListener('loadend', finished); }"
+        + "    else { this.addEventListener('load', function () {"
+        + "      if (String(this.responseText || '').indexOf('42[') === -1) { return; }"
+        + "      state.socketMessages++; state.lastSocketAt = Date.now();"
+        + "    }); }"
+        + "    return nativeSend.apply(this, arguments);"
+        + "  };"
+        + "  if (window.WebSocket) {"
+        + "    var NativeWebSocket = window.WebSocket;"
+        + "    var Wrapped = function (url, protocols) {"
+        + "      var ws = protocols === undefined ? new NativeWebSocket(url) : new NativeWebSocket(url, protocols);"
+        + "      ws.addEventListener('message', function () { state.socketMessages++; state.lastSocketAt = Date.now(); });"
+        + "      return ws;"
+        + "    };"
+        + "    Wrapped.prototype = NativeWebSocket.prototype;"
+        + "    ['CONNECTING', 'OPEN', 'CLOSING', 'CLOSED'].forEach(function (k) { Wrapped[k] = NativeWebSocket[k]; });"
+        + "    window.WebSocket = Wrapped;"
+        + "  }"
+        + "})();";
+
+    private static final String NETWORK_IDLE_SCRIPT =
+        HOOK_SCRIPT
+        + "var quiet = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+        + "var start = Date.now();"
+        + "(function check() {"
+        + "  var s = window.__vagent;"
+        + "  if (s.inflight === 0 && Date.now() - s.lastNetworkAt >= quiet) { done(true); return; }"
+        + "  if (Date.now() - start > timeout) { done(false); return; }"
+        + "  setTimeout(check, Math.min(quiet, 50));"
+        + "})();";
+
+    private static final String DOM_STABLE_SCRIPT =
+        "var quiet = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+        + "var timer, deadline;"
+        + "var observer = new MutationObserver(function () { clearTimeout(timer); timer = setTimeout(finish, quiet); });"
+        + "function finish() { observer.disconnect(); clearTimeout(deadline); done(true); }"
+        + "observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+        + "timer = setTimeout(finish, quiet);"
+        + "deadline = setTimeout(function () { observer.disconnect(); clearTimeout(timer); done(false); }, timeout);";
+
+    private static final String ELEMENT_PRESENT_SCRIPT =
+        "var selector = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+        + "if (document.querySelector(selector)) { done(true); return; }"
+        + "var deadline;"
+        + "var observer = new MutationObserver(function () {"
+        + "  if (document.querySelector(selector)) { observer.disconnect(); clearTimeout(deadline); done(true); }"
+        + "});"
+        + "observer.observe(document, { childList: true, subtree: true });"
+        + "deadline = setTimeout(function () { observer.disconnect(); done(false); }, timeout);";
+
+    private static final String SOCKET_MESSAGE_SCRIPT =
+        HOOK_SCRIPT
+        + "var after = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+        + "var start = Date.now();"
+        + "(function check() {"
+        + "  if (window.__vagent.socketMessages > after) { done(true); return; }"
+        + "  if (Date.now() - start > timeout) { done(false); return; }"
+        + "  setTimeout(check, 10);"
+        + "})();";
+
+    private static final String TRANSITION_END_SCRIPT =
+        "var el = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+        + "function longest(list) { return Math.max.apply(null, list.split(',').map(function (v) {"
+        + "  v = v.trim(); return v.indexOf('ms') > 0 ? parseFloat(v) : parseFloat(v) * 1000; })); }"
+        + "var style = getComputedStyle(el);"
+        + "var total = longest(style.transitionDuration) + longest(style.transitionDelay);"
+        + "if (!total) { done(true); return; }"
+        + "var settled = false;"
+        + "function finish(ok) { if (settled) { return; } settled = true; el.removeEventListener('transitionend', onEnd); done(ok); }"
+        + "function onEnd(e) { if (e.target === el) { finish(true); } }"
+        + "el.addEventListener('transitionend', onEnd);"
+        + "setTimeout(function () { finish(true); }, total + 50);"
+        + "setTimeout(function () { finish(false); }, timeout);";
+
+    private static final Set<WebDriver> hookedDrivers = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final WebDriver driver;
+    private final JavascriptExecutor js;
+    private final Duration timeout;
+    private final String label;
+    private final long formerSleepMillis;
+
+    public WaitEngine(WebDriver driver) {
+        this(driver, Duration.ofSeconds(ConfigManager.getExplicitWait()), null, 0);
+    }
+
+    private WaitEngine(WebDriver driver, Duration timeout, String label, long formerSleepMillis) {
+        this.driver = driver;
+        this.js = (JavascriptExecutor) driver;
+        this.timeout = timeout;
+        this.label = label;
+        this.formerSleepMillis = formerSleepMillis;
+    }
+
+    /**
+     * Register the page hooks to run before any application script on every new document.
+     * Only Chromium drivers support this; other browsers install the hooks lazily on first wait.
+     */
+    public static void installHooks(WebDriver driver) {
+        synchronized (hookedDrivers) {
+            if (!(driver instanceof HasCdp) || !hookedDrivers.add(driver)) {
+                return;
+            }
+        }
+        ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+            Collections.singletonMap("source", HOOK_SCRIPT));
+    }
+
+    /**
+     * Whether the page hooks run before the application's scripts on this driver, so socket messages are
+     * counted from the first one. Without them the hooks arrive on the first wait, after the socket opened.
+     */
+    public static boolean hasEarlyHooks(WebDriver driver) {
+        synchronized (hookedDrivers) {
+            return hookedDrivers.contains(driver);
+        }
+    }
+
+    /**
+     * Label subsequent waits, optionally with the fixed sleep they replace so savings can be reported
+     */
+    public WaitEngine as(String waitLabel, long replacedSleepMillis) {
+        return new WaitEngine(driver, timeout, waitLabel, replacedSleepMillis);
+    }
+
+    public WaitEngine as(String waitLabel) {
+        return as(waitLabel, 0);
+    }
+
+    /**
+     * Use a different timeout for subsequent waits
+     */
+    public WaitEngine withTimeout(Duration waitTimeout) {
+        return new WaitEngine(driver, waitTimeout, label, formerSleepMillis);
+    }
+
+    /**
+     * Wait until document.readyState is complete
+     */
+    public void untilDocumentReady() {
+        until("document-ready", d -> "complete".equals(js.executeScript("return document.readyState")));
+    }
+
+    /**
+     * Wait until no fetch/XHR request has been in flight for the configured quiet period
+     */
+    public void untilNetworkIdle() {
+        runAsync("network-idle", NETWORK_IDLE_SCRIPT, ConfigManager.getIntProperty("wait.network.quiet.ms", 300));
+    }
+
+    /**
+     * Wait until the DOM has stopped mutating for the configured quiet period
+     */
+    public void untilDomStable() {
+        runAsync("dom-stable", DOM_STABLE_SCRIPT, ConfigManager.getIntProperty("wait.dom.quiet.ms", 150));
+    }
+
+    /**
+     * Wait until an element matching the CSS selector is attached to the DOM
+     */
+    public void untilElementPresent(String cssSelector) {
+        runAsync("element-present", ELEMENT_PRESENT_SCRIPT, cssSelector);
+    }
+
+    /**
+     * Wait until more than the given number of elements match the CSS selector
+     */
+    public void untilElementCountAbove(String cssSelector, int count) {
+        until("element-count", d -> d.findElements(By.cssSelector(cssSelector)).size() > count);
+    }
+
+    /**
+     * Number of socket messages (WebSocket or Socket.IO polling) the page has received so far
+     */
+    public long socketMessageCount() {
+        Object count = js.executeScript(HOOK_SCRIPT + "return window.__vagent.socketMessages;");
+        return count instanceof Number ? ((Number) count).longValue() : 0;
+    }
+
+    /**
+     * Wait until the page receives a socket message beyond the given count
+     */
+    public void untilSocketMessage(long afterCount) {
+        runAsync("socket-message", SOCKET_MESSAGE_SCRIPT, afterCount);
+    }
+
+    /**
+     * Wait until the element's CSS transition has ended, or immediately if it has none
+     */
+    public void untilTransitionEnd(WebElement element) {
+        runAsync("transition-end", TRANSITION_END_SCRIPT, element);
+    }
+
+    /**
+     * Wait until the current URL differs from the given one, e.g. after an SPA route change
+     */
+    public void untilUrlChanges(String fromUrl) {
+        until("url-change", d -> !d.getCurrentUrl().equals(fromUrl));
+    }
+
+    /**
+     * Poll a condition with adaptive backoff until it returns a non-null, non-false value
+     */
+    public <T> T until(Function<WebDriver, T> condition) {
+        return until("poll", condition);
+    }
+
+    private <T> T until(String kind, Function<WebDriver, T> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = MIN_POLL_MILLIS;
+        boolean timedOut = false;
+
+        try {
+            while (true) {
+                try {
+                    T value = condition.apply(driver);
+                    if (value != null && !Boolean.FALSE.equals(value)) {
+                        return value;
+                    }
+                } catch (NotFoundException | StaleElementReferenceException e) {
+                    // Not ready yet
+                }
+                if (System.nanoTime() > deadline) {
+                    timedOut = true;
+                    throw new TimeoutException("Timed out after " + timeout.getSeconds() + "s waiting for "
+                        + describe(kind));
+                }
+                Thread.sleep(interval);
+                interval = Math.min(MAX_POLL_MILLIS, interval * 3 / 2 + 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + describe(kind), e);
+        } finally {
+            WaitStats.record(describe(kind), System.nanoTime() - start, formerSleepMillis, timedOut);
+        }
+    }
+
+    private void runAsync(String kind, String script, Object argument) {
+        long start = System.nanoTime();
+        Object result = Boolean.FALSE;
+        try {
+            result = js.executeAsyncScript(script, argument, timeout.toMillis());
+        } finally {
+            WaitStats.record(describe(kind), System.nanoTime() - start, formerSleepMillis,
+                !Boolean.TRUE.equals(result));
+        }
+        if (!Boolean.TRUE.equals(result)) {
+            throw new TimeoutException("Timed out after " + timeout.getSeconds() + "s waiting for " + describe(kind));
+        }
+    }
+
+    private String describe(String kind) {
+        return label != null ? label + " (" + kind + ")" : kind;
+    }
+}
@@ -0,0 +1,92 @@
+package com.vagent.wait;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long each signal-driven wait actually took, and how much fixed sleep it replaced
+ */
+public class WaitStats {
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final AtomicBoolean reportRegistered = new AtomicBoolean();
+
+    private WaitStats() {
+    }
+
+    /**
+     * Record one completed (or timed out) wait
+     */
+    public static void record(String label, long elapsedNanos, long formerSleepMillis, boolean timedOut) {
+        entries.computeIfAbsent(label, key -> new Entry()).add(elapsedNanos, formerSleepMillis, timedOut);
+        if (reportRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(summary()), "wait-stats"));
+        }
+    }
+
+    /**
+     * Total fixed sleep removed across all recorded waits, in milliseconds
+     */
+    public static long getSleepSavedMillis() {
+        long saved = 0;
+        for (Entry entry : entries.values()) {
+            saved += entry.getSavedMillis();
+        }
+        return saved;
+    }
+
+    public static void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Render a per-label table of wait counts, durations and saved sleep
+     */
+    public static String summary() {
+        StringBuilder builder = new StringBuilder("Wait statistics:\n");
+        builder.append(String.format("  %-40s %7s %9s %9s %8s %10s%n",
+            "label", "count", "avg(ms)", "max(ms)", "timeouts", "saved(ms)"));
+        for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+            Entry entry = e.getValue();
+            builder.append(String.format("  %-40s %7d %9.1f %9.1f %8d %10d%n",
+                e.getKey(), entry.count.get(), entry.getAverageMillis(), entry.maxNanos.get() / 1_000_000.0,
+                entry.timeouts.get(), entry.getSavedMillis()));
+        }
+        builder.append(String.format("  Total fixed sleep removed: %.1fs", getSleepSavedMillis() / 1000.0));
+        return builder.toString();
+    }
+
+    private static class Entry {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong formerSleepMillis = new AtomicLong();
+        private final AtomicLong replacedNanos = new AtomicLong();
+
+        void add(long elapsedNanos, long formerSleep, boolean timedOut) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            if (timedOut) {
+                timeouts.incrementAndGet();
+            }
+            if (formerSleep > 0) {
+                formerSleepMillis.addAndGet(formerSleep);
+                replacedNanos.addAndGet(elapsedNanos);
+            }
+        }
+
+        double getAverageMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1_000_000.0 / n;
+        }
+
+        long getSavedMillis() {
+            return formerSleepMillis.get() - replacedNanos.get() / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.vagent.warmup;
+
+import com.vagent.config.ConfigManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes the application once per JVM (one suite, or one shard) before any test touches it, and once more for
+ * each other base.url and api.url pair a suite's parameters point at. The frontend and backend are probed
+ * concurrently, each retried with exponential backoff plus capped random jitter
+ * until it answers or warmup.timeout.seconds passes. Render answers 5xx while a free instance spins up,
+ * so any response below 500 counts as awake. Test threads block on {@link #awaitReady()}, which fails
+ * fast with the warm-up's reason once it has given up, so no test retries navigation for a cold start.
+ *
+ * Usage: mvn compile exec:java -Dexec.mainClass=com.vagent.warmup.WarmUpService
+ */
+public final class WarmUpService {
+
+    private static final Map<String, WarmUpService> started = new HashMap<>();
+
+    private final int timeoutSeconds = ConfigManager.getIntProperty("warmup.timeout.seconds", 300);
+    private final int requestTimeoutSeconds = ConfigManager.getIntProperty("warmup.request.timeout.seconds", 60);
+    private final long initialBackoffMillis = ConfigManager.getIntProperty("warmup.backoff.initial.ms", 1000);
+    private final long maxBackoffMillis = ConfigManager.getIntProperty("warmup.backoff.max.ms", 15000);
+    private final long maxJitterMillis = ConfigManager.getIntProperty("warmup.jitter.max.ms", 2000);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(30))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+    private final String baseUrl;
+    private final String apiUrl;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final long startNanos = System.nanoTime();
+    private volatile String failure;
+
+    private WarmUpService(String baseUrl, String apiUrl) {
+        this.baseUrl = baseUrl;
+        this.apiUrl = apiUrl;
+    }
+
+    /**
+     * Start warming the calling thread's base.url and api.url unless already started; returns immediately
+     */
+    public static WarmUpService start() {
+        return start(ConfigManager.getBaseUrl(), ConfigManager.getApiUrl());
+    }
+
+    /**
+     * Start warming the given frontend and backend unless already started; returns immediately
+     */
+    public static synchronized WarmUpService start(String baseUrl, String apiUrl) {
+        String key = baseUrl + " " + apiUrl;
+        WarmUpService service = started.get(key);
+        if (service == null) {
+            service = new WarmUpService(baseUrl, apiUrl);
+            started.put(key, service);
+            service.run();
+        }
+        return service;
+    }
+
+    /**
+     * Block until the calling thread's application is awake, starting its warm-up if nobody has
+     */
+    public static void awaitReady() {
+        WarmUpService service = start();
+        try {
+            long limitSeconds = service.timeoutSeconds + service.requestTimeoutSeconds + 30L;
+            if (!service.ready.await(limitSeconds, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Application warm-up did not finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for application warm-up", e);
+        }
+        if (service.failure != null) {
+            throw new IllegalStateException("Application did not become ready: " + service.failure);
+        }
+    }
+
+    /**
+     * Whether the calling thread's application has been woken, without starting a warm-up
+     */
+    public static synchronized boolean isReady() {
+        WarmUpService service = started.get(ConfigManager.getBaseUrl() + " " + ConfigManager.getApiUrl());
+        return service != null && service.ready.getCount() == 0 && service.failure == null;
+    }
+
+    public static void main(String[] args) {
+        try {
+            awaitReady();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void run() {
+        if (!ConfigManager.getBooleanProperty("warmup.enabled", true)) {
+            ready.countDown();
+            return;
+        }
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("frontend", baseUrl);
+        targets.put("backend", apiUrl + ConfigManager.getProperty("warmup.backend.path", "/"));
+
+        CompletableFuture<?>[] probes = new CompletableFuture<?>[targets.size()];
+        int i = 0;
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            probes[i++] = probe(target.getKey(), URI.create(target.getValue()));
+        }
+        CompletableFuture.allOf(probes).whenComplete((ignored, error) -> {
+            if (error != null) {
+                // Every probe has finished by now; report each one that gave up
+                StringBuilder reasons = new StringBuilder();
+                for (CompletableFuture<?> probe : probes) {
+                    try {
+                        probe.join();
+                    } catch (CompletionException e) {
+                        reasons.append(reasons.length() > 0 ? "; " : "").append(e.getCause().getMessage());
+                    }
+                }
+                failure = reasons.toString();
+                System.out.println("Warm-up failed: " + failure);
+            } else {
+                System.out.printf("Warm-up: application ready after %.1fs%n", elapsedMillis() / 1000.0);
+            }
+            ready.countDown();
+        });
+    }
+
+    private CompletableFuture<Void> probe(String name, URI uri) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        attempt(name, uri, 0, result);
+        return result;
+    }
+
+    private void attempt(String name, URI uri, int attempt, CompletableFuture<Void> result) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+            .GET()
+            .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() < 500) {
+                System.out.printf("Warm-up: %s %s answered %d after %.1fs (%d attempt(s))%n", name, uri,
+                    response.statusCode(), elapsedMillis() / 1000.0, attempt + 1);
+                result.complete(null);
+                return;
+            }
+            String reason = error != null ? String.valueOf(rootCause(error)) : "HTTP " + response.statusCode();
+            long delay = backoffMillis(attempt);
+            if (elapsedMillis() + delay > timeoutSeconds * 1000L) {
+                result.completeExceptionally(new IllegalStateException(String.format(
+                    "%s %s not ready after %ds and %d attempt(s): %s", name, uri, timeoutSeconds, attempt + 1,
+                    reason)));
+                return;
+            }
+            System.out.printf("Warm-up: %s not ready (%s), retrying in %dms%n", name, reason, delay);
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                .execute(() -> attempt(name, uri, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Doubling delay up to warmup.backoff.max.ms, plus up to half of it (at most warmup.jitter.max.ms) at random
+     * so shards started together do not probe in lockstep
+     */
+    private long backoffMillis(int attempt) {
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+        long jitter = Math.min(maxJitterMillis, backoff / 2);
+        return backoff + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
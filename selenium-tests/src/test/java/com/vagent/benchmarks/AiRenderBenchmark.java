@@ -0,0 +1,129 @@
+package com.vagent.benchmarks;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.driver.DriverFactory;
+import com.vagent.driver.DriverProfile;
+import com.vagent.fixtures.BrowserSession;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.pages.ProjectPage;
+import com.vagent.perf.WebVitals;
+import com.vagent.stub.StubBackend;
+import com.vagent.utils.TestDataGenerator;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how ProjectPage renders AI-generated file trees of growing size. Runs against the stub backend,
+ * whose AI simulator answers "@ai ... files=N" with an N-file tree, and times each prompt from send until
+ * the file tree shows every file, along with the long tasks and React commit time of the interaction.
+ * Needs a built frontend (npm run build in frontend/) for the stub to serve.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.vagent.benchmarks.AiRenderBenchmark
+ *            [-Dbenchmark.ai.files=10,100,500,1000] [-Dbenchmark.ai.file.bytes=512] [-Dbenchmark.runs=3]
+ */
+public class AiRenderBenchmark {
+
+    private static final String RESULTS_FILE = "target/benchmarks/ai-render.csv";
+    private static final long RENDER_TIMEOUT_MILLIS = 120_000;
+
+    public static void main(String[] args) throws Exception {
+        String[] fileCounts = System.getProperty("benchmark.ai.files", "10,100,500,1000").split(",");
+        int fileBytes = Integer.parseInt(System.getProperty("benchmark.ai.file.bytes", "512"));
+        int runs = Integer.parseInt(System.getProperty("benchmark.runs", "3"));
+
+        ConfigManager.override("stub.enabled", "true");
+        ConfigManager.override("perf.enabled", "true");
+        // Fails unless the frontend bundle has been built
+        StubBackend stub = StubBackend.startIfEnabled();
+
+        FixtureClient fixtures = new FixtureClient(stub.getUrl(), 4);
+        UserFixture user = fixtures.registerRandomUser();
+
+        Map<Integer, List<double[]>> results = new LinkedHashMap<>();
+        WebDriver driver = DriverFactory.newDriver(DriverProfile.fromConfig());
+        try {
+            for (String count : fileCounts) {
+                int files = Integer.parseInt(count.trim());
+                List<double[]> samples = new ArrayList<>();
+                for (int run = 1; run <= runs; run++) {
+                    ProjectFixture project = fixtures.createProject(user, TestDataGenerator.generateRandomProjectName());
+                    double[] sample = measure(driver, user, project, files, fileBytes);
+                    samples.add(sample);
+                    System.out.printf("%d files run %d: render=%.0fms longTasks=%.0f tbt=%.0fms reactCommit=%.0fms%n",
+                        files, run, sample[0], sample[1], sample[2], sample[3]);
+                }
+                results.put(files, samples);
+            }
+        } finally {
+            driver.quit();
+            stub.stop();
+        }
+
+        report(results);
+    }
+
+    /**
+     * Ask the simulator for a tree of the given size and wait until every file row is rendered
+     */
+    private static double[] measure(WebDriver driver, UserFixture user, ProjectFixture project, int files,
+                                    int fileBytes) throws InterruptedException {
+        ProjectPage projectPage = BrowserSession.openProject(driver, user, project);
+        long start = System.nanoTime();
+        projectPage.sendMessage("@ai create an express server files=" + files + " bytes=" + fileBytes
+            + " latency=fixed:0");
+
+        long deadline = System.currentTimeMillis() + RENDER_TIMEOUT_MILLIS;
+        while (projectPage.getFileCount() < files) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("File tree did not reach " + files + " files within "
+                    + RENDER_TIMEOUT_MILLIS + "ms");
+            }
+            Thread.sleep(20);
+        }
+        double renderMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        Map<String, Double> vitals = WebVitals.collect(driver, false);
+        return new double[] {renderMillis, vitals.getOrDefault("longTasks", 0.0),
+            vitals.getOrDefault("totalBlockingTime", 0.0), vitals.getOrDefault("reactCommitMs", 0.0)};
+    }
+
+    private static void report(Map<Integer, List<double[]>> results) throws IOException {
+        File file = new File(RESULTS_FILE);
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("files,run,render_ms,long_tasks,total_blocking_ms,react_commit_ms");
+            System.out.println();
+            System.out.println("files   render(ms)  longTasks  tbt(ms)  reactCommit(ms)   (medians)");
+            for (Map.Entry<Integer, List<double[]>> entry : results.entrySet()) {
+                List<double[]> samples = entry.getValue();
+                for (int i = 0; i < samples.size(); i++) {
+                    double[] s = samples.get(i);
+                    writer.printf("%d,%d,%.0f,%.0f,%.0f,%.0f%n", entry.getKey(), i + 1, s[0], s[1], s[2], s[3]);
+                }
+                System.out.printf("%5d  %11.0f  %9.0f  %7.0f  %15.0f%n", entry.getKey(),
+                    median(samples, 0), median(samples, 1), median(samples, 2), median(samples, 3));
+            }
+        }
+        System.out.println("Results written to " + RESULTS_FILE);
+    }
+
+    private static double median(List<double[]> samples, int column) {
+        List<Double> values = new ArrayList<>();
+        for (double[] sample : samples) {
+            values.add(sample[column]);
+        }
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+}
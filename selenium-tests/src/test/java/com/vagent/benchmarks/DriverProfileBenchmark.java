@@ -0,0 +1,139 @@
+package com.vagent.benchmarks;
+
+import com.vagent.config.ConfigManager;
+import com.vagent.driver.DriverFactory;
+import com.vagent.driver.DriverProfile;
+import com.vagent.wait.WaitEngine;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares driver profiles on browser startup time, first page load and memory held after the load.
+ * Memory is the summed resident set of the browser processes started by this JVM (Linux only, shared
+ * pages are counted once per process, so treat it as a relative figure) plus the page's JS heap via CDP.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.vagent.benchmarks.DriverProfileBenchmark
+ *            [-Dbenchmark.profiles=default,headless,fast,low-memory] [-Dbenchmark.runs=5]
+ */
+public class DriverProfileBenchmark {
+
+    private static final String RESULTS_FILE = "target/benchmarks/driver-profiles.csv";
+
+    public static void main(String[] args) throws Exception {
+        String[] profiles = System.getProperty("benchmark.profiles", "default,headless,fast,low-memory").split(",");
+        int runs = Integer.parseInt(System.getProperty("benchmark.runs", "5"));
+
+        Map<String, List<double[]>> results = new LinkedHashMap<>();
+        for (String name : profiles) {
+            DriverProfile profile = DriverProfile.named(name);
+            List<double[]> samples = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                double[] sample = measure(profile);
+                samples.add(sample);
+                System.out.printf("%s run %d: startup=%.0fms load=%.0fms rss=%.1fMB jsHeap=%.1fMB%n",
+                    profile.getName(), run, sample[0], sample[1], sample[2], sample[3]);
+            }
+            results.put(profile.getName(), samples);
+        }
+
+        report(results);
+    }
+
+    /**
+     * Launch one browser with the profile, load the application and sample memory before quitting
+     */
+    private static double[] measure(DriverProfile profile) {
+        long start = System.nanoTime();
+        WebDriver driver = DriverFactory.newDriver(profile);
+        double startupMillis = (System.nanoTime() - start) / 1_000_000.0;
+        try {
+            long loadStart = System.nanoTime();
+            driver.get(ConfigManager.getBaseUrl());
+            WaitEngine waits = new WaitEngine(driver).as("DriverProfileBenchmark.load");
+            waits.untilDocumentReady();
+            waits.untilNetworkIdle();
+            double loadMillis = (System.nanoTime() - loadStart) / 1_000_000.0;
+            return new double[] {startupMillis, loadMillis, browserRssMegabytes(), jsHeapMegabytes(driver)};
+        } finally {
+            driver.quit();
+        }
+    }
+
+    /**
+     * Sum VmRSS over every process this JVM has spawned, i.e. the driver binary and its browser
+     */
+    private static double browserRssMegabytes() {
+        long totalKb = 0;
+        for (ProcessHandle process : (Iterable<ProcessHandle>) ProcessHandle.current().descendants()::iterator) {
+            Path status = Paths.get("/proc", String.valueOf(process.pid()), "status");
+            try {
+                for (String line : Files.readAllLines(status)) {
+                    if (line.startsWith("VmRSS:")) {
+                        totalKb += Long.parseLong(line.replaceAll("[^0-9]", ""));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Process exited or /proc is unavailable on this platform
+            }
+        }
+        return totalKb / 1024.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double jsHeapMegabytes(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            return 0;
+        }
+        HasCdp cdp = (HasCdp) driver;
+        cdp.executeCdpCommand("Performance.enable", Collections.emptyMap());
+        Map<String, Object> response = cdp.executeCdpCommand("Performance.getMetrics", Collections.emptyMap());
+        for (Map<String, Object> metric : (List<Map<String, Object>>) response.get("metrics")) {
+            if ("JSHeapUsedSize".equals(metric.get("name"))) {
+                return ((Number) metric.get("value")).doubleValue() / (1024 * 1024);
+            }
+        }
+        return 0;
+    }
+
+    private static void report(Map<String, List<double[]>> results) throws IOException {
+        File file = new File(RESULTS_FILE);
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("profile,run,startup_ms,load_ms,rss_mb,js_heap_mb");
+            System.out.println();
+            System.out.println("profile       startup(ms)  load(ms)  rss(MB)  jsHeap(MB)   (medians)");
+            for (Map.Entry<String, List<double[]>> entry : results.entrySet()) {
+                List<double[]> samples = entry.getValue();
+                for (int i = 0; i < samples.size(); i++) {
+                    double[] s = samples.get(i);
+                    writer.printf("%s,%d,%.0f,%.0f,%.1f,%.1f%n", entry.getKey(), i + 1, s[0], s[1], s[2], s[3]);
+                }
+                System.out.printf("%-12s  %11.0f  %8.0f  %7.1f  %10.1f%n", entry.getKey(),
+                    median(samples, 0), median(samples, 1), median(samples, 2), median(samples, 3));
+            }
+        }
+        System.out.println("Results written to " + RESULTS_FILE);
+    }
+
+    private static double median(List<double[]> samples, int column) {
+        List<Double> values = new ArrayList<>();
+        for (double[] sample : samples) {
+            values.add(sample[column]);
+        }
+        Collections.sort(values);
+        return values.get(values.size() / 2);
+    }
+}
@@ -0,0 +1,99 @@
+package com.vagent.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Measures suite wall-clock time at 1, 2, 4 and 8 threads.
+ * Each run uses a fresh JVM so driver pools and static state do not carry over between thread counts.
+ *
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test
+ *            -Dexec.mainClass=com.vagent.benchmarks.ParallelSuiteBenchmark
+ *            [-Dbenchmark.suite=src/test/resources/testng.xml] [-Dbenchmark.parallel=classes]
+ *            [-Dbenchmark.threads=1,2,4,8]
+ */
+public class ParallelSuiteBenchmark {
+
+    private static final String RESULTS_FILE = "target/benchmarks/parallel-suite.csv";
+
+    public static void main(String[] args) throws Exception {
+        String suite = System.getProperty("benchmark.suite", "src/test/resources/testng.xml");
+        String mode = System.getProperty("benchmark.parallel", "classes");
+        String[] threads = System.getProperty("benchmark.threads", "1,2,4,8").split(",");
+
+        Map<Integer, Long> results = new LinkedHashMap<>();
+        for (String value : threads) {
+            int threadCount = Integer.parseInt(value.trim());
+            String effectiveMode = threadCount == 1 ? "none" : mode;
+            long elapsed = runSuite(suite, effectiveMode, threadCount);
+            results.put(threadCount, elapsed);
+            System.out.printf("threads=%d mode=%s wall=%.1fs%n", threadCount, effectiveMode, elapsed / 1000.0);
+        }
+
+        report(results);
+    }
+
+    private static long runSuite(String suite, String mode, int threadCount) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(testClasspath());
+        command.add("-Dtest.parallel=" + mode);
+        command.add("-Dtest.thread.count=" + threadCount);
+        command.add("-Ddriver.pool.size=" + threadCount);
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add("target/benchmarks/parallel-" + threadCount);
+        command.add(suite);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        int exitCode = process.waitFor();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (exitCode != 0) {
+            System.out.println("Suite exited with code " + exitCode + " at " + threadCount + " threads");
+        }
+        return elapsedMillis;
+    }
+
+    /**
+     * Resolve the test classpath, which exec:java exposes through the context class loader
+     */
+    private static String testClasspath() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            StringJoiner joiner = new StringJoiner(File.pathSeparator);
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                joiner.add(new File(url.getPath()).getAbsolutePath());
+            }
+            return joiner.toString();
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private static void report(Map<Integer, Long> results) throws IOException {
+        long baseline = results.values().iterator().next();
+
+        File file = new File(RESULTS_FILE);
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("threads,wall_ms,speedup");
+            System.out.println();
+            System.out.println("threads  wall(s)  speedup");
+            for (Map.Entry<Integer, Long> entry : results.entrySet()) {
+                double speedup = (double) baseline / entry.getValue();
+                writer.printf("%d,%d,%.2f%n", entry.getKey(), entry.getValue(), speedup);
+                System.out.printf("%7d  %7.1f  %6.2fx%n", entry.getKey(), entry.getValue() / 1000.0, speedup);
+            }
+        }
+        System.out.println("Results written to " + RESULTS_FILE);
+    }
+}
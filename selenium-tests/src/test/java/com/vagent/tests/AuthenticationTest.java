@@ -2,6 +2,7 @@ package com.vagent.tests;
 
 import com.vagent.config.ConfigManager;
 import com.vagent.driver.DriverFactory;
+import com.vagent.fixtures.BrowserSession;
 import com.vagent.pages.LoginPage;
 import com.vagent.pages.HomePage;
 import com.vagent.pages.RegisterPage;
@@ -49,22 +50,8 @@ public class AuthenticationTest extends BaseTest {
         LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
         RegisterPage registerPage = loginPage.clickRegisterLink();
         
-        // Wait for register page to load fully
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         HomePage homePage = registerPage.register(email, password);
         
-        // Wait for navigation and authentication to complete
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Check if we're on home page (or handle redirect to login)
         String currentUrl = homePage.getCurrentUrl();
         if (currentUrl.contains("/login")) {
@@ -85,43 +72,15 @@ public class AuthenticationTest extends BaseTest {
         LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
         RegisterPage registerPage = loginPage.clickRegisterLink();
         
-        // Wait for register page to load
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         registerPage.register(email, password);
         
-        // Wait for registration to complete
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Navigate to login page explicitly
         loginPage = new LoginPage(DriverFactory.getDriver());
         loginPage.navigateToUrl(ConfigManager.getBaseUrl() + "/login");
         
-        // Wait for login page to load
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Login with the same credentials
         HomePage homePage = loginPage.login(email, password);
         
-        // Wait for login to complete
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(homePage.isHomePageDisplayed(), "Home page should be displayed after login");
     }
 
@@ -147,33 +106,12 @@ public class AuthenticationTest extends BaseTest {
         LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
         RegisterPage registerPage = loginPage.clickRegisterLink();
         
-        // Wait for register page
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         registerPage.register(email, password);
         
-        // Wait and navigate to login if needed
-        try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Ensure we're logged in
         String currentUrl = DriverFactory.getDriver().getCurrentUrl();
         if (currentUrl.contains("/login")) {
-            loginPage = new LoginPage(DriverFactory.getDriver());
-            loginPage.login(email, password);
-            
-            try {
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            BrowserSession.login(DriverFactory.getDriver(), email, password);
         }
         
         HomePage homePage = new HomePage(DriverFactory.getDriver());
@@ -183,12 +121,6 @@ public class AuthenticationTest extends BaseTest {
             // Logout
             loginPage = homePage.logout();
             
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            
             Assert.assertTrue(loginPage.isLoginPageDisplayed(), "Should return to login page after logout");
         } else {
             // Skip this test if we can't get to home page
@@ -1,71 +1,97 @@
 package com.vagent.tests;
 
 import com.vagent.config.ConfigManager;
+import com.vagent.context.TestContext;
 import com.vagent.driver.DriverFactory;
-import com.vagent.utils.ScreenshotUtils;
-import org.testng.ITestListener;
-import org.testng.ITestResult;
+import com.vagent.listeners.TestClasses;
+import com.vagent.network.NetworkCapture;
+import com.vagent.perf.PerfBudget;
+import com.vagent.perf.WebVitals;
+import com.vagent.stub.StubBackend;
+import com.vagent.wait.WaitEngine;
+import com.vagent.warmup.WarmUpService;
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
 
 /**
- * Base test class with common setup and teardown
+ * Base test class with common setup and teardown.
+ * Classes that chain methods with dependsOnMethods keep one browser for the whole class,
+ * since their page objects are carried from method to method; all others get a browser per method.
+ * TestNG may schedule dependent methods on another worker thread, so the class-scoped browser is
+ * re-bound to whichever thread runs each method. Failure screenshots are taken by ScreenshotListener.
+ * The application is woken once per suite by WarmUpService, which every browser waits for.
  */
-public class BaseTest implements ITestListener {
+public class BaseTest {
     
-    @BeforeMethod
-    public void setUp() {
-        DriverFactory.createDriver();
-        
-        // Handle Render cold start - try multiple times if needed
-        String baseUrl = ConfigManager.getBaseUrl();
-        int maxRetries = 3;
-        boolean pageLoaded = false;
-        
-        for (int i = 0; i < maxRetries && !pageLoaded; i++) {
-            try {
-                DriverFactory.getDriver().get(baseUrl);
-                
-                // Wait for page to load completely with extended timeout
-                Thread.sleep(5000); // Initial wait for Render wake-up
-                
-                // Check if page is responsive
-                String readyState = (String) ((org.openqa.selenium.JavascriptExecutor) DriverFactory.getDriver())
-                    .executeScript("return document.readyState");
-                
-                if ("complete".equals(readyState)) {
-                    pageLoaded = true;
-                } else {
-                    Thread.sleep(10000); // Wait longer for slow loading
-                }
-                
-            } catch (Exception e) {
-                System.out.println("Attempt " + (i + 1) + " failed to load page: " + e.getMessage());
-                if (i == maxRetries - 1) {
-                    throw new RuntimeException("Failed to load application after " + maxRetries + " attempts", e);
-                }
-                try {
-                    Thread.sleep(15000); // Wait 15 seconds before retry
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Test setup interrupted", ie);
-                }
-            }
+    private WebDriver classDriver;
+    
+    @BeforeSuite(alwaysRun = true)
+    public void startStubBackend() {
+        StubBackend.startIfEnabled();
+        // Wake the application in the background while drivers start; tests wait for it in openApplication.
+        // The URLs are read after the stub has pointed them at itself
+        WarmUpService.start(ConfigManager.getBaseUrl(), ConfigManager.getApiUrl());
+    }
+    
+    @BeforeClass(alwaysRun = true)
+    public void setUpClass() {
+        if (TestClasses.hasDependentMethods(getClass())) {
+            classDriver = openApplication();
+            DriverFactory.unbindDriver();
+        }
+    }
+    
+    @BeforeMethod(alwaysRun = true)
+    public void setUp(Method method) {
+        TestContext.start(getClass().getSimpleName(), method.getName());
+        if (classDriver != null) {
+            DriverFactory.bindDriver(classDriver);
+        } else {
+            openApplication();
         }
     }
     
-    @AfterMethod
+    @AfterMethod(alwaysRun = true)
     public void tearDown() {
-        DriverFactory.quitDriver();
+        NetworkCapture.finish(DriverFactory.getDriver(), TestContext.currentTestName());
+        if (classDriver != null) {
+            DriverFactory.unbindDriver();
+        } else {
+            DriverFactory.quitDriver();
+        }
+        TestContext.clear();
     }
     
-    @Override
-    public void onTestFailure(ITestResult result) {
-        if (DriverFactory.getDriver() != null) {
-            ScreenshotUtils.takeScreenshotOnFailure(
-                DriverFactory.getDriver(), 
-                result.getMethod().getMethodName()
-            );
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        if (classDriver != null) {
+            DriverFactory.releaseDriver(classDriver);
+            classDriver = null;
+        }
+    }
+    
+    private WebDriver openApplication() {
+        WebDriver driver = DriverFactory.createDriver();
+        NetworkCapture.begin(driver);
+        
+        // The browser starts while the suite warm-up rides out any Render cold start, then one load is enough
+        WarmUpService.awaitReady();
+        driver.get(ConfigManager.getBaseUrl());
+        new WaitEngine(driver)
+            .withTimeout(Duration.ofSeconds(ConfigManager.getPageLoadTimeout()))
+            .as("BaseTest.applicationLoad", 5000)
+            .untilDocumentReady();
+        if (WebVitals.isEnabled()) {
+            // Runs during setup, so a breach is charged to the next test method rather than thrown here
+            PerfBudget.checkLoadDeferred(driver, "Application", this);
         }
+        return driver;
     }
 }
@@ -1,14 +1,24 @@
 package com.vagent.tests;
 
+import com.vagent.config.ConfigManager;
 import com.vagent.driver.DriverFactory;
+import com.vagent.fixtures.BrowserSession;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.ProjectFixture;
+import com.vagent.fixtures.UserFixture;
+import com.vagent.pages.DomSnapshot;
 import com.vagent.pages.LoginPage;
 import com.vagent.pages.HomePage;
 import com.vagent.pages.ProjectPage;
-import com.vagent.pages.RegisterPage;
+import com.vagent.scenario.CollaborationScenario;
+import com.vagent.scenario.ScenarioResult;
 import com.vagent.utils.TestDataGenerator;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 /**
  * Test class for collaboration functionality
  */
@@ -24,46 +34,25 @@ public class CollaborationTest extends BaseTest {
 
     @Test(priority = 1, description = "Setup test users")
     public void setupTestUsers() {
-        // Create creator account
-        creatorEmail = TestDataGenerator.generateRandomEmail();
-        creatorPassword = TestDataGenerator.generateRandomPassword();
-        
-        LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
-        RegisterPage registerPage = loginPage.clickRegisterLink();
-        homePage = registerPage.register(creatorEmail, creatorPassword);
+        // Seed both accounts concurrently through the API, then the creator's project
+        FixtureClient fixtures = new FixtureClient();
+        List<UserFixture> users = fixtures.registerRandomUsers(2);
+        UserFixture creator = users.get(0);
+        UserFixture collaborator = users.get(1);
         
-        Assert.assertTrue(homePage.isHomePageDisplayed(), "Creator should be on home page");
+        creatorEmail = creator.getEmail();
+        creatorPassword = creator.getPassword();
+        collaboratorEmail = collaborator.getEmail();
+        collaboratorPassword = collaborator.getPassword();
         
-        // Create a project
-        projectName = TestDataGenerator.generateRandomProjectName();
-        homePage.createProject(projectName);
+        ProjectFixture project = fixtures.createProject(creator, TestDataGenerator.generateRandomProjectName());
+        projectName = project.getName();
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        // Start the browser signed in as the creator
+        homePage = BrowserSession.signIn(DriverFactory.getDriver(), creator);
         
+        Assert.assertTrue(homePage.isHomePageDisplayed(), "Creator should be on home page");
         Assert.assertTrue(homePage.isProjectExists(projectName), "Project should be created");
-        
-        // Logout creator
-        loginPage = homePage.logout();
-        
-        // Create collaborator account
-        collaboratorEmail = TestDataGenerator.generateRandomEmail();
-        collaboratorPassword = TestDataGenerator.generateRandomPassword();
-        
-        registerPage = loginPage.clickRegisterLink();
-        homePage = registerPage.register(collaboratorEmail, collaboratorPassword);
-        
-        Assert.assertTrue(homePage.isHomePageDisplayed(), "Collaborator should be on home page");
-        
-        // Logout collaborator
-        loginPage = homePage.logout();
-        
-        // Login back as creator
-        homePage = loginPage.login(creatorEmail, creatorPassword);
     }
 
     @Test(priority = 2, description = "Open project and verify project page elements", dependsOnMethods = {"setupTestUsers"})
@@ -78,19 +67,14 @@ public class CollaborationTest extends BaseTest {
     @Test(priority = 3, description = "Send message in project", dependsOnMethods = {"testProjectPageElements"})
     public void testSendMessage() {
         String testMessage = TestDataGenerator.generateTestMessage();
-        int initialMessageCount = projectPage.getMessageCount();
+        DomSnapshot before = projectPage.snapshot();
         
         projectPage.sendMessage(testMessage);
         
-        // Wait for message to be sent
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        int finalMessageCount = projectPage.getMessageCount();
-        Assert.assertTrue(finalMessageCount > initialMessageCount, "Message count should increase after sending message");
+        DomSnapshot after = projectPage.snapshot();
+        Assert.assertTrue(after.count("messages") > before.count("messages"),
+            "Message count should increase after sending message");
+        Assert.assertEquals(after.lastText("messages"), testMessage, "Last message should be the one just sent");
     }
 
     @Test(priority = 4, description = "Toggle collaborators panel", dependsOnMethods = {"testProjectPageElements"})
@@ -101,25 +85,11 @@ public class CollaborationTest extends BaseTest {
         // Toggle panel
         projectPage.toggleCollaboratorsPanel();
         
-        // Wait for animation
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(projectPage.isSidePanelOpen(), "Side panel should be open after toggle");
         
         // Toggle again to close
         projectPage.toggleCollaboratorsPanel();
         
-        // Wait for animation
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertFalse(projectPage.isSidePanelOpen(), "Side panel should be closed after second toggle");
     }
 
@@ -127,13 +97,6 @@ public class CollaborationTest extends BaseTest {
     public void testInitialCollaboratorsCount() {
         projectPage.toggleCollaboratorsPanel();
         
-        // Wait for panel to open
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         int collaboratorCount = projectPage.getCollaboratorCount();
         Assert.assertEquals(collaboratorCount, 1, "Project should have 1 collaborator initially (creator)");
         
@@ -158,13 +121,6 @@ public class CollaborationTest extends BaseTest {
         for (int i = 0; i < 3; i++) {
             String message = "Test message " + (i + 1) + ": " + TestDataGenerator.generateTestMessage();
             projectPage.sendMessage(message);
-            
-            // Wait between messages
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
         }
         
         int finalMessageCount = projectPage.getMessageCount();
@@ -202,14 +158,24 @@ public class CollaborationTest extends BaseTest {
         // Try to send empty message
         projectPage.sendMessage("");
         
-        // Wait a moment
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         int finalMessageCount = projectPage.getMessageCount();
         Assert.assertEquals(finalMessageCount, initialMessageCount, "Empty message should not be sent");
     }
+
+    @Test(priority = 11, groups = "collaboration-load",
+          description = "Users chat, edit files and change collaborators at the same time")
+    public void testConcurrentCollaboration() throws Exception {
+        // Registers collab.users accounts and opens extra browsers, so it only runs when asked for
+        // (collaboration-load.xml sets collab.enabled); testng.xml excludes it from the regular suite
+        if (!ConfigManager.getBooleanProperty("collab.enabled", false)) {
+            throw new SkipException("Collaboration load scenario is disabled (collab.enabled=false)");
+        }
+        // One browser user and the rest over Socket.IO, all on a fresh project (see collab.* settings)
+        ScenarioResult result = new CollaborationScenario().run();
+        result.print();
+        
+        Assert.assertTrue(result.getViolations().isEmpty(), "Collaboration guarantees broken: " + result.getViolations());
+        Assert.assertEquals(result.getDelivered(), result.getExpectedDeliveries(),
+            "Every message should reach every other user");
+    }
 }
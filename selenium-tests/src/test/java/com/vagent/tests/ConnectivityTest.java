@@ -2,6 +2,7 @@ package com.vagent.tests;
 
 import com.vagent.config.ConfigManager;
 import com.vagent.driver.DriverFactory;
+import com.vagent.wait.WaitEngine;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -19,11 +20,7 @@ public class ConnectivityTest extends BaseTest {
         DriverFactory.getDriver().get(baseUrl);
         
         // Wait for page to load
-        try {
-            Thread.sleep(5000); // Give extra time for cloud app to load
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        new WaitEngine(DriverFactory.getDriver()).as("ConnectivityTest.appLoad", 5000).untilDocumentReady();
         
         // Check if page loaded successfully
         String currentUrl = DriverFactory.getDriver().getCurrentUrl();
@@ -1,9 +1,10 @@
 package com.vagent.tests;
 
 import com.vagent.driver.DriverFactory;
-import com.vagent.pages.LoginPage;
+import com.vagent.fixtures.BrowserSession;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.UserFixture;
 import com.vagent.pages.HomePage;
-import com.vagent.pages.RegisterPage;
 import com.vagent.utils.TestDataGenerator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -19,12 +20,12 @@ public class ProjectManagementTest extends BaseTest {
 
     @Test(priority = 1, description = "Setup test user and login")
     public void setupTestUser() {
-        testEmail = TestDataGenerator.generateRandomEmail();
-        testPassword = TestDataGenerator.generateRandomPassword();
+        // Seed the user through the API and start the browser already signed in
+        UserFixture user = new FixtureClient().registerRandomUser();
+        testEmail = user.getEmail();
+        testPassword = user.getPassword();
         
-        LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
-        RegisterPage registerPage = loginPage.clickRegisterLink();
-        homePage = registerPage.register(testEmail, testPassword);
+        homePage = BrowserSession.signIn(DriverFactory.getDriver(), user);
         
         Assert.assertTrue(homePage.isHomePageDisplayed(), "Should be on home page after registration");
     }
@@ -52,13 +53,6 @@ public class ProjectManagementTest extends BaseTest {
         
         homePage.createProject(projectName);
         
-        // Wait a moment for the project to be created
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(homePage.isProjectExists(projectName), "Project should be created and visible");
     }
 
@@ -67,13 +61,6 @@ public class ProjectManagementTest extends BaseTest {
         String projectName = TestDataGenerator.generateRandomProjectName();
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(homePage.isProjectExists(projectName), "Project should exist");
         
         // Check collaborators count (should be 1 - the creator)
@@ -89,13 +76,6 @@ public class ProjectManagementTest extends BaseTest {
         // Create project
         homePage.createProject(originalProjectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Edit project
         homePage.editProject(originalProjectName);
         
@@ -106,11 +86,7 @@ public class ProjectManagementTest extends BaseTest {
         homePage.clickCreateButton(); // This button text changes to "Update" in edit mode
         
         // Wait for update
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        homePage.waitForProjectListUpdate();
         
         Assert.assertTrue(homePage.isProjectExists(newProjectName), "Project should be updated with new name");
     }
@@ -122,25 +98,11 @@ public class ProjectManagementTest extends BaseTest {
         // Create project
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(homePage.isProjectExists(projectName), "Project should exist before deletion");
         
         // Delete project
         homePage.deleteProject(projectName);
         
-        // Wait for deletion
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertFalse(homePage.isProjectExists(projectName), "Project should be deleted");
     }
 
@@ -152,13 +114,6 @@ public class ProjectManagementTest extends BaseTest {
         for (int i = 0; i < 3; i++) {
             String projectName = "Project_" + i + "_" + TestDataGenerator.generateRandomString(4);
             homePage.createProject(projectName);
-            
-            // Wait between creations
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
         }
         
         // Verify project count increased
@@ -187,13 +142,6 @@ public class ProjectManagementTest extends BaseTest {
         
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         Assert.assertTrue(homePage.isProjectExists(projectName), "Project with special characters should be created");
     }
 }
@@ -1,9 +1,10 @@
 package com.vagent.tests;
 
 import com.vagent.driver.DriverFactory;
-import com.vagent.pages.LoginPage;
+import com.vagent.fixtures.BrowserSession;
+import com.vagent.fixtures.FixtureClient;
+import com.vagent.fixtures.UserFixture;
 import com.vagent.pages.HomePage;
-import com.vagent.pages.RegisterPage;
 import com.vagent.utils.TestDataGenerator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -19,12 +20,12 @@ public class UIElementsTest extends BaseTest {
 
     @Test(priority = 1, description = "Setup test user")
     public void setupTestUser() {
-        testEmail = TestDataGenerator.generateRandomEmail();
-        testPassword = TestDataGenerator.generateRandomPassword();
+        // Seed the user through the API and start the browser already signed in
+        UserFixture user = new FixtureClient().registerRandomUser();
+        testEmail = user.getEmail();
+        testPassword = user.getPassword();
         
-        LoginPage loginPage = new LoginPage(DriverFactory.getDriver());
-        RegisterPage registerPage = loginPage.clickRegisterLink();
-        homePage = registerPage.register(testEmail, testPassword);
+        homePage = BrowserSession.signIn(DriverFactory.getDriver(), user);
         
         Assert.assertTrue(homePage.isHomePageDisplayed(), "Should be on home page");
     }
@@ -46,17 +47,13 @@ public class UIElementsTest extends BaseTest {
         DriverFactory.getDriver().manage().window().setSize(new org.openqa.selenium.Dimension(768, 1024));
         
         // Wait for layout adjustment
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        homePage.waits().as("UIElementsTest.resize", 1000).untilDomStable();
         
         // Elements should still be visible
         Assert.assertTrue(homePage.isHomePageDisplayed(), "Page should be responsive on smaller screens");
         
         // Restore window size
-        DriverFactory.getDriver().manage().window().maximize();
+        DriverFactory.configureWindow(DriverFactory.getDriver());
     }
 
     @Test(priority = 4, description = "Test button interactions", dependsOnMethods = {"setupTestUser"})
@@ -69,11 +66,7 @@ public class UIElementsTest extends BaseTest {
         homePage.clickCancelButton();
         
         // Wait for modal to close
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        homePage.waits().as("UIElementsTest.modalClose", 500).untilDomStable();
         
         Assert.assertFalse(homePage.isModalDisplayed(), "Modal should close when clicking cancel");
     }
@@ -100,13 +93,6 @@ public class UIElementsTest extends BaseTest {
         String projectName = TestDataGenerator.generateRandomProjectName();
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Open project
         var projectPage = homePage.openProject(projectName);
         Assert.assertTrue(projectPage.isProjectPageDisplayed(), "Should navigate to project page");
@@ -138,11 +124,7 @@ public class UIElementsTest extends BaseTest {
         homePage.clickCreateButton();
         
         // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        homePage.waitForProjectListUpdate();
         
         // Modal should close and project should be created
         Assert.assertFalse(homePage.isModalDisplayed(), "Modal should close after successful creation");
@@ -155,22 +137,11 @@ public class UIElementsTest extends BaseTest {
         String projectName = TestDataGenerator.generateRandomProjectName();
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         // Refresh page
         DriverFactory.getDriver().navigate().refresh();
         
         // Wait for page to load
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        homePage.waits().as("UIElementsTest.refresh", 2000).untilDocumentReady();
         
         // Re-initialize page object after refresh
         homePage = new HomePage(DriverFactory.getDriver());
@@ -188,13 +159,6 @@ public class UIElementsTest extends BaseTest {
         String projectName = TestDataGenerator.generateRandomProjectName();
         homePage.createProject(projectName);
         
-        // Wait for project creation
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         var projectPage = homePage.openProject(projectName);
         String projectUrl = DriverFactory.getDriver().getCurrentUrl();
         